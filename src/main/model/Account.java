@@ -1,27 +1,39 @@
 package model;
 
+import model.search.ClothingAddress;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import persistance.JsonBuilder;
+import persistance.JsonStreamReader;
+import persistance.JsonStreamWriter;
 import persistance.Savable;
+import persistance.SnapshotReader;
+import persistance.SnapshotSavable;
+import persistance.SnapshotWriter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 // A user account with a closet, clothing catalogue, and name
-public class Account implements Savable<Void> {
+public class Account implements Savable<Void>, SnapshotSavable<Void> {
 
     public static final String JSON_CATALOGUE_KEY = "catalogue";
     public static final String JSON_CLOSETS_KEY = "closets";
     public static final String JSON_NAME_KEY = "name";
     public static final String JSON_ALL_CLOTHING_KEY = "allClothing";
 
-    private final Catalogue catalogue;
-    private final List<Closet> closets;
+    private Catalogue catalogue;
+    private List<Closet> closets;
     private String name;
+    private SnapshotReader unloaded;
+    private AccountJournal journal;
 
     // EFFECTS: Constructs a new account with the given name
     public Account(String name) {
@@ -35,6 +47,7 @@ public class Account implements Savable<Void> {
         this.name = name;
         this.catalogue = c;
         this.closets = closets;
+        this.adopt();
     }
 
     // REQUIRES: jso was created by this.toJson
@@ -58,6 +71,63 @@ public class Account implements Savable<Void> {
         return new Account(name, c, closets);
     }
 
+    // REQUIRES: the next value in jsr is an object written like this.toJson
+    // MODIFIES: jsr
+    // EFFECTS: Reads an instance of this object from the next JSON object in
+    //          the stream.
+    public static Account fromJsonStream(JsonStreamReader jsr) throws IOException {
+        List<Clothing> allClothing = new ArrayList<>();
+        Function<List<Clothing>, Catalogue> catalogue = all -> new Catalogue();
+        List<Function<List<Clothing>, Closet>> closets = new ArrayList<>();
+        String name = "";
+        jsr.beginObject();
+        while (jsr.hasNext()) {
+            String field = jsr.nextName();
+            if (field.equals(JSON_ALL_CLOTHING_KEY)) {
+                allClothing = jsr.nextArray(Clothing::fromJsonStream);
+            } else if (field.equals(JSON_CATALOGUE_KEY)) {
+                catalogue = Catalogue.fromJsonStream(jsr);
+            } else if (field.equals(JSON_CLOSETS_KEY)) {
+                closets = jsr.nextArray(Closet::fromJsonStream);
+            } else if (field.equals(JSON_NAME_KEY)) {
+                name = jsr.nextString();
+            } else {
+                jsr.skipValue();
+            }
+        }
+        jsr.endObject();
+        return new Account(name, catalogue.apply(allClothing), resolve(closets, allClothing));
+    }
+
+    // REQUIRES: the next value in sr was written by this.writeSnapshot
+    // MODIFIES: sr
+    // EFFECTS: Reads an instance of this object from the snapshot
+    public static Account fromSnapshot(SnapshotReader sr) throws IOException {
+        String name = sr.readString();
+        List<Clothing> allClothing = sr.readAll(Clothing::fromSnapshot);
+        List<Closet> closets = sr.readAll(r -> Closet.fromSnapshot(r, allClothing));
+        return new Account(name, Catalogue.fromSnapshot(sr, allClothing), closets);
+    }
+
+    // REQUIRES: section was written by this.writeSnapshot
+    // EFFECTS: Returns an account with the given name whose closets and
+    //          catalogue are read from the section when first accessed.
+    public static Account lazy(String name, SnapshotReader section) {
+        Account account = new Account(name, null, null);
+        account.unloaded = section;
+        return account;
+    }
+
+    // EFFECTS: Builds each of the closets from the sorted list of all clothing
+    private static List<Closet> resolve(List<Function<List<Clothing>, Closet>> closets,
+                                        List<Clothing> allClothing) {
+        List<Closet> resolved = new ArrayList<>(closets.size());
+        for (Function<List<Clothing>, Closet> closet : closets) {
+            resolved.add(closet.apply(allClothing));
+        }
+        return resolved;
+    }
+
     // EFFECTS: Returns the name of this account
     public String getName() {
         return this.name;
@@ -78,6 +148,7 @@ public class Account implements Savable<Void> {
                 return false;
             }
         }
+        this.record(AccountJournal.RENAME, sw -> sw.writeString(name));
         this.name = name;
         EventLog.getInstance().logEvent(new Event(
                 "Account: Set name (" + this.name + ") to " + name + "."
@@ -90,7 +161,7 @@ public class Account implements Savable<Void> {
     //          list of closets if the name is not already taken.
     //          Returns true if it was added, false otherwise.
     public boolean addCloset(String name) {
-        if (this.closets.stream()
+        if (this.getClosets().stream()
                 .anyMatch(n -> n.getName().equalsIgnoreCase(name))) {
             EventLog.getInstance().logEvent(new Event(
                     "Account: Could not add closet "
@@ -98,7 +169,10 @@ public class Account implements Savable<Void> {
             ));
             return false;
         }
-        this.closets.add(new Closet(name));
+        Closet closet = new Closet(name);
+        closet.attach(this);
+        this.getClosets().add(closet);
+        this.record(AccountJournal.CLOSET_ADDED, sw -> sw.writeString(name));
         EventLog.getInstance().logEvent(new Event(
                 "Account: Added closet " + name + " to " + this.name + "."
         ));
@@ -114,25 +188,46 @@ public class Account implements Savable<Void> {
                 "Account: Attempting to remove Closet "
                         + name + " from " + this.name + "."
         ));
-        int lengthBefore = this.closets.size();
-        this.closets.removeIf(c -> c.getName().equalsIgnoreCase(name));
-        return lengthBefore != this.closets.size();
+        boolean removed = this.getClosets().removeIf(c -> {
+            if (c.getName().equalsIgnoreCase(name)) {
+                c.detach();
+                return true;
+            }
+            return false;
+        });
+        if (removed) {
+            this.record(AccountJournal.CLOSET_REMOVED, sw -> sw.writeString(name));
+        }
+        return removed;
     }
 
     // EFFECTS: Returns true if there is a closet matching the given
     //          name in this account, false otherwise.
     public boolean hasCloset(String name) {
-        return this.closets.stream()
+        return this.getClosets().stream()
                 .anyMatch(c -> c.getName().equalsIgnoreCase(name));
     }
 
     // EFFECTS: Returns the named closet if present, Optional.empty() otherwise
     public Optional<Closet> getCloset(String name) {
-        return this.closets.stream()
+        return this.getClosets().stream()
                 .filter(c -> c.getName().equalsIgnoreCase(name))
                 .findFirst();
     }
 
+    // EFFECTS: Searches every closet of this account in parallel for the
+    //          clothing matching the given address most closely, and returns
+    //          at most address.getMatchCount() of them, each only once even if
+    //          it is in several closets. The closest matches will be at the
+    //          end of the list.
+    public List<Clothing> findClothing(ClothingAddress address) {
+        EventLog.getInstance().logEvent(new Event(
+                "Account: Searching every closet of " + this.name + " by address."));
+        Map<Clothing, Integer> scored = ForkJoinPool.commonPool()
+                .invoke(new AccountSearch(this.getClosets(), address));
+        return AccountSearch.rank(scored, Math.max(0, address.getMatchCount()));
+    }
+
     // EFFECTS: Compares the equality of this vs object
     @Override
     public boolean equals(Object obj) {
@@ -146,28 +241,146 @@ public class Account implements Savable<Void> {
 
     // EFFECTS: Returns the catalogue for this account
     public Catalogue getCatalogue() {
+        this.ensureLoaded();
         return this.catalogue;
     }
 
     // EFFECTS: Returns the closets in this account
     public List<Closet> getClosets() {
+        this.ensureLoaded();
         return this.closets;
     }
 
+    // EFFECTS: Returns the clothing in a closet of this account equal to the
+    //          given clothing, or the given clothing if there is none.
+    Clothing getSharedClothing(Clothing clothing) {
+        for (Closet closet : this.getClosets()) {
+            Clothing shared = closet.getEqual(clothing);
+            if (shared != null) {
+                return shared;
+            }
+        }
+        return clothing;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Records every later change to this account in the given
+    //          journal, or stops recording them if it is null.
+    void setJournal(AccountJournal journal) {
+        this.journal = journal;
+    }
+
+    // EFFECTS: Returns true if changes to this account are being recorded
+    boolean isJournaled() {
+        return this.journal != null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Records the change with the given operation to this account in
+    //          its journal, if changes to it are being recorded.
+    void record(byte op, AccountJournal.Change change) {
+        if (this.journal != null) {
+            this.journal.record(op, this.name, change);
+        }
+    }
+
+    // EFFECTS: Returns true if the closets and catalogue of this account have
+    //          been read, false if they are still waiting in a snapshot.
+    public boolean isLoaded() {
+        return this.unloaded == null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads the closets and catalogue of this account from its
+    //          snapshot section if they have not been read yet.
+    private void ensureLoaded() {
+        if (this.unloaded == null) {
+            return;
+        }
+        try {
+            Account loaded = fromSnapshot(this.unloaded);
+            this.catalogue = loaded.catalogue;
+            this.closets = loaded.closets;
+            this.unloaded = null;
+            this.adopt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Makes this the owner of its closets and catalogue, which
+    //          report their changes to it, if they have been read.
+    private void adopt() {
+        if (this.closets == null) {
+            return;
+        }
+        for (Closet closet : this.closets) {
+            closet.attach(this);
+        }
+        this.catalogue.attach(this);
+    }
+
     // EFFECTS: Returns a JSON representation of this object
     @Override
     public JSONObject toJson(Void unused) {
+        List<Clothing> allClothing = this.getAllClothingSorted();
+        return new JsonBuilder()
+                .savable(JSON_CATALOGUE_KEY, this.getCatalogue(), allClothing)
+                .savable(JSON_CLOSETS_KEY, this.getClosets(), allClothing)
+                .savable(JSON_ALL_CLOTHING_KEY, allClothing, null)
+                .put(JSON_NAME_KEY, this.name);
+    }
+
+    // MODIFIES: jsw
+    // EFFECTS: Writes the JSON representation of this object to the stream
+    @Override
+    public void writeJson(JsonStreamWriter jsw, Void unused) throws IOException {
+        List<Clothing> allClothing = this.getAllClothingSorted();
+        jsw.beginObject()
+                .name(JSON_CATALOGUE_KEY).savable(this.getCatalogue(), allClothing)
+                .name(JSON_CLOSETS_KEY).savableArray(this.getClosets(), allClothing)
+                .name(JSON_ALL_CLOTHING_KEY).savableArray(allClothing, null)
+                .name(JSON_NAME_KEY).value(this.name)
+                .endObject();
+    }
+
+    // MODIFIES: sw
+    // EFFECTS: Writes the binary representation of this object to the
+    //          snapshot, writing all of its clothing before the closets and
+    //          catalogue which refer to it.
+    @Override
+    public void writeSnapshot(SnapshotWriter sw, Void unused) throws IOException {
+        List<Clothing> allClothing = this.getAllClothingSorted();
+        sw.writeString(this.name);
+        sw.writeAll(allClothing, null);
+        sw.writeAll(this.getClosets(), allClothing);
+        this.getCatalogue().writeSnapshot(sw, allClothing);
+    }
+
+    // MODIFIES: sw
+    // EFFECTS: Writes this account to the snapshot in a section keyed by its
+    //          name. If its closets and catalogue have not been read yet, the
+    //          section they are waiting in is copied without reading them.
+    void writeSection(SnapshotWriter sw) throws IOException {
+        if (this.unloaded != null) {
+            sw.copySection(this.name, this.unloaded);
+            return;
+        }
+        sw.beginSection(this.name);
+        this.writeSnapshot(sw, null);
+        sw.endSection();
+    }
+
+    // EFFECTS: Returns the clothing in every closet of this account, sorted
+    private List<Clothing> getAllClothingSorted() {
         List<Clothing> allClothing = new ArrayList<>(
-                this.closets.stream().map(c -> c.getClothing().size())
+                this.getClosets().stream().map(c -> c.getClothing().size())
                         .reduce(0, Integer::sum));
-        for (Closet closet : this.closets) {
+        for (Closet closet : this.getClosets()) {
             allClothing.addAll(closet.getClothing());
         }
-        allClothing = allClothing.stream().sorted().collect(Collectors.toList());
-        return new JsonBuilder()
-                .savable(JSON_CATALOGUE_KEY, this.catalogue, allClothing)
-                .savable(JSON_CLOSETS_KEY, this.closets, allClothing)
-                .savable(JSON_ALL_CLOTHING_KEY, allClothing, null)
-                .put(JSON_NAME_KEY, this.name);
+        allClothing.sort(null);
+        return allClothing;
     }
 }
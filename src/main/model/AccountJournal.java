@@ -0,0 +1,347 @@
+package model;
+
+import persistance.Journal;
+import persistance.SnapshotFormatException;
+import persistance.SnapshotReader;
+import persistance.SnapshotWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Records changes to accounts in a write-ahead journal kept beside a
+// snapshot. Accounts report each change made to them as it is made, and the
+// changes made since the last save are appended to the journal as one record
+// each, so replaying the journal in order over the snapshot gives the latest
+// saved state. Only added accounts are written whole. Until the accounts have
+// been saved or loaded once, the journal instead starts over from all of them,
+// being replaced whole by a reset record and a copy of each account.
+// Every record is numbered in sequence, and a snapshot holds the number of the
+// last record it includes, so the records a crash leaves behind in the journal
+// after a snapshot was written are skipped when replaying over that snapshot.
+// Records after a reset do not build on the snapshot, and are never skipped.
+class AccountJournal {
+
+    static final byte RESET = 0;
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+    static final byte RENAME = 3;
+    static final byte CLOSET_ADDED = 4;
+    static final byte CLOSET_REMOVED = 5;
+    static final byte CLOTHING_ADDED = 6;
+    static final byte CLOTHING_REMOVED = 7;
+    static final byte CLOTHING_EDITED = 8;
+    static final byte ALL_DIRTY_SET = 9;
+    static final byte OUTFIT_ADDED = 10;
+    static final byte OUTFITS_REMOVED = 11;
+    static final byte OUTFIT_RENAMED = 12;
+    static final byte OUTFIT_CLOTHING_ADDED = 13;
+    static final byte OUTFIT_CLOTHING_REMOVED = 14;
+
+    private final List<byte[]> pending;
+    private boolean saved;
+    private String journalPath;
+    private long journalEnd;
+    private int journalRecordCount;
+    private long sequence;
+
+    // EFFECTS: Creates a journal recorder which considers no account saved
+    AccountJournal() {
+        this.pending = new ArrayList<>();
+    }
+
+    // Writes the arguments of a change to the record describing it
+    interface Change {
+        // MODIFIES: sw
+        // EFFECTS: Writes the arguments of the change to the snapshot
+        void write(SnapshotWriter sw) throws IOException;
+    }
+
+    // EFFECTS: Returns the number of the last record made or replayed by this
+    //          journal, or skipped to.
+    long getSequence() {
+        return this.sequence;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Numbers later records after the given number, if it is above
+    //          the number of the last record.
+    void skipTo(long sequence) {
+        this.sequence = Math.max(this.sequence, sequence);
+    }
+
+    // MODIFIES: this, accounts
+    // EFFECTS: Considers the given accounts saved as they are now, discards
+    //          the changes recorded so far and records every later change to
+    //          the accounts.
+    void markSaved(List<Account> accounts) {
+        this.saved = true;
+        this.pending.clear();
+        for (Account account : accounts) {
+            account.setJournal(this);
+        }
+    }
+
+    // MODIFIES: this, accounts
+    // EFFECTS: Considers no account saved and stops recording changes to the
+    //          given accounts, so the next append starts the journal over.
+    void markUnsaved(List<Account> accounts) {
+        this.saved = false;
+        this.pending.clear();
+        for (Account account : accounts) {
+            account.setJournal(null);
+        }
+    }
+
+    // MODIFIES: this, account
+    // EFFECTS: Records the addition of the whole account, and every later
+    //          change to it, if the accounts have been saved.
+    void accountAdded(Account account) {
+        if (this.saved) {
+            this.pending.add(this.putRecord(account));
+            account.setJournal(this);
+        }
+    }
+
+    // MODIFIES: this, account
+    // EFFECTS: Records the removal of the account if its changes are recorded
+    //          here, and stops recording them.
+    void accountRemoved(Account account) {
+        if (account.isJournaled()) {
+            this.record(REMOVE, account.getName(), sw -> { });
+            account.setJournal(null);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Records the change with the given operation to the account
+    //          with the given name, encoding its arguments immediately.
+    void record(byte op, String account, Change change) {
+        this.pending.add(this.encode(op, account, change));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Appends a record to the journal at the given path for every
+    //          change recorded since the accounts were last saved, and returns
+    //          the number of records it holds. If the accounts were never
+    //          saved, replaces the journal by one starting over from the whole
+    //          of each account.
+    int append(String path, List<Account> accounts) throws IOException {
+        int recordCount;
+        try (Journal journal = this.saved ? this.openJournal(path) : this.startJournal(path, accounts)) {
+            for (byte[] record : this.pending) {
+                journal.append(record);
+            }
+            journal.sync();
+            this.trackEnd(path, journal);
+            recordCount = journal.getRecordCount();
+        }
+        this.markSaved(accounts);
+        return recordCount;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes every record from the journal at the given path
+    void clear(String path) throws IOException {
+        try (Journal journal = this.openJournal(path)) {
+            journal.clear();
+            this.trackEnd(path, journal);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Discards the changes recorded so far, and replaces the journal
+    //          at the given path by one holding a reset record followed by the
+    //          whole of each account, opened for appending.
+    private Journal startJournal(String path, List<Account> accounts) throws IOException {
+        this.pending.clear();
+        List<byte[]> records = new ArrayList<>(accounts.size() + 1);
+        records.add(this.encode(RESET, "", sw -> { }));
+        for (Account account : accounts) {
+            records.add(this.putRecord(account));
+        }
+        return Journal.create(path, records);
+    }
+
+    // EFFECTS: Opens the journal at the given path, without reading its
+    //          records again if it is where this last left it.
+    private Journal openJournal(String path) throws IOException {
+        if (path.equals(this.journalPath)) {
+            return Journal.open(path, this.journalEnd, this.journalRecordCount);
+        }
+        return Journal.open(path);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Remembers where the journal at the given path ends
+    private void trackEnd(String path, Journal journal) {
+        this.journalPath = path;
+        this.journalEnd = journal.getEnd();
+        this.journalRecordCount = journal.getRecordCount();
+    }
+
+    // MODIFIES: this, accounts
+    // EFFECTS: Applies to the accounts, in order, every intact record in the
+    //          journal at the given path numbered above the given number of
+    //          the last record the accounts include, and every record from the
+    //          first reset on. Changes to clothing which can no longer be found
+    //          are skipped. Numbers later records after those in the journal.
+    void replay(String path, long included, List<Account> accounts) throws IOException {
+        this.skipTo(included);
+        boolean reset = false;
+        for (byte[] record : Journal.read(path)) {
+            SnapshotReader sr = new SnapshotReader(ByteBuffer.wrap(record));
+            long number = sr.readVarLong();
+            int op = sr.readVarInt();
+            reset = reset || op == RESET;
+            this.skipTo(number);
+            if (reset || number > included) {
+                replayRecord(op, sr, accounts);
+            }
+        }
+    }
+
+    // MODIFIES: accounts, sr
+    // EFFECTS: Applies the record with the given operation, whose account
+    //          name and arguments are read from sr, to the accounts.
+    private static void replayRecord(int op, SnapshotReader sr, List<Account> accounts) throws IOException {
+        String name = sr.readString();
+        if (op == RESET) {
+            accounts.clear();
+        } else if (op == PUT) {
+            putAccount(accounts, Account.fromSnapshot(sr));
+        } else if (op == REMOVE) {
+            accounts.removeIf(a -> a.getName().equals(name));
+        } else {
+            replayChange(op, findAccount(accounts, name), sr);
+        }
+    }
+
+    // MODIFIES: accounts
+    // EFFECTS: Replaces the account with the same name by the given account,
+    //          or adds it if there is none.
+    private static void putAccount(List<Account> accounts, Account account) {
+        int idx = accounts.indexOf(account);
+        if (idx >= 0) {
+            accounts.set(idx, account);
+        } else {
+            accounts.add(account);
+        }
+    }
+
+    // EFFECTS: Returns the account with the given name, or throws
+    //          SnapshotFormatException if there is none.
+    private static Account findAccount(List<Account> accounts, String name) throws IOException {
+        for (Account account : accounts) {
+            if (account.getName().equals(name)) {
+                return account;
+            }
+        }
+        throw new SnapshotFormatException("Journal record for unknown account " + name + ".");
+    }
+
+    // MODIFIES: account, sr
+    // EFFECTS: Applies the change with the given operation read from sr to
+    //          the account.
+    private static void replayChange(int op, Account account, SnapshotReader sr) throws IOException {
+        if (op == RENAME) {
+            account.setName(sr.readString(), Collections.emptyList());
+        } else if (op == CLOSET_ADDED) {
+            account.addCloset(sr.readString());
+        } else if (op == CLOSET_REMOVED) {
+            account.removeCloset(sr.readString());
+        } else if (op >= CLOTHING_ADDED && op <= ALL_DIRTY_SET) {
+            String closet = sr.readString();
+            replayClosetChange(op, account.getCloset(closet).orElseThrow(() ->
+                    new SnapshotFormatException("Journal record for unknown closet " + closet + ".")), sr);
+        } else if (op == OUTFIT_ADDED) {
+            String name = sr.readString();
+            List<Clothing> clothing = resolve(account, sr.readAll(Clothing::fromSnapshot));
+            account.getCatalogue().addOutfit(new Outfit(name, clothing, Instant.ofEpochMilli(sr.readVarLong())));
+        } else if (op == OUTFITS_REMOVED) {
+            account.getCatalogue().removeAllWithName(sr.readString());
+        } else {
+            replayOutfitChange(op, account, sr);
+        }
+    }
+
+    // MODIFIES: closet, sr
+    // EFFECTS: Applies the change with the given operation read from sr to
+    //          the closet.
+    private static void replayClosetChange(int op, Closet closet, SnapshotReader sr) throws IOException {
+        if (op == CLOTHING_ADDED) {
+            closet.addAll(sr.readAll(Clothing::fromSnapshot));
+        } else if (op == CLOTHING_REMOVED) {
+            closet.removeAll(sr.readAll(Clothing::fromSnapshot));
+        } else if (op == CLOTHING_EDITED) {
+            Clothing edited = closet.getEqual(Clothing.fromSnapshot(sr));
+            Clothing values = Clothing.fromSnapshot(sr);
+            if (edited != null) {
+                edited.setAll(values);
+            }
+        } else {
+            closet.setAllDirty(sr.readBoolean());
+        }
+    }
+
+    // MODIFIES: account, sr
+    // EFFECTS: Applies the change with the given operation read from sr to an
+    //          outfit of the account, or throws SnapshotFormatException if the
+    //          operation is unknown or there is no such outfit.
+    private static void replayOutfitChange(int op, Account account, SnapshotReader sr) throws IOException {
+        List<Outfit> outfits = account.getCatalogue().getOutfits();
+        int idx = sr.readVarInt();
+        if (op < OUTFIT_RENAMED || op > OUTFIT_CLOTHING_REMOVED || idx < 0 || idx >= outfits.size()) {
+            throw new SnapshotFormatException("Unknown journal record.");
+        }
+        Outfit outfit = outfits.get(idx);
+        if (op == OUTFIT_RENAMED) {
+            outfit.setName(sr.readString());
+            return;
+        }
+        Clothing clothing = Clothing.fromSnapshot(sr);
+        if (op == OUTFIT_CLOTHING_ADDED) {
+            outfit.addClothing(account.getSharedClothing(clothing));
+        } else {
+            outfit.removeClothing(clothing);
+        }
+        outfit.setLastModified(Instant.ofEpochMilli(sr.readVarLong()));
+    }
+
+    // EFFECTS: Returns the clothing of the account's closets equal to each of
+    //          the given clothing, or the given clothing where there is none.
+    private static List<Clothing> resolve(Account account, List<Clothing> clothing) {
+        List<Clothing> resolved = new ArrayList<>(clothing.size());
+        for (Clothing c : clothing) {
+            resolved.add(account.getSharedClothing(c));
+        }
+        return resolved;
+    }
+
+    // EFFECTS: Returns a record adding the whole of the given account
+    private byte[] putRecord(Account account) {
+        return this.encode(PUT, account.getName(), sw -> account.writeSnapshot(sw, null));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns a record of the change with the given operation to the
+    //          account with the given name, numbered after the last record and
+    //          holding the arguments of the change in the snapshot format.
+    private byte[] encode(byte op, String account, Change change) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotWriter sw = new SnapshotWriter(bytes)) {
+            sw.writeVarLong(++this.sequence);
+            sw.writeVarInt(op);
+            sw.writeString(account);
+            change.write(sw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
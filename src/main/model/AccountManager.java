@@ -4,23 +4,37 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import persistance.JsonBuilder;
 import persistance.JsonReader;
+import persistance.JsonStreamReader;
+import persistance.JsonStreamWriter;
 import persistance.JsonWriter;
 import persistance.Savable;
+import persistance.SnapshotReader;
+import persistance.SnapshotSavable;
+import persistance.SnapshotWriter;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 // Manages account data in memory, has an active account and a list of
 // all accounts.
-public class AccountManager implements Savable<Void> {
+public class AccountManager implements Savable<Void>, SnapshotSavable<Void> {
 
     public static final String FILE_SAVE_PATH = "./data/data.json";
+    public static final String SNAPSHOT_SAVE_PATH = "./data/data.snapshot";
+    public static final String JOURNAL_SAVE_PATH = "./data/data.journal";
+    public static final int CHECKPOINT_INTERVAL = 64;
     public static final String JSON_ACCOUNTS_KEY = "accounts";
 
     private final List<Account> accounts;
     private Account activeAccount;
     private String fileSavePath;
+    private String snapshotSavePath;
+    private String journalSavePath;
+    private final AccountJournal journal;
+    private int saveIndent;
 
     // EFFECTS: Constructs a new account manager without any
     //          accounts or an active one.
@@ -34,6 +48,10 @@ public class AccountManager implements Savable<Void> {
     public AccountManager(List<Account> accounts) {
         this.accounts = accounts;
         this.fileSavePath = FILE_SAVE_PATH;
+        this.snapshotSavePath = SNAPSHOT_SAVE_PATH;
+        this.journalSavePath = JOURNAL_SAVE_PATH;
+        this.journal = new AccountJournal();
+        this.saveIndent = JsonWriter.DEFAULT_INDENT;
     }
 
     // EFFECTS: Returns an instance of this object from the given JSON
@@ -47,6 +65,71 @@ public class AccountManager implements Savable<Void> {
         return new AccountManager(accounts);
     }
 
+    // REQUIRES: the next value in jsr is an object written like this.toJson
+    // MODIFIES: jsr
+    // EFFECTS: Reads an instance of this object from the next JSON object in
+    //          the stream.
+    public static AccountManager fromJsonStream(JsonStreamReader jsr) throws IOException {
+        List<Account> accounts = new ArrayList<>();
+        jsr.beginObject();
+        while (jsr.hasNext()) {
+            if (jsr.nextName().equals(JSON_ACCOUNTS_KEY)) {
+                accounts = jsr.nextArray(Account::fromJsonStream);
+            } else {
+                jsr.skipValue();
+            }
+        }
+        jsr.endObject();
+        return new AccountManager(accounts);
+    }
+
+    // REQUIRES: the snapshot in sr was written by this.writeSnapshot
+    // EFFECTS: Reads an instance of this object from the snapshot directory,
+    //          decoding only the account names and the number of the last
+    //          journal record included. Each account reads the rest of its
+    //          data from its own section when first accessed.
+    public static AccountManager fromSnapshot(SnapshotReader sr) throws IOException {
+        long included = sr.readVarLong();
+        List<Account> accounts = new ArrayList<>(sr.getSectionCount());
+        for (int i = 0; i < sr.getSectionCount(); ++i) {
+            accounts.add(Account.lazy(sr.getSectionKey(i), sr.section(i)));
+        }
+        AccountManager acm = new AccountManager(accounts);
+        acm.journal.skipTo(included);
+        return acm;
+    }
+
+    // EFFECTS: Reads the JSON file at the given path and writes the same
+    //          state as a binary snapshot to the other path.
+    public static void convertJsonToSnapshot(String jsonPath, String snapshotPath)
+            throws IOException {
+        AccountManager acm = readJson(jsonPath);
+        try (SnapshotWriter sw = SnapshotWriter.open(snapshotPath)) {
+            acm.writeSnapshot(sw, null);
+        }
+    }
+
+    // EFFECTS: Reads the binary snapshot at the given path and writes the same
+    //          state as JSON to the other path.
+    public static void convertSnapshotToJson(String snapshotPath, String jsonPath)
+            throws IOException {
+        new JsonWriter(jsonPath).write(readSnapshot(snapshotPath), null);
+    }
+
+    // EFFECTS: Returns the accounts read from the JSON file at the given path
+    private static AccountManager readJson(String path) throws IOException {
+        try (JsonStreamReader jsr = new JsonReader(path).openStream()) {
+            return AccountManager.fromJsonStream(jsr);
+        }
+    }
+
+    // EFFECTS: Returns the accounts read from the snapshot at the given path
+    private static AccountManager readSnapshot(String path) throws IOException {
+        try (SnapshotReader sr = SnapshotReader.open(path)) {
+            return AccountManager.fromSnapshot(sr);
+        }
+    }
+
     // EFFECTS: Returns whether there is an active account or not
     public boolean hasActiveAccount() {
         return this.activeAccount != null;
@@ -63,6 +146,42 @@ public class AccountManager implements Savable<Void> {
         this.fileSavePath = fileSavePath;
     }
 
+    // EFFECTS: Returns the number of spaces each nesting level is indented by
+    //          when saving, where 0 saves compactly.
+    public int getSaveIndent() {
+        return this.saveIndent;
+    }
+
+    // REQUIRES: saveIndent >= 0
+    // MODIFIES: this
+    // EFFECTS: Sets the number of spaces each nesting level is indented by
+    //          when saving, where 0 saves compactly.
+    public void setSaveIndent(int saveIndent) {
+        this.saveIndent = saveIndent;
+    }
+
+    // EFFECTS: Returns the snapshot save path for this account manager
+    public String getSnapshotSavePath() {
+        return this.snapshotSavePath;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets the snapshot save path for this account manager.
+    public void setSnapshotSavePath(String snapshotSavePath) {
+        this.snapshotSavePath = snapshotSavePath;
+    }
+
+    // EFFECTS: Returns the journal save path for this account manager
+    public String getJournalSavePath() {
+        return this.journalSavePath;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets the journal save path for this account manager.
+    public void setJournalSavePath(String journalSavePath) {
+        this.journalSavePath = journalSavePath;
+    }
+
     // EFFECTS: Returns account wrapped in optional if present,
     //          otherwise returns null.
     public Account getActiveAccount() {
@@ -142,6 +261,7 @@ public class AccountManager implements Savable<Void> {
                             + account.getName()
                             + " added to this AccountManager."));
             this.accounts.add(account);
+            this.journal.accountAdded(account);
             return true;
         }
     }
@@ -151,8 +271,9 @@ public class AccountManager implements Savable<Void> {
     //          returns whether it was removed or not.
     public boolean removeAccount(String accountName) {
         if (this.accountExists(accountName)) {
-            this.accounts.removeIf(account ->
-                    account.getName().equalsIgnoreCase(accountName));
+            Account removed = this.getAccount(accountName);
+            this.accounts.removeIf(account -> account == removed);
+            this.journal.accountRemoved(removed);
             if (this.hasActiveAccount()
                     && this.activeAccount.getName()
                     .equalsIgnoreCase(accountName)) {
@@ -177,31 +298,110 @@ public class AccountManager implements Savable<Void> {
         return this.accounts;
     }
 
-    // EFFECTS: Saves state to file.
+    // EFFECTS: Saves state to file, writing it as a stream rather than
+    //          building the whole document first. The file is replaced
+    //          atomically, so it is never left partially written.
     public void saveState() throws IOException {
-        JsonWriter jsw = new JsonWriter(this.fileSavePath);
+        JsonWriter jsw = new JsonWriter(this.fileSavePath, this.saveIndent);
         jsw.write(this, null);
         EventLog.getInstance().logEvent(
                 new Event("AccountManager: Saved state."));
     }
 
     // MODIFIES: this
-    // EFFECTS: Loads the state from file.
+    // EFFECTS: Loads the state from file, reading it as a stream rather than
+    //          as a whole document.
     public void loadState() throws IOException {
-        JsonReader jsr = new JsonReader(this.fileSavePath);
-        JSONObject o = jsr.readFileJson();
-        this.accounts.clear();
-        this.removeActiveAccount();
-        AccountManager copy = AccountManager.fromJson(o);
-        this.accounts.addAll(copy.accounts);
+        this.replaceAccounts(readJson(this.fileSavePath));
         EventLog.getInstance().logEvent(
                 new Event("AccountManager: Loaded state."));
     }
 
+    // EFFECTS: Saves state to the snapshot file in the binary snapshot format.
+    //          The journal is only cleared once the new snapshot and its
+    //          directory entry have been forced to the storage device. The
+    //          snapshot holds the number of the last journal record it includes,
+    //          so if a crash leaves those records in the journal, replaying it
+    //          over the new snapshot skips them.
+    public void saveSnapshot() throws IOException {
+        this.journal.append(this.journalSavePath, this.accounts);
+        try (SnapshotWriter sw = SnapshotWriter.open(this.snapshotSavePath)) {
+            this.writeSnapshot(sw, null);
+        }
+        this.journal.clear(this.journalSavePath);
+        EventLog.getInstance().logEvent(
+                new Event("AccountManager: Saved snapshot."));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Saves only the changes made to the accounts since they were
+    //          last saved or loaded, by appending one record for each to the
+    //          journal. Once the journal holds CHECKPOINT_INTERVAL records,
+    //          checkpoints it into the snapshot.
+    public void saveChanges() throws IOException {
+        int recordCount = this.journal.append(this.journalSavePath, this.accounts);
+        EventLog.getInstance().logEvent(
+                new Event("AccountManager: Saved changes to journal."));
+        if (recordCount >= CHECKPOINT_INTERVAL) {
+            this.saveSnapshot();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Loads the state from the snapshot file in the binary snapshot
+    //          format, which is memory-mapped, then replays the changes saved
+    //          to the journal since. Only account names are read until an
+    //          account's contents are first accessed. If there is a journal
+    //          but no snapshot file yet, only the journal is replayed.
+    public void loadSnapshot() throws IOException {
+        boolean journalOnly = !Files.exists(Paths.get(this.snapshotSavePath))
+                && Files.exists(Paths.get(this.journalSavePath));
+        AccountManager loaded = journalOnly ? new AccountManager() : readSnapshot(this.snapshotSavePath);
+        this.journal.replay(this.journalSavePath, loaded.journal.getSequence(), loaded.accounts);
+        this.replaceAccounts(loaded);
+        this.journal.markSaved(this.accounts);
+        EventLog.getInstance().logEvent(
+                new Event("AccountManager: Loaded snapshot."));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Replaces all accounts with those of the other manager and
+    //          removes the active account. The new accounts are not saved
+    //          until they are saved or marked saved.
+    private void replaceAccounts(AccountManager other) {
+        this.journal.markUnsaved(this.accounts);
+        this.accounts.clear();
+        this.removeActiveAccount();
+        this.accounts.addAll(other.accounts);
+    }
+
     // EFFECTS: Returns a JSON representation of this object
     @Override
     public JSONObject toJson(Void unused) {
         return new JsonBuilder()
                 .savable(JSON_ACCOUNTS_KEY, this.accounts, null);
     }
+
+    // MODIFIES: sw
+    // EFFECTS: Writes the binary representation of this object to the
+    //          snapshot, starting with the number of the last journal record
+    //          it includes, with each account in its own section keyed by name.
+    //          Accounts whose contents have not been read are copied from the
+    //          snapshot they were loaded from as they are.
+    @Override
+    public void writeSnapshot(SnapshotWriter sw, Void unused) throws IOException {
+        sw.writeVarLong(this.journal.getSequence());
+        for (Account account : this.accounts) {
+            account.writeSection(sw);
+        }
+    }
+
+    // MODIFIES: jsw
+    // EFFECTS: Writes the JSON representation of this object to the stream
+    @Override
+    public void writeJson(JsonStreamWriter jsw, Void unused) throws IOException {
+        jsw.beginObject()
+                .name(JSON_ACCOUNTS_KEY).savableArray(this.accounts, null)
+                .endObject();
+    }
 }
@@ -0,0 +1,60 @@
+package model;
+
+import model.search.ClothingAddress;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+// Searches a list of closets for the clothing matching an address most
+// closely by splitting the list in half until each task holds one closet,
+// whose index is then searched on its own. Halves are merged by identity,
+// keeping the better score of clothing found in both, so each piece of
+// clothing is ranked once however many closets hold it.
+final class AccountSearch extends RecursiveTask<Map<Clothing, Integer>> {
+
+    private final List<Closet> closets;
+    private final ClothingAddress address;
+
+    // REQUIRES: no closet is modified while the search runs
+    // EFFECTS: Creates a search of the given closets by the address
+    AccountSearch(List<Closet> closets, ClothingAddress address) {
+        this.closets = closets;
+        this.address = address;
+    }
+
+    // EFFECTS: Returns the best matches of each closet mapped by identity to
+    //          their scores against the address.
+    @Override
+    protected Map<Clothing, Integer> compute() {
+        if (this.closets.isEmpty()) {
+            return new IdentityHashMap<>();
+        } else if (this.closets.size() == 1) {
+            return this.closets.get(0).scoreClothing(this.address);
+        }
+        int middle = this.closets.size() / 2;
+        AccountSearch left = new AccountSearch(this.closets.subList(0, middle), this.address);
+        AccountSearch right = new AccountSearch(this.closets.subList(middle, this.closets.size()), this.address);
+        left.fork();
+        Map<Clothing, Integer> merged = right.compute();
+        left.join().forEach((clothing, score) -> merged.merge(clothing, score, Math::max));
+        return merged;
+    }
+
+    // REQUIRES: wanted >= 0
+    // EFFECTS: Returns the wanted best scoring clothing, ordered by ascending
+    //          score and then by the natural order of clothing.
+    static List<Clothing> rank(Map<Clothing, Integer> scored, int wanted) {
+        List<Map.Entry<Clothing, Integer>> entries = new ArrayList<>(scored.entrySet());
+        entries.sort(Map.Entry.<Clothing, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())));
+        List<Clothing> ranked = new ArrayList<>(Math.min(wanted, entries.size()));
+        for (int i = Math.max(0, entries.size() - wanted); i < entries.size(); ++i) {
+            ranked.add(entries.get(i).getKey());
+        }
+        return ranked;
+    }
+}
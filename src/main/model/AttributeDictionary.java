@@ -0,0 +1,98 @@
+package model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// A process-wide dictionary of the string values of clothing attributes.
+// Values are normalised for their attribute, types being kept in lower case,
+// and then replaced by the one instance of the dictionary equal to them, so
+// all clothing with a value shares a single string whose hash is computed
+// once, and equal values compare equal by identity before their characters.
+// The dictionary is a concurrent map of weak references to its values, so
+// threads building clothing do not wait on each other, and a value is
+// dropped once no clothing has it any more. The entries of dropped values are
+// removed as the dictionary is next used.
+final class AttributeDictionary {
+
+    private static final ConcurrentMap<Entry, Entry> VALUES = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<String> DROPPED = new ReferenceQueue<>();
+
+    // EFFECTS: Prevents construction, all methods being static
+    private AttributeDictionary() {
+    }
+
+    // EFFECTS: Returns the shared instance of the given value of the given
+    //          attribute once normalised, adding it to the dictionary if it is
+    //          not there yet. Returns null if the value is null.
+    static String canonical(ClothingAttribute attribute, String value) {
+        if (value == null) {
+            return null;
+        }
+        removeDropped();
+        String normalised = attribute == ClothingAttribute.TYPE ? value.toLowerCase() : value;
+        Entry found = VALUES.get(new Entry(normalised, null));
+        String shared = found == null ? null : found.get();
+        if (shared != null) {
+            return shared;
+        }
+        Entry entry = new Entry(normalised, DROPPED);
+        while (true) {
+            found = VALUES.putIfAbsent(entry, entry);
+            shared = found == null ? normalised : found.get();
+            if (shared != null) {
+                return shared;
+            }
+            VALUES.remove(found, found);
+        }
+    }
+
+    // EFFECTS: Returns the number of distinct values in the dictionary, which
+    //          may count values no longer referred to outside it.
+    static int size() {
+        removeDropped();
+        return VALUES.size();
+    }
+
+    // EFFECTS: Removes the entries of the values which have been dropped
+    private static void removeDropped() {
+        for (Reference<? extends String> ref = DROPPED.poll(); ref != null; ref = DROPPED.poll()) {
+            VALUES.remove(ref, ref);
+        }
+    }
+
+    // A weak reference to a value, equal to the references to equal values
+    // while the value has not been dropped, and only to itself after
+    private static final class Entry extends WeakReference<String> {
+
+        private final int hash;
+
+        // EFFECTS: Creates a reference to the value, added to the queue once
+        //          the value is dropped if the queue is not null.
+        Entry(String value, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        // EFFECTS: Returns the hash of the value referred to
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        // EFFECTS: Returns true if the other object is this entry, or an entry
+        //          to an equal value while neither value has been dropped.
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Entry) || ((Entry) obj).hash != this.hash) {
+                return false;
+            }
+            String value = this.get();
+            return value != null && value.equals(((Entry) obj).get());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+// A mutable list of clothing attribute values which notifies the owning
+// clothing around every structural or element change. Values are replaced by
+// their canonical instances in the attribute dictionary as they are added.
+class AttributeList extends AbstractList<String> implements RandomAccess {
+
+    private final List<String> values;
+    private final Clothing owner;
+    private final ClothingAttribute attribute;
+
+    // EFFECTS: Creates a new attribute list holding the canonical instances
+    //          of the given values for the given attribute of the owning
+    //          clothing.
+    AttributeList(Collection<String> values, Clothing owner, ClothingAttribute attribute) {
+        this.values = new ArrayList<>(values.size());
+        for (String value : values) {
+            this.values.add(AttributeDictionary.canonical(attribute, value));
+        }
+        this.owner = owner;
+        this.attribute = attribute;
+    }
+
+    // EFFECTS: Returns the value at the given index
+    @Override
+    public String get(int index) {
+        return this.values.get(index);
+    }
+
+    // EFFECTS: Returns the number of values in this list
+    @Override
+    public int size() {
+        return this.values.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Replaces the value at the given index with the canonical
+    //          instance of the element, returning the old one
+    @Override
+    public String set(int index, String element) {
+        String value = AttributeDictionary.canonical(this.attribute, element);
+        this.owner.attributeChanging(this.attribute);
+        String old = this.values.set(index, value);
+        this.owner.attributeChanged(this.attribute);
+        return old;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Inserts the canonical instance of the element at the given
+    //          index
+    @Override
+    public void add(int index, String element) {
+        String value = AttributeDictionary.canonical(this.attribute, element);
+        this.owner.attributeChanging(this.attribute);
+        this.values.add(index, value);
+        this.modCount += 1;
+        this.owner.attributeChanged(this.attribute);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes and returns the value at the given index
+    @Override
+    public String remove(int index) {
+        this.owner.attributeChanging(this.attribute);
+        String old = this.values.remove(index);
+        this.modCount += 1;
+        this.owner.attributeChanged(this.attribute);
+        return old;
+    }
+}
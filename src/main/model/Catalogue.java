@@ -3,18 +3,26 @@ package model;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import persistance.JsonBuilder;
+import persistance.JsonStreamReader;
+import persistance.JsonStreamWriter;
 import persistance.Savable;
+import persistance.SnapshotReader;
+import persistance.SnapshotSavable;
+import persistance.SnapshotWriter;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 // A catalogue of outfits having a list of outfits
-public class Catalogue implements Savable<List<Clothing>> {
+public class Catalogue implements Savable<List<Clothing>>, SnapshotSavable<List<Clothing>> {
 
     public static final String JSON_OUTFITS_KEY = "outfits";
 
     private final List<Outfit> outfits;
+    private Account owner;
 
     // EFFECTS: Creates a new catalogue with no outfits
     public Catalogue() {
@@ -39,6 +47,38 @@ public class Catalogue implements Savable<List<Clothing>> {
         return new Catalogue(outfits);
     }
 
+    // REQUIRES: the next value in jsr is an object written like this.toJson
+    // MODIFIES: jsr
+    // EFFECTS: Reads a catalogue from the next JSON object in the stream, and
+    //          returns a function building it from the sorted list of all
+    //          clothing, which may not have been read yet.
+    public static Function<List<Clothing>, Catalogue> fromJsonStream(JsonStreamReader jsr)
+            throws IOException {
+        List<Function<List<Clothing>, Outfit>> outfits = new ArrayList<>();
+        jsr.beginObject();
+        while (jsr.hasNext()) {
+            if (jsr.nextName().equals(JSON_OUTFITS_KEY)) {
+                outfits = jsr.nextArray(Outfit::fromJsonStream);
+            } else {
+                jsr.skipValue();
+            }
+        }
+        jsr.endObject();
+        List<Function<List<Clothing>, Outfit>> pending = outfits;
+        return allClothing -> new Catalogue(pending.stream()
+                .map(o -> o.apply(allClothing))
+                .collect(Collectors.toCollection(ArrayList::new)));
+    }
+
+    // REQUIRES: allClothing is sorted, the next value in sr was written by
+    //           this.writeSnapshot
+    // MODIFIES: sr
+    // EFFECTS: Reads an instance of this object from the snapshot
+    public static Catalogue fromSnapshot(SnapshotReader sr, List<Clothing> allClothing)
+            throws IOException {
+        return new Catalogue(sr.readAll(r -> Outfit.fromSnapshot(r, allClothing)));
+    }
+
     // EFFECTS: Returns all the outfits in this catalogue
     public List<Outfit> getOutfits() {
         return this.outfits;
@@ -54,16 +94,62 @@ public class Catalogue implements Savable<List<Clothing>> {
     // MODIFIES: this
     // EFFECTS: Removes outfits matching the given name
     public void removeAllWithName(String name) {
-        this.outfits.removeIf(x -> x.getName().equalsIgnoreCase(name));
+        boolean removed = this.outfits.removeIf(x -> {
+            if (x.getName().equalsIgnoreCase(name)) {
+                x.attach(null);
+                return true;
+            }
+            return false;
+        });
+        if (removed && this.owner != null) {
+            this.owner.record(AccountJournal.OUTFITS_REMOVED, sw -> sw.writeString(name));
+        }
         EventLog.getInstance().logEvent(new Event(
                 "Catalogue: Removed all Outfits with name " + name + "."
         ));
     }
 
+    // MODIFIES: this
+    // EFFECTS: Makes the given account the owner of this catalogue, to which
+    //          every later change to this catalogue or its outfits is reported.
+    void attach(Account owner) {
+        this.owner = owner;
+        for (Outfit outfit : this.outfits) {
+            outfit.attach(this);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reports the change with the given operation to the given outfit
+    //          of this catalogue to its owner, if it has one.
+    void recordOutfitChange(Outfit outfit, byte op, AccountJournal.Change change) {
+        if (this.owner == null) {
+            return;
+        }
+        for (int i = 0; i < this.outfits.size(); ++i) {
+            if (this.outfits.get(i) == outfit) {
+                int idx = i;
+                this.owner.record(op, sw -> {
+                    sw.writeVarInt(idx);
+                    change.write(sw);
+                });
+                return;
+            }
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: Adds the given outfit to the catalogue.
     public void addOutfit(Outfit outfit) {
         this.outfits.add(outfit);
+        outfit.attach(this);
+        if (this.owner != null) {
+            this.owner.record(AccountJournal.OUTFIT_ADDED, sw -> {
+                sw.writeString(outfit.getName());
+                sw.writeAll(outfit.getClothing(), null);
+                sw.writeVarLong(outfit.getInstantLastModified().toEpochMilli());
+            });
+        }
         EventLog.getInstance().logEvent(new Event(
                 "Catalogue: Added Outfit " + outfit.getName() + "."
         ));
@@ -76,4 +162,22 @@ public class Catalogue implements Savable<List<Clothing>> {
         return new JsonBuilder()
                 .savable(JSON_OUTFITS_KEY, this.outfits, allClothing);
     }
+
+    // REQUIRES: allClothing is sorted
+    // MODIFIES: sw
+    // EFFECTS: Writes the binary representation of this object to the snapshot
+    @Override
+    public void writeSnapshot(SnapshotWriter sw, List<Clothing> allClothing) throws IOException {
+        sw.writeAll(this.outfits, allClothing);
+    }
+
+    // REQUIRES: allClothing is sorted
+    // MODIFIES: jsw
+    // EFFECTS: Writes the JSON representation of this object to the stream
+    @Override
+    public void writeJson(JsonStreamWriter jsw, List<Clothing> allClothing) throws IOException {
+        jsw.beginObject()
+                .name(JSON_OUTFITS_KEY).savableArray(this.outfits, allClothing)
+                .endObject();
+    }
 }
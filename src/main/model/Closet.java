@@ -1,105 +1,51 @@
 package model;
 
+import model.index.ClothingIndex;
+import model.index.SearchCursor;
 import model.search.ClothingAddress;
+import model.search.ClothingQuery;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import persistance.JsonBuilder;
+import persistance.JsonStreamReader;
+import persistance.JsonStreamWriter;
 import persistance.Savable;
+import persistance.SnapshotReader;
+import persistance.SnapshotSavable;
+import persistance.SnapshotWriter;
 
-import java.util.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 // A closet having a list of clothing and various categorizations
-// of said clothing
-public class Closet implements Savable<List<Clothing>> {
+// of said clothing, kept up to date as the clothing is modified.
+public class Closet implements Savable<List<Clothing>>, SnapshotSavable<List<Clothing>>,
+        ClothingListener {
 
     public static final String JSON_NAME_KEY = "name";
     public static final String JSON_CLOTHING_KEY = "clothing";
 
     private final List<Clothing> clothing;
     private final String name;
-    private final Map<String, List<Clothing>> styleMap;
-    private final Map<String, List<Clothing>> brandMap;
-    private final Map<String, List<Clothing>> typeMap;
-    private final Map<Size, List<Clothing>> sizeMap;
-    private final Map<Boolean, List<Clothing>> dirtyMap;
-    private final Map<String, List<Clothing>> materialsMap;
-    private final Map<String, List<Clothing>> colorMap;
+    private final ClothingIndex index;
+    private boolean bulkUpdating;
+    private Account owner;
+    private Clothing editedFrom;
 
     // EFFECTS: Constructs a new closet with no clothing
     public Closet(String name) {
         this.clothing = new ArrayList<>();
         this.name = name;
-
-        this.styleMap = new HashMap<>();
-        this.brandMap = new HashMap<>();
-        this.typeMap = new HashMap<>();
-        this.sizeMap = new HashMap<>();
-        this.dirtyMap = new HashMap<>();
-        this.materialsMap = new HashMap<>();
-        this.colorMap = new HashMap<>();
-    }
-
-    // MODIFIES: matchCountMap
-    // EFFECTS: Increments the value of the entry under the key of a given
-    //          piece of clothing for every time it appears the list of clothing
-    //          for each given map key.
-    private static <T> void countMapMatches(Map<T, List<Clothing>> refMap,
-                                            List<T> mapKeys,
-                                            Map<Clothing, Integer> matchCountMap) {
-        for (T t : mapKeys) {
-            if (refMap.containsKey(t)) {
-                refMap.get(t).forEach(c -> {
-                    if (matchCountMap.containsKey(c)) {
-                        matchCountMap.put(c, matchCountMap.get(c) + 1);
-                    } else {
-                        matchCountMap.put(c, 1);
-                    }
-                });
-            }
-        }
-    }
-
-    // REQUIRES: element is not in the list contained in any key in categoryMap
-    // MODIFIES: categoryMap
-    // EFFECTS: Places element in the lists associated with each key in keys,
-    //          and creates a new list first if it is not already present in
-    //          the map.
-    private static <K, V extends Comparable<V>> void congregateByKey(
-            Map<K, List<V>> categoryMap,
-            Iterable<K> keys,
-            V element) {
-        keys.forEach(e -> {
-            if (!categoryMap.containsKey(e)) {
-                categoryMap.put(e, new ArrayList<>());
-            }
-            List<V> values = categoryMap.get(e);
-            // SEE REQUIRES CLAUSE
-            int idx = Collections.binarySearch(values, element);
-            int insertionPoint = -idx - 1;
-            values.add(insertionPoint, element);
-        });
-    }
-
-    // MODIFIES: categoryMap
-    // EFFECTS: Removes the element provided from each key in the category map
-    //          if present.
-    private static <K, V extends Comparable<V>> void removeByKey(
-            Map<K, List<V>> categoryMap,
-            Iterable<K> keys,
-            V element) {
-        keys.forEach(e -> {
-            if (categoryMap.containsKey(e)) {
-                List<V> values = categoryMap.get(e);
-                int idx = Collections.binarySearch(values, element);
-                if (idx >= 0 && idx < values.size()) {
-                    values.remove(idx);
-                }
-                if (values.isEmpty()) {
-                    categoryMap.remove(e);
-                }
-            }
-        });
+        this.index = new ClothingIndex();
+        this.bulkUpdating = false;
     }
 
     // REQUIRES: allClothing is sorted
@@ -111,9 +57,52 @@ public class Closet implements Savable<List<Clothing>> {
         for (int i = 0; i < idxsJs.length(); ++i) {
             idxs[i] = idxsJs.getInt(i);
         }
+        return of(name, idxs, allClothing);
+    }
+
+    // REQUIRES: the next value in jsr is an object written like this.toJson
+    // MODIFIES: jsr
+    // EFFECTS: Reads a closet from the next JSON object in the stream, and
+    //          returns a function building it from the sorted list of all
+    //          clothing, which may not have been read yet.
+    public static Function<List<Clothing>, Closet> fromJsonStream(JsonStreamReader jsr)
+            throws IOException {
+        String name = "";
+        int[] idxs = new int[0];
+        jsr.beginObject();
+        while (jsr.hasNext()) {
+            String field = jsr.nextName();
+            if (field.equals(JSON_NAME_KEY)) {
+                name = jsr.nextString();
+            } else if (field.equals(JSON_CLOTHING_KEY)) {
+                idxs = jsr.nextIntArray();
+            } else {
+                jsr.skipValue();
+            }
+        }
+        jsr.endObject();
+        String closetName = name;
+        int[] closetIdxs = idxs;
+        return allClothing -> of(closetName, closetIdxs, allClothing);
+    }
+
+    // REQUIRES: allClothing is sorted, the next value in sr was written by
+    //           this.writeSnapshot
+    // MODIFIES: sr
+    // EFFECTS: Reads an instance of this object from the snapshot
+    public static Closet fromSnapshot(SnapshotReader sr, List<Clothing> allClothing)
+            throws IOException {
+        String name = sr.readString();
+        return of(name, sr.readSortedInts(), allClothing);
+    }
+
+    // EFFECTS: Returns a closet with the given name holding the clothing at
+    //          each of the given indexes of allClothing. The closet has no
+    //          owner yet, so filling it is not recorded as a change.
+    private static Closet of(String name, int[] idxs, List<Clothing> allClothing) {
         Closet closet = new Closet(name);
-        JsonBuilder.mapToValueSorted(idxs, allClothing)
-                .forEach(closet::addClothing);
+        closet.addAll(JsonBuilder.mapToValueSorted(idxs, allClothing)
+                .collect(Collectors.toList()));
         return closet;
     }
 
@@ -123,30 +112,77 @@ public class Closet implements Savable<List<Clothing>> {
     public List<Clothing> findClothing(ClothingAddress address) {
         EventLog.getInstance().logEvent(new Event(
                 "Closet: Searching closet by address."));
-        Map<Clothing, Integer> matchMap = new HashMap<>();
-
-        countMapMatches(this.styleMap, address.getStyles(), matchMap);
-        countMapMatches(this.brandMap, address.getBrands(), matchMap);
-        countMapMatches(this.typeMap, address.getTypes(), matchMap);
-        countMapMatches(this.sizeMap, address.getSizes(), matchMap);
-        if (address.getIsDirty() != null) {
-            countMapMatches(this.dirtyMap, Collections.singletonList(address.getIsDirty()), matchMap);
-        }
-        countMapMatches(this.materialsMap, address.getMaterials(), matchMap);
-        countMapMatches(this.colorMap, address.getColors(), matchMap);
-
         try {
-            return matchMap.entrySet().stream()
-                    .sorted(Comparator.comparingInt(Map.Entry::getValue))
-                    .map(Map.Entry::getKey)
-                    .skip(Math.max(0, matchMap.size() - address.getMatchCount()))
-                    .collect(Collectors.toList());
+            return this.index.find(address);
         } finally {
             EventLog.getInstance().logEvent(
                     new Event("Closet: Returning search matches."));
         }
     }
 
+    // REQUIRES: pageSize > 0
+    // EFFECTS: Returns a cursor over the clothing in this closet matching the
+    //          given address most closely, closest first, which finds the
+    //          matches a page at a time. If a page token is given, the cursor
+    //          resumes after the clothing returned by the cursor it was taken
+    //          from; if it is malformed, throws IllegalArgumentException. Once
+    //          clothing in this closet is added, removed or edited, cursors and
+    //          page tokens from before throw ConcurrentModificationException.
+    public SearchCursor searchClothing(ClothingAddress address, int pageSize, String pageToken) {
+        EventLog.getInstance().logEvent(new Event(
+                "Closet: Opening search cursor by address."));
+        return this.index.search(address, pageSize, pageToken);
+    }
+
+    // EFFECTS: Searches the clothing in this closet for the pieces matching
+    //          each of the given addresses most closely, as findClothing does,
+    //          and returns the matches of each address in the same order.
+    //          Criteria shared by the addresses are only looked up once.
+    public List<List<Clothing>> findAllClothing(List<ClothingAddress> addresses) {
+        EventLog.getInstance().logEvent(new Event(
+                "Closet: Searching closet by " + addresses.size() + " addresses."));
+        return this.index.findAll(addresses);
+    }
+
+    // EFFECTS: Returns the clothing in this closet matching the given address
+    //          most closely, as findClothing does, mapped by identity to their
+    //          scores against the address. Logs no events, so that closets
+    //          may be searched in parallel.
+    Map<Clothing, Integer> scoreClothing(ClothingAddress address) {
+        List<Clothing> found = this.index.find(address);
+        int[] scores = this.index.scoresOf(address, found);
+        Map<Clothing, Integer> scored = new IdentityHashMap<>();
+        for (int i = 0; i < scores.length; ++i) {
+            scored.put(found.get(i), scores[i]);
+        }
+        return scored;
+    }
+
+    // EFFECTS: Returns the clothing in this closet matching the given query,
+    //          in the order of this closet.
+    public List<Clothing> query(ClothingQuery query) {
+        EventLog.getInstance().logEvent(new Event(
+                "Closet: Querying closet."));
+        List<Clothing> found = this.index.query(query);
+        found.sort(null);
+        return found;
+    }
+
+    // EFFECTS: Returns the values of the given attribute in this closet
+    //          closest to the possibly mistyped token, ignoring case, or an
+    //          empty list if none is close enough.
+    public List<String> findClosestValues(ClothingAttribute attribute, String token) {
+        return this.index.closestKeys(attribute, token);
+    }
+
+    // REQUIRES: n >= 0
+    // EFFECTS: Returns at most n values of the given attribute in this closet
+    //          starting with the prefix ignoring case, those held by the most
+    //          clothing first.
+    public List<String> completeValues(ClothingAttribute attribute, String prefix, int n) {
+        return this.index.complete(attribute, prefix, n);
+    }
+
     // EFFECTS: Returns the name of this closet
     public String getName() {
         return this.name;
@@ -159,42 +195,39 @@ public class Closet implements Savable<List<Clothing>> {
 
     // EFFECTS: Returns the types of clothing present in this closet
     public Set<String> getTypes() {
-        return this.typeMap.keySet();
+        return this.index.getTypes();
     }
 
     // EFFECTS: Returns the brands present in this closet
     public Set<String> getBrands() {
-        return this.brandMap.keySet();
+        return this.index.getBrands();
     }
 
     // EFFECTS: Returns the styles present in this closet
     public Set<String> getStyles() {
-        return this.styleMap.keySet();
+        return this.index.getStyles();
     }
 
     // EFFECTS: Returns the sizes present in this closet
     public Set<Size> getSizes() {
-        return this.sizeMap.keySet();
+        return this.index.getSizes();
     }
 
     // EFFECTS: Returns the colors present in this closet
     public Set<String> getColors() {
-        return this.colorMap.keySet();
+        return this.index.getColors();
     }
 
     // MODIFIES: this
     // EFFECTS: Removes the clothing from this closet if it is currently tracked.
     public void removeClothing(Clothing clothing) {
-        this.clothing.remove(clothing);
-
-        removeByKey(this.styleMap, clothing.getStyles(), clothing);
-        removeByKey(this.brandMap, Collections.singletonList(clothing.getBrand()), clothing);
-        removeByKey(this.typeMap, clothing.getTypes(), clothing);
-        removeByKey(this.sizeMap, Collections.singletonList(clothing.getSize()), clothing);
-        removeByKey(this.dirtyMap, Collections.singletonList(clothing.isDirty()), clothing);
-        removeByKey(this.materialsMap, Collections.singletonList(clothing.getMaterial()), clothing);
-        removeByKey(this.colorMap, clothing.getColors(), clothing);
-
+        int searchIdx = Collections.binarySearch(this.clothing, clothing);
+        if (searchIdx >= 0) {
+            Clothing removed = this.clothing.remove(searchIdx);
+            this.index.remove(removed);
+            removed.removeListener(this);
+            this.recordAll(AccountJournal.CLOTHING_REMOVED, Collections.singletonList(removed));
+        }
         EventLog.getInstance().logEvent(new Event(
                 "Closet: Removed clothing " + clothing + "."
         ));
@@ -211,19 +244,225 @@ public class Closet implements Savable<List<Clothing>> {
         int insertIdx = -searchIdx - 1;
         this.clothing.add(insertIdx, clothing);
 
-        congregateByKey(this.styleMap, clothing.getStyles(), clothing);
-        congregateByKey(this.brandMap, Collections.singletonList(clothing.getBrand()), clothing);
-        congregateByKey(this.typeMap, clothing.getTypes(), clothing);
-        congregateByKey(this.sizeMap, Collections.singletonList(clothing.getSize()), clothing);
-        congregateByKey(this.dirtyMap, Collections.singletonList(clothing.isDirty()), clothing);
-        congregateByKey(this.materialsMap, Collections.singletonList(clothing.getMaterial()), clothing);
-        congregateByKey(this.colorMap, clothing.getColors(), clothing);
+        this.index.add(clothing);
+        clothing.addListener(this);
+        this.recordAll(AccountJournal.CLOTHING_ADDED, Collections.singletonList(clothing));
 
         EventLog.getInstance().logEvent(new Event(
                 "Closet: Added clothing " + clothing + "."
         ));
     }
 
+    // MODIFIES: this
+    // EFFECTS: Adds every given piece of clothing not already in this closet,
+    //          sorting the new clothing once and merging it into this closet
+    //          in a single pass.
+    public void addAll(Collection<Clothing> toAdd) {
+        List<Clothing> sorted = new ArrayList<>(toAdd);
+        sorted.sort(null);
+        List<Clothing> added = new ArrayList<>(sorted.size());
+        this.replaceClothing(this.mergeSorted(sorted, added));
+        this.track(added);
+        this.recordAll(AccountJournal.CLOTHING_ADDED, added);
+        EventLog.getInstance().logEvent(new Event(
+                "Closet: Added " + added.size() + " clothing to " + this.name + "."
+        ));
+    }
+
+    // REQUIRES: sorted is sorted
+    // MODIFIES: added
+    // EFFECTS: Returns this closet's clothing merged in order with each of the
+    //          sorted clothing not already present, and appends the clothing
+    //          which was merged in to added.
+    private List<Clothing> mergeSorted(List<Clothing> sorted, List<Clothing> added) {
+        List<Clothing> merged = new ArrayList<>(this.clothing.size() + sorted.size());
+        int i = 0;
+        for (Clothing c : sorted) {
+            while (i < this.clothing.size() && this.clothing.get(i).compareTo(c) < 0) {
+                merged.add(this.clothing.get(i++));
+            }
+            boolean present = (i < this.clothing.size() && this.clothing.get(i).equals(c))
+                    || (!added.isEmpty() && added.get(added.size() - 1).equals(c));
+            if (!present) {
+                merged.add(c);
+                added.add(c);
+            }
+        }
+        merged.addAll(this.clothing.subList(i, this.clothing.size()));
+        return merged;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes every piece of clothing in this closet equal to any of
+    //          the given clothing in a single pass over this closet.
+    public void removeAll(Collection<Clothing> toRemove) {
+        List<Clothing> sorted = new ArrayList<>(toRemove);
+        sorted.sort(null);
+        List<Clothing> kept = new ArrayList<>(this.clothing.size());
+        List<Clothing> removed = new ArrayList<>();
+        int j = 0;
+        for (Clothing c : this.clothing) {
+            while (j < sorted.size() && sorted.get(j).compareTo(c) < 0) {
+                j += 1;
+            }
+            if (j < sorted.size() && sorted.get(j).equals(c)) {
+                this.index.remove(c);
+                c.removeListener(this);
+                removed.add(c);
+            } else {
+                kept.add(c);
+            }
+        }
+        this.replaceClothing(kept);
+        this.recordAll(AccountJournal.CLOTHING_REMOVED, removed);
+        EventLog.getInstance().logEvent(new Event(
+                "Closet: Removed " + removed.size() + " clothing from " + this.name + "."
+        ));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Replaces the ordered clothing list with the given ordered clothing
+    private void replaceClothing(List<Clothing> ordered) {
+        this.clothing.clear();
+        this.clothing.addAll(ordered);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Indexes the given clothing and listens for its modifications
+    private void track(List<Clothing> added) {
+        for (Clothing c : added) {
+            this.index.add(c);
+            c.addListener(this);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets every piece of clothing in this closet as dirty or clean,
+    //          rebuilding this closet's dirtiness index and ordering once
+    //          instead of once per piece of clothing.
+    public void setAllDirty(boolean dirty) {
+        this.bulkUpdating = true;
+        try {
+            for (Clothing c : this.clothing) {
+                c.setDirty(dirty);
+            }
+        } finally {
+            this.bulkUpdating = false;
+        }
+        this.index.reindexAllDirty(dirty);
+        this.clothing.sort(null);
+        this.record(AccountJournal.ALL_DIRTY_SET, sw -> sw.writeBoolean(dirty));
+        EventLog.getInstance().logEvent(new Event(
+                "Closet: Set all clothing in " + this.name + " dirty: " + dirty + "."
+        ));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Makes the given account the owner of this closet, to which
+    //          every later change to this closet is reported.
+    void attach(Account owner) {
+        this.owner = owner;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Stops tracking modifications to the clothing in this closet and
+    //          reporting them to its owner. The closet should no longer be used
+    //          after it is detached.
+    void detach() {
+        for (Clothing c : this.clothing) {
+            c.removeListener(this);
+        }
+        this.owner = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reports the change with the given operation to this closet to
+    //          its owner, if it has one.
+    private void record(byte op, AccountJournal.Change change) {
+        if (this.owner != null) {
+            this.owner.record(op, sw -> {
+                sw.writeString(this.name);
+                change.write(sw);
+            });
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reports the addition or removal of the given clothing to the
+    //          owner of this closet, if any clothing was added or removed.
+    private void recordAll(byte op, List<Clothing> changed) {
+        if (!changed.isEmpty()) {
+            this.record(op, sw -> sw.writeAll(changed, null));
+        }
+    }
+
+    // EFFECTS: Returns the clothing in this closet equal to the given
+    //          clothing, or null if there is none.
+    Clothing getEqual(Clothing clothing) {
+        int searchIdx = Collections.binarySearch(this.clothing, clothing);
+        return searchIdx >= 0 ? this.clothing.get(searchIdx) : null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Takes the clothing out of this closet's ordering and the index
+    //          buckets for the attribute that is about to change.
+    @Override
+    public void attributeChanging(Clothing clothing, ClothingAttribute attribute) {
+        if (this.bulkUpdating) {
+            return;
+        }
+        if (this.owner != null && this.owner.isJournaled()) {
+            this.editedFrom = clothing.copy();
+        }
+        int idx = this.indexOfInstance(clothing);
+        if (idx >= 0) {
+            this.clothing.remove(idx);
+        }
+        this.index.unindex(clothing, attribute);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Puts the clothing back into this closet's ordering and the index
+    //          buckets for the attribute that has just changed.
+    @Override
+    public void attributeChanged(Clothing clothing, ClothingAttribute attribute) {
+        if (this.bulkUpdating) {
+            return;
+        }
+        int searchIdx = Collections.binarySearch(this.clothing, clothing);
+        this.clothing.add(searchIdx >= 0 ? searchIdx : -searchIdx - 1, clothing);
+        this.index.reindex(clothing, attribute);
+        if (this.editedFrom != null) {
+            Clothing before = this.editedFrom;
+            this.editedFrom = null;
+            this.record(AccountJournal.CLOTHING_EDITED, sw -> {
+                before.writeSnapshot(sw, null);
+                clothing.writeSnapshot(sw, null);
+            });
+        }
+    }
+
+    // EFFECTS: Returns the position of this exact clothing instance in the
+    //          ordered clothing list, or -1 if it is not present.
+    private int indexOfInstance(Clothing clothing) {
+        int searchIdx = Collections.binarySearch(this.clothing, clothing);
+        if (searchIdx < 0) {
+            return -1;
+        }
+        for (int i = searchIdx; i >= 0 && this.clothing.get(i).equals(clothing); --i) {
+            if (this.clothing.get(i) == clothing) {
+                return i;
+            }
+        }
+        for (int i = searchIdx + 1; i < this.clothing.size()
+                && this.clothing.get(i).equals(clothing); ++i) {
+            if (this.clothing.get(i) == clothing) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     // REQUIRES: allClothing is sorted
     // EFFECTS: Returns a JSON representation of this object
     @Override
@@ -235,4 +474,27 @@ public class Closet implements Savable<List<Clothing>> {
                 .put(JSON_CLOTHING_KEY, idxs)
                 .put(JSON_NAME_KEY, this.name);
     }
+
+    // REQUIRES: allClothing is sorted
+    // MODIFIES: sw
+    // EFFECTS: Writes the binary representation of this object to the
+    //          snapshot. As this closet is sorted, its clothing indexes are
+    //          ascending and are written as differences.
+    @Override
+    public void writeSnapshot(SnapshotWriter sw, List<Clothing> allClothing) throws IOException {
+        sw.writeString(this.name);
+        sw.writeSortedInts(JsonBuilder.mapToIndexSorted(this.clothing, allClothing).toArray());
+    }
+
+    // REQUIRES: allClothing is sorted
+    // MODIFIES: jsw
+    // EFFECTS: Writes the JSON representation of this object to the stream
+    @Override
+    public void writeJson(JsonStreamWriter jsw, List<Clothing> allClothing) throws IOException {
+        jsw.beginObject()
+                .name(JSON_CLOTHING_KEY)
+                .intArray(JsonBuilder.mapToIndexSorted(this.clothing, allClothing).toArray())
+                .name(JSON_NAME_KEY).value(this.name)
+                .endObject();
+    }
 }
@@ -1,18 +1,29 @@
 package model;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 import persistance.JsonBuilder;
+import persistance.JsonStreamReader;
+import persistance.JsonStreamWriter;
 import persistance.Savable;
+import persistance.SnapshotFormatException;
+import persistance.SnapshotReader;
+import persistance.SnapshotSavable;
+import persistance.SnapshotWriter;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
 
 // An article of clothing with a list of types, styles, colors, and a brand, size, material,
 // image, and whether it is dirty or not.
-public class Clothing implements Savable<Void>, Comparable<Clothing> {
+public class Clothing implements Savable<Void>, SnapshotSavable<Void>, Comparable<Clothing> {
 
     public static final String JSON_STYLES_KEY = "styles";
     public static final String JSON_TYPES_KEY = "types";
@@ -21,6 +32,11 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
     public static final String JSON_DIRTY_KEY = "dirty";
     public static final String JSON_MATERIAL_KEY = "material";
     public static final String JSON_COLORS_KEY = "colors";
+    private static final List<String> JSON_KEYS = Collections.unmodifiableList(Arrays.asList(
+            JSON_STYLES_KEY, JSON_TYPES_KEY, JSON_BRAND_KEY, JSON_SIZE_KEY,
+            JSON_DIRTY_KEY, JSON_MATERIAL_KEY, JSON_COLORS_KEY));
+
+    private static final String LIST_KEY_SEPARATOR = "" + Character.MAX_VALUE;
 
     private final List<String> styles;
     private final List<String> types;
@@ -31,7 +47,16 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
 
     private final List<String> colors;
 
-    // EFFECTS: Constructs a new piece of clothing
+    private boolean keyStale;
+    private String typesKey;
+    private String stylesKey;
+    private String colorsKey;
+    private int hash;
+    private List<ClothingListener> listeners;
+
+    // EFFECTS: Constructs a new piece of clothing, sharing its attribute values
+    //          with other clothing through the attribute dictionary. Types
+    //          are kept in lower case.
     public Clothing(Collection<String> types,
                     Size size,
                     String brand,
@@ -39,15 +64,14 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
                     List<String> styles,
                     List<String> colors,
                     boolean dirty) {
-        this.types = types.stream()
-                .map(String::toLowerCase)
-                .collect(Collectors.toCollection(ArrayList::new));
+        this.types = new AttributeList(types, this, ClothingAttribute.TYPE);
         this.dirty = dirty;
-        this.colors = new ArrayList<>(colors);
-        this.styles = new ArrayList<>(styles);
-        this.brand = brand;
+        this.colors = new AttributeList(colors, this, ClothingAttribute.COLOR);
+        this.styles = new AttributeList(styles, this, ClothingAttribute.STYLE);
+        this.brand = AttributeDictionary.canonical(ClothingAttribute.BRAND, brand);
         this.size = size;
-        this.material = material;
+        this.material = AttributeDictionary.canonical(ClothingAttribute.MATERIAL, material);
+        this.keyStale = true;
     }
 
     // EFFECTS: Returns whether this clothing is dirty
@@ -56,9 +80,15 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
     }
 
     // MODIFIES: this
-    // EFFECTS: Sets whether the clothing is dirty or not
+    // EFFECTS: Sets whether the clothing is dirty or not, notifying listeners
+    //          if it changed
     public void setDirty(boolean dirty) {
+        if (this.dirty == dirty) {
+            return;
+        }
+        this.attributeChanging(ClothingAttribute.DIRTY);
         this.dirty = dirty;
+        this.attributeChanged(ClothingAttribute.DIRTY);
     }
 
     // EFFECTS: Returns the list of styles for this clothing
@@ -72,9 +102,14 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
     }
 
     // MODIFIES: this
-    // EFFECTS: Sets the brand of this clothing
+    // EFFECTS: Sets the brand of this clothing, notifying listeners if it changed
     public void setBrand(String brand) {
-        this.brand = brand;
+        if (Objects.equals(this.brand, brand)) {
+            return;
+        }
+        this.attributeChanging(ClothingAttribute.BRAND);
+        this.brand = AttributeDictionary.canonical(ClothingAttribute.BRAND, brand);
+        this.attributeChanged(ClothingAttribute.BRAND);
     }
 
     // EFFECTS: Returns this size of this clothing
@@ -83,9 +118,14 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
     }
 
     // MODIFIES: this
-    // EFFECTS: Sets the size of this clothing
+    // EFFECTS: Sets the size of this clothing, notifying listeners if it changed
     public void setSize(Size size) {
+        if (this.size == size) {
+            return;
+        }
+        this.attributeChanging(ClothingAttribute.SIZE);
         this.size = size;
+        this.attributeChanged(ClothingAttribute.SIZE);
     }
 
     // EFFECTS: Returns the material for this clothing
@@ -94,9 +134,14 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
     }
 
     // MODIFIES: this
-    // EFFECTS: Sets the material for this clothing
+    // EFFECTS: Sets the material for this clothing, notifying listeners if it changed
     public void setMaterial(String material) {
-        this.material = material;
+        if (Objects.equals(this.material, material)) {
+            return;
+        }
+        this.attributeChanging(ClothingAttribute.MATERIAL);
+        this.material = AttributeDictionary.canonical(ClothingAttribute.MATERIAL, material);
+        this.attributeChanged(ClothingAttribute.MATERIAL);
     }
 
     // EFFECTS: Returns the types of this clothing
@@ -135,6 +180,51 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
                 .put(JSON_COLORS_KEY, this.colors);
     }
 
+    // MODIFIES: jsw
+    // EFFECTS: Writes the JSON representation of this object to the stream
+    @Override
+    public void writeJson(JsonStreamWriter jsw, Void unused) throws IOException {
+        jsw.beginObject()
+                .name(JSON_STYLES_KEY).value(this.styles)
+                .name(JSON_TYPES_KEY).value(this.types)
+                .name(JSON_BRAND_KEY).value(this.brand)
+                .name(JSON_SIZE_KEY).value(this.size)
+                .name(JSON_DIRTY_KEY).value(this.dirty)
+                .name(JSON_MATERIAL_KEY).value(this.material)
+                .name(JSON_COLORS_KEY).value(this.colors)
+                .endObject();
+    }
+
+    // MODIFIES: sw
+    // EFFECTS: Writes the binary representation of this object to the snapshot
+    @Override
+    public void writeSnapshot(SnapshotWriter sw, Void unused) throws IOException {
+        sw.writeStrings(this.types);
+        sw.writeVarInt(this.size.ordinal());
+        sw.writeString(this.brand);
+        sw.writeString(this.material);
+        sw.writeStrings(this.styles);
+        sw.writeStrings(this.colors);
+        sw.writeBoolean(this.dirty);
+    }
+
+    // REQUIRES: the next value in sr was written by this.writeSnapshot
+    // MODIFIES: sr
+    // EFFECTS: Reads an instance of this object from the snapshot
+    public static Clothing fromSnapshot(SnapshotReader sr) throws IOException {
+        List<String> types = sr.readStrings();
+        int sizeOrdinal = sr.readVarInt();
+        if (sizeOrdinal < 0 || sizeOrdinal >= Size.values().length) {
+            throw new SnapshotFormatException("No size with ordinal " + sizeOrdinal + ".");
+        }
+        String brand = sr.readString();
+        String material = sr.readString();
+        List<String> styles = sr.readStrings();
+        List<String> colors = sr.readStrings();
+        return new Clothing(types, Size.values()[sizeOrdinal], brand, material,
+                styles, colors, sr.readBoolean());
+    }
+
     // EFFECTS: Compares the equality of this and obj
     @Override
     public boolean equals(Object obj) {
@@ -146,25 +236,143 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
         return this.compareTo((Clothing) obj) == 0;
     }
 
-    // EFFECTS: Compares this clothing to the provided
+    // EFFECTS: Returns a hash code consistent with equals, cached until the
+    //          next modification of this clothing.
+    @Override
+    public int hashCode() {
+        this.ensureKey();
+        return this.hash;
+    }
+
+    // EFFECTS: Compares this clothing to the provided by brand, size, material,
+    //          the number of types, styles and colors, dirtiness, and lastly the
+    //          types, styles and colors themselves.
     @Override
     public int compareTo(Clothing o) {
         if (this == o) {
             return 0;
         }
-        return compareAll(() -> this.brand.compareTo(o.brand),
-                () -> this.size.compareTo(o.size),
-                () -> this.material.compareTo(o.material),
-                () -> Integer.compare(this.types.size(), o.types.size()),
-                () -> Integer.compare(this.styles.size(), o.styles.size()),
-                () -> Integer.compare(this.colors.size(), o.colors.size()),
-                () -> Boolean.compare(this.dirty, o.dirty),
-                () -> String.join("" + Character.MAX_VALUE, this.types)
-                        .compareTo(String.join("" + Character.MAX_VALUE, o.types)),
-                () -> String.join("" + Character.MAX_VALUE, this.styles)
-                        .compareTo(String.join("" + Character.MAX_VALUE, o.styles)),
-                () -> String.join("" + Character.MAX_VALUE, this.colors)
-                        .compareTo(String.join("" + Character.MAX_VALUE, o.colors)));
+        int res = this.compareScalars(o);
+        return res != 0 ? res : this.compareListKeys(o);
+    }
+
+    // EFFECTS: Compares the single valued attributes and list sizes of this
+    //          and the given clothing.
+    private int compareScalars(Clothing o) {
+        int res = this.brand.compareTo(o.brand);
+        if (res == 0) {
+            res = this.size.compareTo(o.size);
+        }
+        if (res == 0) {
+            res = this.material.compareTo(o.material);
+        }
+        if (res == 0) {
+            res = Integer.compare(this.types.size(), o.types.size());
+        }
+        if (res == 0) {
+            res = Integer.compare(this.styles.size(), o.styles.size());
+        }
+        if (res == 0) {
+            res = Integer.compare(this.colors.size(), o.colors.size());
+        }
+        return res != 0 ? res : Boolean.compare(this.dirty, o.dirty);
+    }
+
+    // MODIFIES: this, o
+    // EFFECTS: Compares the cached joined types, styles and colors of this
+    //          and the given clothing.
+    private int compareListKeys(Clothing o) {
+        this.ensureKey();
+        o.ensureKey();
+        int res = this.typesKey.compareTo(o.typesKey);
+        if (res == 0) {
+            res = this.stylesKey.compareTo(o.stylesKey);
+        }
+        return res != 0 ? res : this.colorsKey.compareTo(o.colorsKey);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Registers the listener to be notified of modifications to this
+    //          clothing if it is not already registered.
+    public void addListener(ClothingListener listener) {
+        if (this.listeners == null) {
+            this.listeners = new ArrayList<>(1);
+        }
+        if (!this.listeners.contains(listener)) {
+            this.listeners.add(listener);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Stops notifying the given listener of modifications
+    public void removeListener(ClothingListener listener) {
+        if (this.listeners != null) {
+            this.listeners.remove(listener);
+        }
+    }
+
+    // EFFECTS: Notifies listeners that the given attribute is about to change
+    void attributeChanging(ClothingAttribute attribute) {
+        if (this.listeners != null) {
+            for (ClothingListener l : this.listeners) {
+                l.attributeChanging(this, attribute);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Marks the cached comparison key and hash as out of date and
+    //          notifies listeners that the given attribute has changed.
+    void attributeChanged(ClothingAttribute attribute) {
+        this.keyStale = true;
+        if (this.listeners != null) {
+            for (ClothingListener l : this.listeners) {
+                l.attributeChanged(this, attribute);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Recomputes the cached comparison key and hash if they are out
+    //          of date.
+    private void ensureKey() {
+        if (!this.keyStale) {
+            return;
+        }
+        this.typesKey = String.join(LIST_KEY_SEPARATOR, this.types);
+        this.stylesKey = String.join(LIST_KEY_SEPARATOR, this.styles);
+        this.colorsKey = String.join(LIST_KEY_SEPARATOR, this.colors);
+        int h = this.brand.hashCode();
+        h = 31 * h + this.size.ordinal();
+        h = 31 * h + this.material.hashCode();
+        h = 31 * h + Boolean.hashCode(this.dirty);
+        h = 31 * h + this.typesKey.hashCode();
+        h = 31 * h + this.stylesKey.hashCode();
+        this.hash = 31 * h + this.colorsKey.hashCode();
+        this.keyStale = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets every attribute of this clothing to that of the given
+    //          clothing, notifying listeners of each attribute that changed.
+    void setAll(Clothing values) {
+        this.setBrand(values.brand);
+        this.setSize(values.size);
+        this.setMaterial(values.material);
+        this.setDirty(values.dirty);
+        replaceValues(this.types, values.types);
+        replaceValues(this.styles, values.styles);
+        replaceValues(this.colors, values.colors);
+    }
+
+    // MODIFIES: list
+    // EFFECTS: Replaces the values in the attribute list with the given values
+    //          if they differ.
+    private static void replaceValues(List<String> list, List<String> values) {
+        if (!list.equals(values)) {
+            list.clear();
+            list.addAll(values);
+        }
     }
 
     // EFFECTS: Produces an exact copy of this clothing
@@ -178,19 +386,6 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
                 this.dirty);
     }
 
-    // EFFECTS: For every supplier, returns it if it does not provide 0,
-    //          if it does, moves on to the next.
-    @SafeVarargs
-    private static int compareAll(Supplier<Integer>... suppliers) {
-        for (Supplier<Integer> is : suppliers) {
-            int res = is.get();
-            if (res != 0) {
-                return res;
-            }
-        }
-        return 0;
-    }
-
     // REQUIRES: jso was constructed with this.toJson
     // EFFECTS: Returns an instance of this object reconstructed from the given
     //          JSON object.
@@ -204,4 +399,64 @@ public class Clothing implements Savable<Void>, Comparable<Clothing> {
         List<String> colors = JsonBuilder.toStringList(jso.getJSONArray(JSON_COLORS_KEY));
         return new Clothing(types, size, brand, material, styles, colors, dirty);
     }
+
+    // REQUIRES: the next value in jsr is an object written like this.toJson
+    // MODIFIES: jsr
+    // EFFECTS: Reads an instance of this object from the next JSON object in
+    //          the stream. Throws JSONException if a field of the clothing is
+    //          missing from the object, as fromJson does.
+    public static Clothing fromJsonStream(JsonStreamReader jsr) throws IOException {
+        Clothing c = new Clothing(Collections.emptyList(), Size.UNKNOWN, "", "",
+                Collections.emptyList(), Collections.emptyList(), false);
+        Set<String> missing = new HashSet<>(JSON_KEYS);
+        jsr.beginObject();
+        while (jsr.hasNext()) {
+            String field = jsr.nextName();
+            missing.remove(field);
+            c.readJsonField(jsr, field);
+        }
+        jsr.endObject();
+        for (String field : JSON_KEYS) {
+            if (missing.contains(field)) {
+                throw new JSONException("JSONObject[\"" + field + "\"] not found.");
+            }
+        }
+        return c;
+    }
+
+    // REQUIRES: this has no listeners
+    // MODIFIES: this, jsr
+    // EFFECTS: Reads the value of the named field from the stream into this
+    //          clothing, skipping the value if the field is unknown. Throws
+    //          JSONException if the size is not the name of a size.
+    private void readJsonField(JsonStreamReader jsr, String field) throws IOException {
+        if (field.equals(JSON_STYLES_KEY)) {
+            this.styles.addAll(jsr.nextArray(JsonStreamReader::nextString));
+        } else if (field.equals(JSON_TYPES_KEY)) {
+            this.types.addAll(jsr.nextArray(JsonStreamReader::nextString));
+        } else if (field.equals(JSON_BRAND_KEY)) {
+            this.brand = AttributeDictionary.canonical(ClothingAttribute.BRAND, jsr.nextString());
+        } else if (field.equals(JSON_SIZE_KEY)) {
+            this.size = readSize(jsr.nextString());
+        } else if (field.equals(JSON_DIRTY_KEY)) {
+            this.dirty = jsr.nextBoolean();
+        } else if (field.equals(JSON_MATERIAL_KEY)) {
+            this.material = AttributeDictionary.canonical(ClothingAttribute.MATERIAL, jsr.nextString());
+        } else if (field.equals(JSON_COLORS_KEY)) {
+            this.colors.addAll(jsr.nextArray(JsonStreamReader::nextString));
+        } else {
+            jsr.skipValue();
+        }
+        this.keyStale = true;
+    }
+
+    // EFFECTS: Returns the size with the given name, or throws JSONException
+    //          if there is none.
+    private static Size readSize(String name) {
+        try {
+            return Size.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new JSONException("JSONObject[\"" + JSON_SIZE_KEY + "\"] is not an enum of type Size.", e);
+        }
+    }
 }
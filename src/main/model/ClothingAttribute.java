@@ -0,0 +1,12 @@
+package model;
+
+// The attributes of a piece of clothing which closets index and search by
+public enum ClothingAttribute {
+    STYLE,
+    BRAND,
+    TYPE,
+    SIZE,
+    DIRTY,
+    MATERIAL,
+    COLOR
+}
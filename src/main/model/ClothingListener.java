@@ -0,0 +1,13 @@
+package model;
+
+// Receives notifications when an attribute of a piece of clothing is modified
+public interface ClothingListener {
+
+    // EFFECTS: Called just before the given attribute of the clothing is modified,
+    //          while the clothing still holds its old values.
+    void attributeChanging(Clothing clothing, ClothingAttribute attribute);
+
+    // EFFECTS: Called just after the given attribute of the clothing has been
+    //          modified, once the clothing holds its new values.
+    void attributeChanged(Clothing clothing, ClothingAttribute attribute);
+}
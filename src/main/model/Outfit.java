@@ -3,14 +3,22 @@ package model;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import persistance.JsonBuilder;
+import persistance.JsonStreamReader;
+import persistance.JsonStreamWriter;
 import persistance.Savable;
+import persistance.SnapshotReader;
+import persistance.SnapshotSavable;
+import persistance.SnapshotWriter;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 // An outfit with a list of clothing, a name, and a date last modified
-public class Outfit implements Savable<List<Clothing>> {
+public class Outfit implements Savable<List<Clothing>>, SnapshotSavable<List<Clothing>> {
 
     public static final String JSON_CLOTHING_KEY = "clothing";
     public static final String JSON_NAME_KEY = "name";
@@ -19,13 +27,20 @@ public class Outfit implements Savable<List<Clothing>> {
     private final List<Clothing> clothing;
     private String name;
     private Instant lastModified;
+    private Catalogue owner;
 
     // EFFECTS: Creates a new article of clothing which has now
     //          as the last modified time.
     public Outfit(String name, List<Clothing> clothing) {
+        this(name, clothing, Instant.now());
+    }
+
+    // EFFECTS: Creates an outfit with the given name, clothing and last
+    //          modified time.
+    Outfit(String name, List<Clothing> clothing, Instant lastModified) {
         this.clothing = new ArrayList<>(clothing);
         this.name = name;
-        this.lastModified = Instant.now();
+        this.lastModified = lastModified;
     }
 
     // REQUIRES: allClothing is sorted, jso was created by this.toJson
@@ -37,10 +52,53 @@ public class Outfit implements Savable<List<Clothing>> {
         for (int i = 0; i < clIs.length(); ++i) {
             clothing.add(allClothing.get(clIs.getInt(i)));
         }
-        Outfit o = new Outfit(name, clothing);
-        long lastModifiedMillis = jso.getLong(JSON_LAST_MODIFIED_KEY);
-        o.lastModified = Instant.ofEpochMilli(lastModifiedMillis);
-        return o;
+        return new Outfit(name, clothing, Instant.ofEpochMilli(jso.getLong(JSON_LAST_MODIFIED_KEY)));
+    }
+
+    // REQUIRES: the next value in jsr is an object written like this.toJson
+    // MODIFIES: jsr
+    // EFFECTS: Reads an outfit from the next JSON object in the stream, and
+    //          returns a function building it from the sorted list of all
+    //          clothing, which may not have been read yet.
+    public static Function<List<Clothing>, Outfit> fromJsonStream(JsonStreamReader jsr)
+            throws IOException {
+        String name = "";
+        int[] idxs = new int[0];
+        long lastModifiedMillis = 0;
+        jsr.beginObject();
+        while (jsr.hasNext()) {
+            String field = jsr.nextName();
+            if (field.equals(JSON_NAME_KEY)) {
+                name = jsr.nextString();
+            } else if (field.equals(JSON_CLOTHING_KEY)) {
+                idxs = jsr.nextIntArray();
+            } else if (field.equals(JSON_LAST_MODIFIED_KEY)) {
+                lastModifiedMillis = jsr.nextLong();
+            } else {
+                jsr.skipValue();
+            }
+        }
+        jsr.endObject();
+        return of(name, idxs, lastModifiedMillis);
+    }
+
+    // REQUIRES: allClothing is sorted, the next value in sr was written by
+    //           this.writeSnapshot
+    // MODIFIES: sr
+    // EFFECTS: Reads an instance of this object from the snapshot
+    public static Outfit fromSnapshot(SnapshotReader sr, List<Clothing> allClothing)
+            throws IOException {
+        String name = sr.readString();
+        int[] idxs = sr.readInts();
+        return of(name, idxs, sr.readVarLong()).apply(allClothing);
+    }
+
+    // EFFECTS: Returns a function building an outfit with the given name and
+    //          modification time from the clothing at the given indexes.
+    private static Function<List<Clothing>, Outfit> of(String name, int[] idxs,
+                                                       long lastModifiedMillis) {
+        return allClothing -> new Outfit(name, JsonBuilder.mapToValueSorted(idxs, allClothing)
+                .collect(Collectors.toList()), Instant.ofEpochMilli(lastModifiedMillis));
     }
 
     // EFFECTS: Returns the name of this outfit
@@ -52,6 +110,7 @@ public class Outfit implements Savable<List<Clothing>> {
     // EFFECTS: Sets the name of this outfit
     public void setName(String name) {
         this.name = name;
+        this.record(AccountJournal.OUTFIT_RENAMED, sw -> sw.writeString(name));
         EventLog.getInstance().logEvent(new Event(
                 "Outfit: Switching name from "
                         + this.name + " to " + name + "."
@@ -64,6 +123,7 @@ public class Outfit implements Savable<List<Clothing>> {
     public void addClothing(Clothing clothing) {
         this.clothing.add(clothing);
         this.lastModified = Instant.now();
+        this.recordClothing(AccountJournal.OUTFIT_CLOTHING_ADDED, clothing);
         EventLog.getInstance().logEvent(new Event(
                 "Outfit: Adding clothing @ " + lastModified + "."
         ));
@@ -81,6 +141,7 @@ public class Outfit implements Savable<List<Clothing>> {
     public boolean removeClothing(Clothing clothing) {
         if (this.clothing.remove(clothing)) {
             this.lastModified = Instant.now();
+            this.recordClothing(AccountJournal.OUTFIT_CLOTHING_REMOVED, clothing);
             EventLog.getInstance().logEvent(new Event(
                     "Outfit: Removed clothing @ " + lastModified + "."
             ));
@@ -97,6 +158,37 @@ public class Outfit implements Savable<List<Clothing>> {
         return this.lastModified;
     }
 
+    // MODIFIES: this
+    // EFFECTS: Sets the date last modified for this clothing
+    void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Makes the given catalogue the owner of this outfit, to which
+    //          every later change to this outfit is reported, or stops
+    //          reporting them if it is null.
+    void attach(Catalogue owner) {
+        this.owner = owner;
+    }
+
+    // EFFECTS: Reports the change with the given operation to the owner of
+    //          this outfit, if it has one.
+    private void record(byte op, AccountJournal.Change change) {
+        if (this.owner != null) {
+            this.owner.recordOutfitChange(this, op, change);
+        }
+    }
+
+    // EFFECTS: Reports the addition or removal of the given clothing, along
+    //          with the new last modified time, to the owner of this outfit.
+    private void recordClothing(byte op, Clothing clothing) {
+        this.record(op, sw -> {
+            clothing.writeSnapshot(sw, null);
+            sw.writeVarLong(this.lastModified.toEpochMilli());
+        });
+    }
+
     // REQUIRES: allClothing is sorted
     // EFFECTS: Returns a JSON representation of this object
     @Override
@@ -109,4 +201,27 @@ public class Outfit implements Savable<List<Clothing>> {
                 .put(JSON_NAME_KEY, this.name)
                 .put(JSON_LAST_MODIFIED_KEY, this.lastModified.toEpochMilli());
     }
+
+    // REQUIRES: allClothing is sorted
+    // MODIFIES: sw
+    // EFFECTS: Writes the binary representation of this object to the snapshot
+    @Override
+    public void writeSnapshot(SnapshotWriter sw, List<Clothing> allClothing) throws IOException {
+        sw.writeString(this.name);
+        sw.writeInts(JsonBuilder.mapToIndexSorted(this.clothing, allClothing).toArray());
+        sw.writeVarLong(this.lastModified.toEpochMilli());
+    }
+
+    // REQUIRES: allClothing is sorted
+    // MODIFIES: jsw
+    // EFFECTS: Writes the JSON representation of this object to the stream
+    @Override
+    public void writeJson(JsonStreamWriter jsw, List<Clothing> allClothing) throws IOException {
+        jsw.beginObject()
+                .name(JSON_CLOTHING_KEY)
+                .intArray(JsonBuilder.mapToIndexSorted(this.clothing, allClothing).toArray())
+                .name(JSON_NAME_KEY).value(this.name)
+                .name(JSON_LAST_MODIFIED_KEY).value(this.lastModified.toEpochMilli())
+                .endObject();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package model.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// An index from each distinct value of a clothing attribute to the bitmap
+// of clothing ordinals having that value.
+public class AttributeIndex<K> {
+
+    private final Map<K, Bitmap> buckets;
+
+    // EFFECTS: Creates a new empty attribute index
+    public AttributeIndex() {
+        this.buckets = new HashMap<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the given ordinal to the bucket for each of the keys,
+    //          creating buckets as needed.
+    public void add(Iterable<K> keys, int ordinal) {
+        for (K key : keys) {
+            this.add(key, ordinal);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the given ordinal to the bucket for the key, creating
+    //          the bucket if it is not present.
+    public void add(K key, int ordinal) {
+        Bitmap bucket = this.buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bitmap();
+            this.buckets.put(key, bucket);
+            this.keyAdded(key);
+        }
+        if (bucket.add(ordinal)) {
+            this.bucketResized(key, bucket.cardinality());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes the given ordinal from the bucket for each of the keys,
+    //          dropping buckets which become empty.
+    public void remove(Iterable<K> keys, int ordinal) {
+        for (K key : keys) {
+            this.remove(key, ordinal);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes the given ordinal from the bucket for the key, dropping
+    //          the bucket if it becomes empty.
+    public void remove(K key, int ordinal) {
+        Bitmap bucket = this.buckets.get(key);
+        if (bucket != null && bucket.remove(ordinal)) {
+            if (bucket.isEmpty()) {
+                this.buckets.remove(key);
+                this.keyRemoved(key);
+            }
+            this.bucketResized(key, bucket.cardinality());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes every bucket from this index
+    public void clear() {
+        List<K> keys = new ArrayList<>(this.buckets.keySet());
+        this.buckets.clear();
+        for (K key : keys) {
+            this.keyRemoved(key);
+            this.bucketResized(key, 0);
+        }
+    }
+
+    // EFFECTS: Returns the bucket for the given key, or null if no ordinal
+    //          has that key.
+    public Bitmap get(K key) {
+        return this.buckets.get(key);
+    }
+
+    // REQUIRES: counts.length is greater than every ordinal in this index
+    // MODIFIES: counts
+    // EFFECTS: Increments counts[o] once for every given key whose bucket
+    //          contains the ordinal o.
+    public void countMatches(Iterable<K> keys, int[] counts) {
+        for (K key : keys) {
+            this.countMatches(key, counts);
+        }
+    }
+
+    // REQUIRES: counts.length is greater than every ordinal in this index
+    // MODIFIES: counts
+    // EFFECTS: Increments counts[o] for every ordinal o in the key's bucket.
+    public void countMatches(K key, int[] counts) {
+        Bitmap bucket = this.buckets.get(key);
+        if (bucket != null) {
+            bucket.addTo(counts);
+        }
+    }
+
+    // EFFECTS: Returns the distinct keys present in this index
+    public Set<K> keySet() {
+        return this.buckets.keySet();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Called after a bucket is created for a key which had none.
+    //          Does nothing unless overridden.
+    protected void keyAdded(K key) {
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Called after the bucket of a key is dropped. Does nothing
+    //          unless overridden.
+    protected void keyRemoved(K key) {
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Called after an ordinal is added to or removed from the bucket
+    //          of a key, with the number of ordinals it now holds. Does
+    //          nothing unless overridden.
+    protected void bucketResized(K key, int cardinality) {
+    }
+}
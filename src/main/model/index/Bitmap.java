@@ -0,0 +1,241 @@
+package model.index;
+
+import java.util.Arrays;
+
+// A compressed set of non-negative integers. Small sets are stored as a sorted
+// array of values, and are switched to a plain array of 64-bit words once the
+// words would take up less space than the values.
+public class Bitmap {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] values;
+    private long[] words;
+    private int cardinality;
+
+    // EFFECTS: Creates a new empty bitmap
+    public Bitmap() {
+        this.values = new int[INITIAL_CAPACITY];
+        this.words = null;
+        this.cardinality = 0;
+    }
+
+    // EFFECTS: Returns the number of values in this bitmap
+    public int cardinality() {
+        return this.cardinality;
+    }
+
+    // EFFECTS: Returns true if this bitmap contains no values
+    public boolean isEmpty() {
+        return this.cardinality == 0;
+    }
+
+    // EFFECTS: Returns true if this bitmap is stored as words rather than
+    //          as a sorted array of values.
+    public boolean isDense() {
+        return this.words != null;
+    }
+
+    // REQUIRES: value >= 0
+    // EFFECTS: Returns true if the given value is in this bitmap
+    public boolean contains(int value) {
+        if (this.isDense()) {
+            int word = value >>> 6;
+            return word < this.words.length
+                    && (this.words[word] & (1L << value)) != 0;
+        }
+        return Arrays.binarySearch(this.values, 0, this.cardinality, value) >= 0;
+    }
+
+    // REQUIRES: value >= 0
+    // MODIFIES: this
+    // EFFECTS: Adds the given value to this bitmap, returning true if it
+    //          was not already present.
+    public boolean add(int value) {
+        if (this.isDense()) {
+            return this.addDense(value);
+        }
+        int idx = Arrays.binarySearch(this.values, 0, this.cardinality, value);
+        if (idx >= 0) {
+            return false;
+        }
+        int insertIdx = -idx - 1;
+        if (this.cardinality == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.cardinality * 2);
+        }
+        System.arraycopy(this.values, insertIdx, this.values, insertIdx + 1,
+                this.cardinality - insertIdx);
+        this.values[insertIdx] = value;
+        this.cardinality += 1;
+        if (this.cardinality > 2 * wordCount(this.values[this.cardinality - 1])) {
+            this.toDense();
+        }
+        return true;
+    }
+
+    // REQUIRES: value >= 0
+    // MODIFIES: this
+    // EFFECTS: Removes the given value from this bitmap, returning true if it
+    //          was present.
+    public boolean remove(int value) {
+        if (this.isDense()) {
+            return this.removeDense(value);
+        }
+        int idx = Arrays.binarySearch(this.values, 0, this.cardinality, value);
+        if (idx < 0) {
+            return false;
+        }
+        System.arraycopy(this.values, idx + 1, this.values, idx,
+                this.cardinality - idx - 1);
+        this.cardinality -= 1;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds every value in the other bitmap to this bitmap, merging
+    //          words directly if the other bitmap is dense.
+    public void addAll(Bitmap other) {
+        if (!other.isDense()) {
+            for (int i = 0; i < other.cardinality; ++i) {
+                this.add(other.values[i]);
+            }
+            return;
+        }
+        if (this.isEmpty() && !this.isDense()) {
+            this.words = new long[0];
+            this.values = null;
+        } else if (!this.isDense()) {
+            this.toDense();
+        }
+        if (this.words.length < other.words.length) {
+            this.words = Arrays.copyOf(this.words, other.words.length);
+        }
+        int count = 0;
+        for (int w = 0; w < this.words.length; ++w) {
+            this.words[w] |= w < other.words.length ? other.words[w] : 0;
+            count += Long.bitCount(this.words[w]);
+        }
+        this.cardinality = count;
+    }
+
+    // REQUIRES: counts.length is greater than every value in this bitmap
+    // MODIFIES: counts
+    // EFFECTS: Increments counts[v] for every value v in this bitmap.
+    public void addTo(int[] counts) {
+        this.addTo(counts, 1);
+    }
+
+    // REQUIRES: counts.length is greater than every value in this bitmap
+    // MODIFIES: counts
+    // EFFECTS: Adds amount to counts[v] for every value v in this bitmap.
+    public void addTo(int[] counts, int amount) {
+        if (!this.isDense()) {
+            for (int i = 0; i < this.cardinality; ++i) {
+                counts[this.values[i]] += amount;
+            }
+            return;
+        }
+        for (int w = 0; w < this.words.length; ++w) {
+            long word = this.words[w];
+            int base = w << 6;
+            while (word != 0) {
+                counts[base + Long.numberOfTrailingZeros(word)] += amount;
+                word &= word - 1;
+            }
+        }
+    }
+
+    // EFFECTS: Returns the values in this bitmap in ascending order
+    public int[] toArray() {
+        if (!this.isDense()) {
+            return Arrays.copyOf(this.values, this.cardinality);
+        }
+        int[] out = new int[this.cardinality];
+        int i = 0;
+        for (int w = 0; w < this.words.length; ++w) {
+            long word = this.words[w];
+            while (word != 0) {
+                out[i++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return out;
+    }
+
+    // EFFECTS: Returns the greatest value in this bitmap which is at most the
+    //          given value, or -1 if there is none, without reading the values
+    //          above it.
+    public int previousValue(int from) {
+        if (from < 0 || this.isEmpty()) {
+            return -1;
+        } else if (!this.isDense()) {
+            int idx = Arrays.binarySearch(this.values, 0, this.cardinality, from);
+            int insertIdx = idx >= 0 ? idx + 1 : -idx - 1;
+            return insertIdx > 0 ? this.values[insertIdx - 1] : -1;
+        }
+        int w = Math.min(from >>> 6, this.words.length - 1);
+        long word = w < from >>> 6 ? this.words[w] : this.words[w] & (-1L >>> (63 - (from & 63)));
+        while (word == 0 && w > 0) {
+            w -= 1;
+            word = this.words[w];
+        }
+        return word == 0 ? -1 : (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets the given bit in the dense representation
+    private boolean addDense(int value) {
+        int word = value >>> 6;
+        if (word >= this.words.length) {
+            this.words = Arrays.copyOf(this.words, Math.max(word + 1, this.words.length * 2));
+        }
+        long mask = 1L << value;
+        if ((this.words[word] & mask) != 0) {
+            return false;
+        }
+        this.words[word] |= mask;
+        this.cardinality += 1;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Clears the given bit in the dense representation, and switches
+    //          back to a sorted array once the bitmap has become sparse.
+    private boolean removeDense(int value) {
+        int word = value >>> 6;
+        long mask = 1L << value;
+        if (word >= this.words.length || (this.words[word] & mask) == 0) {
+            return false;
+        }
+        this.words[word] &= ~mask;
+        this.cardinality -= 1;
+        if (this.cardinality < this.words.length / 2) {
+            this.toSparse();
+        }
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Converts this bitmap from sorted values to words
+    private void toDense() {
+        long[] dense = new long[wordCount(this.values[this.cardinality - 1])];
+        for (int i = 0; i < this.cardinality; ++i) {
+            dense[this.values[i] >>> 6] |= 1L << this.values[i];
+        }
+        this.words = dense;
+        this.values = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Converts this bitmap from words to sorted values
+    private void toSparse() {
+        int[] sparse = this.toArray();
+        this.values = Arrays.copyOf(sparse, Math.max(INITIAL_CAPACITY, sparse.length * 2));
+        this.words = null;
+    }
+
+    // EFFECTS: Returns the number of words needed to hold the given value
+    private static int wordCount(int maxValue) {
+        return (maxValue >>> 6) + 1;
+    }
+}
@@ -0,0 +1,552 @@
+package model.index;
+
+import model.Clothing;
+import model.ClothingAttribute;
+import model.Size;
+import model.search.ClothingAddress;
+import model.search.ClothingQuery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Indexes clothing by each of its attributes using bitmaps over dense
+// per-index clothing ordinals, and scores clothing against addresses.
+public class ClothingIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int BLOCK_SCORE_COUNT = 1 << 20;
+    private static final ThreadLocal<int[]> SCRATCH_COUNTS =
+            ThreadLocal.withInitial(() -> new int[INITIAL_CAPACITY]);
+
+    private final FuzzyAttributeIndex styleIndex;
+    private final FuzzyAttributeIndex brandIndex;
+    private final FuzzyAttributeIndex typeIndex;
+    private final AttributeIndex<Size> sizeIndex;
+    private final AttributeIndex<Boolean> dirtyIndex;
+    private final FuzzyAttributeIndex materialIndex;
+    private final FuzzyAttributeIndex colorIndex;
+
+    private final Map<Clothing, Integer> ordinals;
+    private final Deque<Integer> freeOrdinals;
+    private Clothing[] byOrdinal;
+    private int ordinalLimit;
+    private int modCount;
+
+    // EFFECTS: Creates a new index with no clothing
+    public ClothingIndex() {
+        this.styleIndex = new FuzzyAttributeIndex();
+        this.brandIndex = new FuzzyAttributeIndex();
+        this.typeIndex = new FuzzyAttributeIndex();
+        this.sizeIndex = new AttributeIndex<>();
+        this.dirtyIndex = new AttributeIndex<>();
+        this.materialIndex = new FuzzyAttributeIndex();
+        this.colorIndex = new FuzzyAttributeIndex();
+
+        this.ordinals = new IdentityHashMap<>();
+        this.freeOrdinals = new ArrayDeque<>();
+        this.byOrdinal = new Clothing[INITIAL_CAPACITY];
+        this.ordinalLimit = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Assigns the given clothing an ordinal and adds it to every
+    //          attribute bucket it belongs to. Does nothing if this exact
+    //          instance is already indexed.
+    public void add(Clothing clothing) {
+        if (this.ordinals.containsKey(clothing)) {
+            return;
+        }
+        int ordinal = this.nextOrdinal();
+        this.byOrdinal[ordinal] = clothing;
+        this.ordinals.put(clothing, ordinal);
+        for (ClothingAttribute attribute : ClothingAttribute.values()) {
+            this.update(clothing, attribute, ordinal, true);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes this exact clothing instance from every attribute bucket
+    //          and frees its ordinal. Does nothing if it is not indexed.
+    public void remove(Clothing clothing) {
+        Integer ordinal = this.ordinals.remove(clothing);
+        if (ordinal == null) {
+            return;
+        }
+        for (ClothingAttribute attribute : ClothingAttribute.values()) {
+            this.update(clothing, attribute, ordinal, false);
+        }
+        this.byOrdinal[ordinal] = null;
+        this.freeOrdinals.push(ordinal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes the indexed clothing instance from the buckets of its
+    //          current values for the given attribute. Does nothing if it is
+    //          not indexed.
+    public void unindex(Clothing clothing, ClothingAttribute attribute) {
+        Integer ordinal = this.ordinals.get(clothing);
+        if (ordinal != null) {
+            this.update(clothing, attribute, ordinal, false);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the indexed clothing instance to the buckets of its
+    //          current values for the given attribute. Does nothing if it is
+    //          not indexed.
+    public void reindex(Clothing clothing, ClothingAttribute attribute) {
+        Integer ordinal = this.ordinals.get(clothing);
+        if (ordinal != null) {
+            this.update(clothing, attribute, ordinal, true);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Moves every indexed clothing into the bucket for the given
+    //          dirtiness, assuming each now has that value.
+    public void reindexAllDirty(boolean dirty) {
+        this.modCount += 1;
+        this.dirtyIndex.clear();
+        for (int i = 0; i < this.ordinalLimit; ++i) {
+            if (this.byOrdinal[i] != null) {
+                this.dirtyIndex.add(dirty, i);
+            }
+        }
+    }
+
+    // EFFECTS: Returns the number of clothing instances indexed
+    public int size() {
+        return this.ordinals.size();
+    }
+
+    // EFFECTS: Returns the clothing matching at least one criterion of the
+    //          address, ordered by ascending score, keeping only the address
+    //          match count best matches. Clothing scores the address weight of
+    //          each criterion it meets. Ties are ordered by ascending ordinal.
+    //          If fewer matches are wanted than clothing is indexed, the
+    //          threshold algorithm stops scoring once no clothing left can
+    //          beat them. Scores are counted in a buffer of the calling thread,
+    //          so searches may run concurrently while the index is unchanged.
+    public List<Clothing> find(ClothingAddress address) {
+        List<Bitmap> buckets = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        this.collectCriteria(address, buckets, weights);
+        int wanted = Math.max(0, address.getMatchCount());
+        if (wanted < this.size()) {
+            return this.toClothing(new ThresholdSearch(buckets, weights).top(wanted));
+        }
+        int[] counts = this.scratchCounts();
+        int maxScore = 0;
+        for (int i = 0; i < buckets.size(); ++i) {
+            buckets.get(i).addTo(counts, weights.get(i));
+            maxScore += weights.get(i);
+        }
+        return this.selectAll(counts, maxScore, wanted);
+    }
+
+    // EFFECTS: Returns the score buffer of the calling thread, grown to cover
+    //          every ordinal of this index. Every count below the ordinal
+    //          limit is 0, as selectAll resets the counts it reads.
+    private int[] scratchCounts() {
+        int[] counts = SCRATCH_COUNTS.get();
+        if (counts.length < this.ordinalLimit) {
+            counts = new int[Math.max(this.ordinalLimit, counts.length * 2)];
+            SCRATCH_COUNTS.set(counts);
+        }
+        return counts;
+    }
+
+    // EFFECTS: Returns the clothing each address finds, as find does, in the
+    //          order of the addresses. The addresses are scored in blocks
+    //          holding about BLOCK_SCORE_COUNT scores in all, so the memory
+    //          used does not grow with the number of addresses.
+    public List<List<Clothing>> findAll(List<ClothingAddress> addresses) {
+        return this.findAll(addresses, Math.max(1, BLOCK_SCORE_COUNT / Math.max(1, this.ordinalLimit)));
+    }
+
+    // REQUIRES: blockSize > 0
+    // EFFECTS: Returns the clothing each address finds, as find does, in the
+    //          order of the addresses, scoring at most blockSize addresses at
+    //          a time in the same score buffers.
+    List<List<Clothing>> findAll(List<ClothingAddress> addresses, int blockSize) {
+        List<List<Clothing>> found = new ArrayList<>(addresses.size());
+        if (addresses.isEmpty()) {
+            return found;
+        }
+        int[][] scores = new int[Math.min(blockSize, addresses.size())][this.ordinalLimit];
+        for (int start = 0; start < addresses.size(); start += blockSize) {
+            int end = Math.min(addresses.size(), start + blockSize);
+            this.findBlock(addresses.subList(start, end), scores, found);
+        }
+        return found;
+    }
+
+    // REQUIRES: scores holds a buffer of ordinalLimit zeros for each address
+    // MODIFIES: scores, found
+    // EFFECTS: Appends the clothing each address finds to found, in the order
+    //          of the addresses, leaving the buffers zeroed. The addresses are
+    //          grouped by the buckets of their criteria, and each distinct
+    //          bucket is read once, adding to the scores of every address in
+    //          its group.
+    private void findBlock(List<ClothingAddress> addresses, int[][] scores, List<List<Clothing>> found) {
+        Map<Bitmap, List<int[]>> readers = new IdentityHashMap<>();
+        int[] maxScores = new int[addresses.size()];
+        for (int q = 0; q < addresses.size(); ++q) {
+            List<Bitmap> buckets = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            this.collectCriteria(addresses.get(q), buckets, weights);
+            for (int i = 0; i < buckets.size(); ++i) {
+                readers.computeIfAbsent(buckets.get(i), b -> new ArrayList<>())
+                        .add(new int[]{q, weights.get(i)});
+                maxScores[q] += weights.get(i);
+            }
+        }
+        scoreAll(readers, scores);
+        for (int q = 0; q < addresses.size(); ++q) {
+            int wanted = Math.max(0, addresses.get(q).getMatchCount());
+            found.add(this.selectAll(scores[q], maxScores[q], wanted));
+        }
+    }
+
+    // REQUIRES: every reader of a bucket is an index into scores and the
+    //           weight of its criterion
+    // MODIFIES: scores
+    // EFFECTS: Adds the score of every ordinal against each address to its
+    //          buffer in scores, by reading each bucket once for all of its
+    //          readers.
+    private static void scoreAll(Map<Bitmap, List<int[]>> readers, int[][] scores) {
+        for (Map.Entry<Bitmap, List<int[]>> group : readers.entrySet()) {
+            int[] ordinals = group.getKey().toArray();
+            for (int[] reader : group.getValue()) {
+                int[] counts = scores[reader[0]];
+                for (int ordinal : ordinals) {
+                    counts[ordinal] += reader[1];
+                }
+            }
+        }
+    }
+
+    // REQUIRES: pageSize > 0
+    // EFFECTS: Returns a cursor over the clothing matching at least one
+    //          criterion of the address, best match first, keeping only the
+    //          address match count best matches. Matches are ranked as find
+    //          ranks them, but only as far as the cursor is read.
+    //          If a page token is given, the cursor resumes after the clothing
+    //          returned by the cursor the token was taken from; if it is
+    //          malformed, throws IllegalArgumentException. Cursors and page
+    //          tokens are only valid while this index is unchanged: once
+    //          clothing is added, removed or edited, reading a cursor created
+    //          before or resuming a page token taken before throws
+    //          ConcurrentModificationException.
+    public SearchCursor search(ClothingAddress address, int pageSize, String pageToken) {
+        List<Bitmap> buckets = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        this.collectCriteria(address, buckets, weights);
+        return SearchCursor.resume(this, new ThresholdSearch(buckets, weights), pageSize,
+                pageToken, Math.max(0, address.getMatchCount()));
+    }
+
+    // REQUIRES: every clothing given is indexed
+    // EFFECTS: Returns the score against the address of each given clothing,
+    //          the total weight of the address criteria it meets.
+    public int[] scoresOf(ClothingAddress address, List<Clothing> clothing) {
+        List<Bitmap> buckets = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        this.collectCriteria(address, buckets, weights);
+        int[] scores = new int[clothing.size()];
+        for (int i = 0; i < scores.length; ++i) {
+            int ordinal = this.ordinals.get(clothing.get(i));
+            for (int j = 0; j < buckets.size(); ++j) {
+                if (buckets.get(j).contains(ordinal)) {
+                    scores[i] += weights.get(j);
+                }
+            }
+        }
+        return scores;
+    }
+
+    // REQUIRES: counts holds the score of every ordinal, which is at most
+    //           maxScore
+    // MODIFIES: counts
+    // EFFECTS: Returns the wanted best scoring clothing with a score above 0,
+    //          ordered by ascending score then ordinal, and resets all counts.
+    private List<Clothing> selectAll(int[] counts, int maxScore, int wanted) {
+        int[] histogram = this.buildHistogram(counts, maxScore);
+        int matched = this.ordinalLimit - histogram[0];
+        wanted = Math.min(matched, wanted);
+        int cutoff = histogram.length - 1;
+        int taken = 0;
+        while (cutoff > 0 && taken + histogram[cutoff] < wanted) {
+            taken += histogram[cutoff];
+            cutoff -= 1;
+        }
+        return new ArrayList<>(Arrays.asList(
+                this.selectTop(counts, histogram, cutoff, wanted, taken)));
+    }
+
+    // EFFECTS: Returns the clothing matching the given query, in ascending
+    //          order of ordinal.
+    public List<Clothing> query(ClothingQuery query) {
+        return this.toClothing(QueryPlan.compile(query, this).execute(this).toArray());
+    }
+
+    // EFFECTS: Returns the bucket of the clothing meeting each criterion of
+    //          the address which any indexed clothing meets.
+    List<Bitmap> bucketsFor(ClothingAddress address) {
+        List<Bitmap> buckets = new ArrayList<>();
+        this.collectCriteria(address, buckets, new ArrayList<>());
+        return buckets;
+    }
+
+    // MODIFIES: buckets, weights
+    // EFFECTS: Appends the bucket of the clothing meeting each criterion of
+    //          the address which any indexed clothing meets to buckets, and
+    //          the address weight of the criterion's attribute to weights.
+    private void collectCriteria(ClothingAddress address, List<Bitmap> buckets, List<Integer> weights) {
+        boolean fuzzy = address.isFuzzy();
+        addBuckets(this.styleIndex, address.getStyles(), fuzzy, address.getWeight(ClothingAttribute.STYLE),
+                buckets, weights);
+        addBuckets(this.brandIndex, address.getBrands(), fuzzy, address.getWeight(ClothingAttribute.BRAND),
+                buckets, weights);
+        addBuckets(this.typeIndex, address.getTypes(), fuzzy, address.getWeight(ClothingAttribute.TYPE),
+                buckets, weights);
+        addBuckets(this.sizeIndex, address.getSizes(), address.getWeight(ClothingAttribute.SIZE),
+                buckets, weights);
+        if (address.getIsDirty() != null) {
+            addBuckets(this.dirtyIndex, Collections.singletonList(address.getIsDirty()),
+                    address.getWeight(ClothingAttribute.DIRTY), buckets, weights);
+        }
+        addBuckets(this.materialIndex, address.getMaterials(), fuzzy, address.getWeight(ClothingAttribute.MATERIAL),
+                buckets, weights);
+        addBuckets(this.colorIndex, address.getColors(), fuzzy, address.getWeight(ClothingAttribute.COLOR),
+                buckets, weights);
+    }
+
+    // EFFECTS: Returns the clothing with each of the given ordinals in order
+    private List<Clothing> toClothing(int[] ordinals) {
+        List<Clothing> found = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            found.add(this.byOrdinal[ordinal]);
+        }
+        return found;
+    }
+
+    // EFFECTS: Returns the number of changes made to this index so far
+    int getModCount() {
+        return this.modCount;
+    }
+
+    // REQUIRES: the ordinal is assigned to indexed clothing
+    // EFFECTS: Returns the clothing with the given ordinal
+    Clothing clothingAt(int ordinal) {
+        return this.byOrdinal[ordinal];
+    }
+
+    // EFFECTS: Returns the ordinals of every indexed clothing
+    Bitmap allOrdinals() {
+        Bitmap all = new Bitmap();
+        for (int i = 0; i < this.ordinalLimit; ++i) {
+            if (this.byOrdinal[i] != null) {
+                all.add(i);
+            }
+        }
+        return all;
+    }
+
+    // EFFECTS: Returns the values of the given attribute present in this
+    //          index closest to the possibly mistyped token, ignoring case and
+    //          within FuzzyAttributeIndex.toleranceFor(token) typing errors.
+    //          Returns an empty list for sizes and dirtiness.
+    public List<String> closestKeys(ClothingAttribute attribute, String token) {
+        FuzzyAttributeIndex index = this.stringIndexOf(attribute);
+        return index == null
+                ? Collections.emptyList() : index.closestKeys(token, FuzzyAttributeIndex.toleranceFor(token));
+    }
+
+    // REQUIRES: n >= 0
+    // EFFECTS: Returns at most n values of the given attribute present in this
+    //          index starting with the prefix ignoring case, those held by the
+    //          most clothing first. Returns an empty list for sizes and
+    //          dirtiness.
+    public List<String> complete(ClothingAttribute attribute, String prefix, int n) {
+        FuzzyAttributeIndex index = this.stringIndexOf(attribute);
+        return index == null ? Collections.emptyList() : index.complete(prefix, n);
+    }
+
+    // EFFECTS: Returns the index of the given string attribute, or null if
+    //          the attribute is not a string.
+    private FuzzyAttributeIndex stringIndexOf(ClothingAttribute attribute) {
+        switch (attribute) {
+            case STYLE:
+                return this.styleIndex;
+            case BRAND:
+                return this.brandIndex;
+            case TYPE:
+                return this.typeIndex;
+            case MATERIAL:
+                return this.materialIndex;
+            case COLOR:
+                return this.colorIndex;
+            default:
+                return null;
+        }
+    }
+
+    // EFFECTS: Returns the styles present in this index
+    public Set<String> getStyles() {
+        return this.styleIndex.keySet();
+    }
+
+    // EFFECTS: Returns the brands present in this index
+    public Set<String> getBrands() {
+        return this.brandIndex.keySet();
+    }
+
+    // EFFECTS: Returns the types present in this index
+    public Set<String> getTypes() {
+        return this.typeIndex.keySet();
+    }
+
+    // EFFECTS: Returns the sizes present in this index
+    public Set<Size> getSizes() {
+        return this.sizeIndex.keySet();
+    }
+
+    // EFFECTS: Returns the colors present in this index
+    public Set<String> getColors() {
+        return this.colorIndex.keySet();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds (or removes if not adding) the ordinal to the buckets of
+    //          the clothing's current values for the given attribute.
+    private void update(Clothing c, ClothingAttribute attribute, int ordinal, boolean adding) {
+        this.modCount += 1;
+        switch (attribute) {
+            case STYLE:
+                update(this.styleIndex, c.getStyles(), ordinal, adding);
+                break;
+            case BRAND:
+                update(this.brandIndex, Collections.singletonList(c.getBrand()), ordinal, adding);
+                break;
+            case TYPE:
+                update(this.typeIndex, c.getTypes(), ordinal, adding);
+                break;
+            case SIZE:
+                update(this.sizeIndex, Collections.singletonList(c.getSize()), ordinal, adding);
+                break;
+            case DIRTY:
+                update(this.dirtyIndex, Collections.singletonList(c.isDirty()), ordinal, adding);
+                break;
+            case MATERIAL:
+                update(this.materialIndex, Collections.singletonList(c.getMaterial()), ordinal, adding);
+                break;
+            default:
+                update(this.colorIndex, c.getColors(), ordinal, adding);
+        }
+    }
+
+    // MODIFIES: index
+    // EFFECTS: Adds (or removes if not adding) the ordinal to the index
+    //          buckets for each of the given keys.
+    private static <K> void update(AttributeIndex<K> index, Iterable<K> keys,
+                                   int ordinal, boolean adding) {
+        if (adding) {
+            index.add(keys, ordinal);
+        } else {
+            index.remove(keys, ordinal);
+        }
+    }
+
+    // MODIFIES: buckets, weights
+    // EFFECTS: Appends the bucket in the index for each of the keys to
+    //          buckets, and the given weight to weights for each. If fuzzy,
+    //          a key with no bucket is replaced by the closest keys which have
+    //          one, if any are within the tolerance for it.
+    private static void addBuckets(FuzzyAttributeIndex index, List<String> keys, boolean fuzzy, int weight,
+                                   List<Bitmap> buckets, List<Integer> weights) {
+        if (!fuzzy) {
+            addBuckets(index, keys, weight, buckets, weights);
+            return;
+        }
+        for (String key : keys) {
+            List<String> matched = index.get(key) != null ? Collections.singletonList(key)
+                    : index.closestKeys(key, FuzzyAttributeIndex.toleranceFor(key));
+            addBuckets(index, matched, weight, buckets, weights);
+        }
+    }
+
+    // MODIFIES: buckets, weights
+    // EFFECTS: Appends the bucket in the index for each of the keys which has
+    //          one to buckets, and the given weight to weights for each.
+    private static <K> void addBuckets(AttributeIndex<K> index, List<K> keys, int weight,
+                                       List<Bitmap> buckets, List<Integer> weights) {
+        for (K key : keys) {
+            Bitmap bucket = index.get(key);
+            if (bucket != null) {
+                buckets.add(bucket);
+                weights.add(weight);
+            }
+        }
+    }
+
+    // REQUIRES: no ordinal in counts scores more than maxScore
+    // EFFECTS: Returns the number of ordinals below the ordinal limit having
+    //          each count from 0 to maxScore.
+    private int[] buildHistogram(int[] counts, int maxScore) {
+        int[] histogram = new int[maxScore + 1];
+        for (int i = 0; i < this.ordinalLimit; ++i) {
+            histogram[counts[i]] += 1;
+        }
+        return histogram;
+    }
+
+    // REQUIRES: histogram was just built from counts, the wanted best
+    //           matches are every ordinal counted above cutoff plus
+    //           (wanted - taken) of those counted at cutoff
+    // MODIFIES: counts
+    // EFFECTS: Counting sorts the wanted best matches into ascending order of
+    //          count then ordinal, keeping the highest ordinals at the cutoff,
+    //          and resets all counts to zero.
+    private Clothing[] selectTop(int[] counts, int[] histogram, int cutoff, int wanted, int taken) {
+        Clothing[] top = new Clothing[wanted];
+        int skipAtCutoff = histogram[cutoff] - (wanted - taken);
+        int[] offsets = new int[histogram.length];
+        int next = 0;
+        for (int score = cutoff; score < histogram.length && wanted > 0; ++score) {
+            offsets[score] = next;
+            next += score == cutoff ? histogram[score] - skipAtCutoff : histogram[score];
+        }
+        for (int i = 0; i < this.ordinalLimit; ++i) {
+            int count = counts[i];
+            counts[i] = 0;
+            if (wanted == 0 || count < cutoff || count == 0) {
+                continue;
+            } else if (count == cutoff && skipAtCutoff > 0) {
+                skipAtCutoff -= 1;
+            } else {
+                top[offsets[count]++] = this.byOrdinal[i];
+            }
+        }
+        return top;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns a free ordinal, growing the ordinal tables if needed
+    private int nextOrdinal() {
+        if (!this.freeOrdinals.isEmpty()) {
+            return this.freeOrdinals.pop();
+        }
+        if (this.ordinalLimit == this.byOrdinal.length) {
+            this.byOrdinal = Arrays.copyOf(this.byOrdinal, this.ordinalLimit * 2);
+        }
+        return this.ordinalLimit++;
+    }
+}
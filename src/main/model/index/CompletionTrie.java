@@ -0,0 +1,131 @@
+package model.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A prefix trie of string values and the number of clothing having each,
+// keyed by the lower case characters of the values. Every node keeps the most
+// frequent values below it, so completing a prefix only walks the prefix.
+// A change to the count of a value only marks the lists along its path stale,
+// and a stale list is rebuilt from the lists of the children of its node when
+// it is next read, so building the trie from many values sorts each list once.
+final class CompletionTrie {
+
+    static final int MAX_COMPLETIONS = 10;
+
+    private static final Comparator<Entry> BY_FREQUENCY = Comparator
+            .comparingInt((Entry e) -> -e.count)
+            .thenComparing(e -> e.value);
+
+    private final Node root;
+
+    // EFFECTS: Creates an empty trie
+    CompletionTrie() {
+        this.root = new Node();
+    }
+
+    // REQUIRES: count >= 0
+    // MODIFIES: this
+    // EFFECTS: Sets the number of clothing having the given value, removing
+    //          the value if the count is 0.
+    void set(String value, int count) {
+        String folded = value.toLowerCase();
+        Node[] path = new Node[folded.length() + 1];
+        path[0] = this.root;
+        for (int i = 0; i < folded.length(); ++i) {
+            path[i + 1] = path[i].children.computeIfAbsent(folded.charAt(i), c -> new Node());
+        }
+        path[folded.length()].setCount(value, count);
+        for (int i = folded.length(); i >= 0; --i) {
+            if (i > 0 && path[i].isEmpty()) {
+                path[i - 1].children.remove(folded.charAt(i - 1));
+            } else {
+                path[i].top = null;
+            }
+        }
+    }
+
+    // REQUIRES: n >= 0
+    // EFFECTS: Returns at most n, and at most MAX_COMPLETIONS, values starting
+    //          with the prefix ignoring case, most frequent first and then in
+    //          alphabetical order.
+    List<String> complete(String prefix, int n) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; ++i) {
+            node = node.children.get(Character.toLowerCase(prefix.charAt(i)));
+        }
+        List<String> completions = new ArrayList<>();
+        if (node != null) {
+            List<Entry> top = node.getTop();
+            for (int i = 0; i < top.size() && i < n; ++i) {
+                completions.add(top.get(i).value);
+            }
+        }
+        return completions;
+    }
+
+    // A value and the number of clothing having it
+    private static final class Entry {
+
+        private final String value;
+        private final int count;
+
+        // EFFECTS: Creates an entry for the value with the given count
+        Entry(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+    }
+
+    // A node of the trie, holding the values whose lower case form ends at it
+    private static final class Node {
+
+        private final Map<Character, Node> children;
+        private final List<Entry> values;
+        // The most frequent values at or below this node, or null if stale
+        private List<Entry> top;
+
+        // EFFECTS: Creates a node with no children or values
+        Node() {
+            this.children = new HashMap<>();
+            this.values = new ArrayList<>(1);
+            this.top = Collections.emptyList();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Sets the count of the given value ending at this node,
+        //          removing it if the count is 0.
+        void setCount(String value, int count) {
+            this.values.removeIf(e -> e.value.equals(value));
+            if (count > 0) {
+                this.values.add(new Entry(value, count));
+            }
+        }
+
+        // EFFECTS: Returns true if no value ends at or below this node
+        boolean isEmpty() {
+            return this.values.isEmpty() && this.children.isEmpty();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Returns the most frequent values at or below this node,
+        //          first recomputing them from the values here and the lists of
+        //          the children if they are stale.
+        List<Entry> getTop() {
+            if (this.top == null) {
+                List<Entry> candidates = new ArrayList<>(this.values);
+                for (Node child : this.children.values()) {
+                    candidates.addAll(child.getTop());
+                }
+                candidates.sort(BY_FREQUENCY);
+                this.top = candidates.size() > MAX_COMPLETIONS
+                        ? new ArrayList<>(candidates.subList(0, MAX_COMPLETIONS)) : candidates;
+            }
+            return this.top;
+        }
+    }
+}
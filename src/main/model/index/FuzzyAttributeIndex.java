@@ -0,0 +1,163 @@
+package model.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// An attribute index of string values which can also find the keys closest
+// to a mistyped one. The keys are kept in a BK-tree under the edit distance
+// between their lower case forms, so a search only visits the subtrees whose
+// edge distance is within the tolerance of the distance to their parent.
+// Removed keys are left in the tree as dead nodes until they outnumber the
+// live ones, when the tree is rebuilt. The keys are also kept in a prefix trie
+// with the size of their buckets, to complete keys being typed.
+public class FuzzyAttributeIndex extends AttributeIndex<String> {
+
+    private Node root;
+    private final Map<String, Node> nodes;
+    private int deadCount;
+    private final CompletionTrie completions;
+
+    // EFFECTS: Creates a new empty fuzzy attribute index
+    public FuzzyAttributeIndex() {
+        this.nodes = new HashMap<>();
+        this.completions = new CompletionTrie();
+    }
+
+    // EFFECTS: Returns the number of typing errors tolerated in the given token,
+    //          which grows with its length.
+    public static int toleranceFor(String token) {
+        return token.length() <= 2 ? 0 : token.length() <= 5 ? 1 : 2;
+    }
+
+    // REQUIRES: maxDistance >= 0
+    // EFFECTS: Returns the keys present in this index at the smallest edit
+    //          distance from the token, ignoring case, if that distance is at
+    //          most maxDistance. Otherwise returns an empty list.
+    public List<String> closestKeys(String token, int maxDistance) {
+        List<String> closest = new ArrayList<>();
+        if (this.root != null) {
+            this.search(this.root, token.toLowerCase(), new int[]{maxDistance}, closest);
+        }
+        return closest;
+    }
+
+    // REQUIRES: n >= 0
+    // EFFECTS: Returns at most n, and at most CompletionTrie.MAX_COMPLETIONS,
+    //          keys starting with the prefix ignoring case, those with the
+    //          most ordinals first.
+    public List<String> complete(String prefix, int n) {
+        return this.completions.complete(prefix, n);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Records the new size of the key's bucket for completion
+    @Override
+    protected void bucketResized(String key, int cardinality) {
+        this.completions.set(key, cardinality);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the key to the tree, or revives it if it was removed
+    @Override
+    protected void keyAdded(String key) {
+        Node node = this.nodes.get(key);
+        if (node != null) {
+            node.alive = true;
+            this.deadCount -= 1;
+            return;
+        }
+        node = new Node(key);
+        this.nodes.put(key, node);
+        if (this.root == null) {
+            this.root = node;
+            return;
+        }
+        Node parent = this.root;
+        int distance = distance(parent.folded, node.folded);
+        while (parent.children.containsKey(distance)) {
+            parent = parent.children.get(distance);
+            distance = distance(parent.folded, node.folded);
+        }
+        parent.children.put(distance, node);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Marks the key as removed from the tree, rebuilding the tree
+    //          once removed keys outnumber present keys.
+    @Override
+    protected void keyRemoved(String key) {
+        Node node = this.nodes.get(key);
+        if (node == null) {
+            return;
+        }
+        node.alive = false;
+        this.deadCount += 1;
+        if (this.deadCount * 2 > this.nodes.size()) {
+            List<String> live = new ArrayList<>(this.keySet());
+            live.remove(key);
+            this.root = null;
+            this.nodes.clear();
+            this.deadCount = 0;
+            live.forEach(this::keyAdded);
+        }
+    }
+
+    // MODIFIES: closest, limit
+    // EFFECTS: Adds to closest the live keys under node at the smallest
+    //          distance from the folded token up to limit[0], lowering the
+    //          limit and forgetting keys found so far when a closer key is found.
+    private void search(Node node, String token, int[] limit, List<String> closest) {
+        int d = distance(node.folded, token);
+        if (node.alive && d <= limit[0]) {
+            if (d < limit[0]) {
+                limit[0] = d;
+                closest.clear();
+            }
+            closest.add(node.key);
+        }
+        for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+            if (Math.abs(child.getKey() - d) <= limit[0]) {
+                this.search(child.getValue(), token, limit, closest);
+            }
+        }
+    }
+
+    // EFFECTS: Returns the Levenshtein distance between a and b
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); ++j) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); ++i) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); ++j) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // A key in the BK-tree, with its children by their distance from it
+    private static final class Node {
+
+        private final String key;
+        private final String folded;
+        private final Map<Integer, Node> children;
+        private boolean alive;
+
+        // EFFECTS: Creates a live node for the given key with no children
+        Node(String key) {
+            this.key = key;
+            this.folded = key.toLowerCase();
+            this.children = new HashMap<>();
+            this.alive = true;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package model.index;
+
+import model.search.ClothingQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// A plan for evaluating a clothing query over the buckets of a clothing
+// index. Each node estimates how many clothing it matches from the bucket
+// sizes, and the operands of an AND are ordered by that estimate so only the
+// most selective is evaluated in full and the rest are probed for each of its
+// matches. An AND known to match nothing is not evaluated at all.
+final class QueryPlan {
+
+    private final ClothingQuery.Kind kind;
+    private final List<Bitmap> buckets;
+    private final List<QueryPlan> operands;
+    private final int estimate;
+    private final boolean empty;
+
+    // EFFECTS: Creates a plan node of the given kind reading the given buckets
+    //          or combining the given operands, in the given order.
+    private QueryPlan(ClothingQuery.Kind kind, List<Bitmap> buckets, List<QueryPlan> operands,
+                      int estimate, boolean empty) {
+        this.kind = kind;
+        this.buckets = buckets;
+        this.operands = operands;
+        this.estimate = estimate;
+        this.empty = empty;
+    }
+
+    // EFFECTS: Compiles a plan for the query over the buckets of the index as
+    //          they are now.
+    static QueryPlan compile(ClothingQuery query, ClothingIndex index) {
+        if (query.getKind() == ClothingQuery.Kind.TERM) {
+            List<Bitmap> buckets = index.bucketsFor(query.getTerm());
+            int estimate = 0;
+            for (Bitmap bucket : buckets) {
+                estimate += bucket.cardinality();
+            }
+            return new QueryPlan(query.getKind(), buckets, Collections.emptyList(),
+                    Math.min(estimate, index.size()), buckets.isEmpty());
+        }
+        List<QueryPlan> operands = new ArrayList<>();
+        for (ClothingQuery operand : query.getOperands()) {
+            operands.add(compile(operand, index));
+        }
+        if (query.getKind() == ClothingQuery.Kind.NOT) {
+            return new QueryPlan(query.getKind(), Collections.emptyList(), operands,
+                    index.size() - operands.get(0).estimate, index.size() == 0);
+        }
+        return query.getKind() == ClothingQuery.Kind.AND ? and(operands) : or(operands, index.size());
+    }
+
+    // EFFECTS: Returns an AND of the operands, most selective first
+    private static QueryPlan and(List<QueryPlan> operands) {
+        operands.sort(Comparator.comparingInt((QueryPlan p) -> p.empty ? -1 : p.estimate));
+        QueryPlan first = operands.get(0);
+        return new QueryPlan(ClothingQuery.Kind.AND, Collections.emptyList(), operands,
+                first.estimate, first.empty);
+    }
+
+    // EFFECTS: Returns an OR of the operands, with at most limit matches
+    private static QueryPlan or(List<QueryPlan> operands, int limit) {
+        int estimate = 0;
+        boolean empty = true;
+        for (QueryPlan operand : operands) {
+            estimate += operand.estimate;
+            empty &= operand.empty;
+        }
+        return new QueryPlan(ClothingQuery.Kind.OR, Collections.emptyList(), operands,
+                Math.min(estimate, limit), empty);
+    }
+
+    // EFFECTS: Returns the estimated number of clothing this plan matches
+    int getEstimate() {
+        return this.estimate;
+    }
+
+    // EFFECTS: Returns true if this plan is known to match no clothing
+    boolean isEmpty() {
+        return this.empty;
+    }
+
+    // EFFECTS: Returns the plans this combines, in the order they are evaluated
+    List<QueryPlan> getOperands() {
+        return Collections.unmodifiableList(this.operands);
+    }
+
+    // EFFECTS: Returns the ordinals of the indexed clothing this plan matches
+    Bitmap execute(ClothingIndex index) {
+        Bitmap result = new Bitmap();
+        if (this.empty) {
+            return result;
+        }
+        switch (this.kind) {
+            case TERM:
+                this.buckets.forEach(result::addAll);
+                return result;
+            case OR:
+                for (QueryPlan operand : this.operands) {
+                    if (!operand.empty) {
+                        result.addAll(operand.execute(index));
+                    }
+                }
+                return result;
+            case NOT:
+                return select(index.allOrdinals(), this::matches);
+            default:
+                return select(this.operands.get(0).execute(index), this::matchesAfterFirst);
+        }
+    }
+
+    // EFFECTS: Returns true if the clothing with the given ordinal matches this plan
+    private boolean matches(int ordinal) {
+        switch (this.kind) {
+            case TERM:
+                for (Bitmap bucket : this.buckets) {
+                    if (bucket.contains(ordinal)) {
+                        return true;
+                    }
+                }
+                return false;
+            case OR:
+                return this.operands.stream().anyMatch(p -> p.matches(ordinal));
+            case NOT:
+                return !this.operands.get(0).matches(ordinal);
+            default:
+                return this.operands.get(0).matches(ordinal) && this.matchesAfterFirst(ordinal);
+        }
+    }
+
+    // EFFECTS: Returns true if the clothing with the given ordinal matches
+    //          every operand after the first, probing them in order.
+    private boolean matchesAfterFirst(int ordinal) {
+        for (int i = 1; i < this.operands.size(); ++i) {
+            if (!this.operands.get(i).matches(ordinal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: Returns the candidate ordinals satisfying the predicate
+    private static Bitmap select(Bitmap candidates, IntPredicate predicate) {
+        Bitmap selected = new Bitmap();
+        for (int ordinal : candidates.toArray()) {
+            if (predicate.test(ordinal)) {
+                selected.add(ordinal);
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,133 @@
+package model.index;
+
+import model.Clothing;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Iterates over the clothing matching an address best match first. The
+// matches are read from one threshold search as the cursor is read, which
+// scores only as much clothing as it needs to rank the next match, so the
+// cost of reading through the matches a page at a time does not grow with
+// the number of pages. As the cursor only returns matches ranked below the
+// last clothing returned, a cursor can be resumed from its page token by a
+// later search of the same index. The cursor reads the index as it is read,
+// so it fails fast once the index changes, and so does its page token.
+public final class SearchCursor implements Iterator<Clothing> {
+
+    private static final long UNREAD = -2;
+
+    private final ClothingIndex index;
+    private final ThresholdSearch search;
+    private final int pageSize;
+    private final int expectedModCount;
+    private long bound;
+    private int remaining;
+    private int returnedCount;
+    private long peeked;
+
+    // REQUIRES: pageSize > 0, remaining >= 0, nothing has been read from the
+    //           search
+    // EFFECTS: Creates a cursor over the best matches of the search in the
+    //          index ranked below the given bound, returning at most
+    //          remaining clothing.
+    SearchCursor(ClothingIndex index, ThresholdSearch search, int pageSize, long bound, int remaining) {
+        this.index = index;
+        this.search = search;
+        this.pageSize = pageSize;
+        this.expectedModCount = index.getModCount();
+        this.bound = bound;
+        this.remaining = remaining;
+        this.peeked = UNREAD;
+        search.setBound(bound);
+    }
+
+    // REQUIRES: pageSize > 0, remaining >= 0, nothing has been read from the
+    //           search
+    // EFFECTS: Creates a cursor resuming where the cursor the page token was
+    //          taken from left off, or from the best match if the token is
+    //          null. Throws IllegalArgumentException if the token is malformed
+    //          or holds a negative bound or count, and
+    //          ConcurrentModificationException if the index changed since the
+    //          token was taken.
+    static SearchCursor resume(ClothingIndex index, ThresholdSearch search, int pageSize,
+                               String pageToken, int remaining) {
+        if (pageToken == null) {
+            return new SearchCursor(index, search, pageSize, Long.MAX_VALUE, remaining);
+        }
+        String[] parts = pageToken.split(":", -1);
+        long[] fields = new long[parts.length];
+        try {
+            for (int i = 0; i < parts.length; ++i) {
+                fields[i] = Long.parseLong(parts[i], 16);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed page token: " + pageToken);
+        }
+        if (parts.length != 3 || fields[0] < 0 || fields[1] < 0 || fields[1] > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed page token: " + pageToken);
+        } else if (fields[2] != index.getModCount()) {
+            throw new ConcurrentModificationException("Page token taken before the index changed.");
+        }
+        return new SearchCursor(index, search, pageSize, fields[0], (int) fields[1]);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns true if there is clothing left to return, ranking the
+    //          next match if it has not been ranked yet. Throws
+    //          ConcurrentModificationException if the index changed since this
+    //          cursor was created.
+    @Override
+    public boolean hasNext() {
+        if (this.index.getModCount() != this.expectedModCount) {
+            throw new ConcurrentModificationException("Index changed while it was being searched.");
+        } else if (this.remaining == 0) {
+            return false;
+        } else if (this.peeked == UNREAD) {
+            this.peeked = this.search.next();
+        }
+        return this.peeked >= 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the next best match, or throws NoSuchElementException
+    //          if there is none and ConcurrentModificationException if the
+    //          index changed since this cursor was created.
+    @Override
+    public Clothing next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        this.bound = this.peeked;
+        this.peeked = UNREAD;
+        this.remaining -= 1;
+        this.returnedCount += 1;
+        return this.index.clothingAt((int) this.bound);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the rest of the current page of pageSize matches, best
+    //          match first, or the whole next page if the current one has been
+    //          returned. The list is empty only if there are no matches left.
+    public List<Clothing> nextPage() {
+        List<Clothing> found = new ArrayList<>(this.pageSize);
+        while (this.hasNext()) {
+            found.add(this.next());
+            if (this.returnedCount % this.pageSize == 0) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    // EFFECTS: Returns a token from which a search of the same index by the
+    //          same address resumes after the clothing returned so far, as long
+    //          as the index is unchanged.
+    public String getPageToken() {
+        return Long.toHexString(this.bound) + ":" + Integer.toHexString(this.remaining)
+                + ":" + Integer.toHexString(this.expectedModCount);
+    }
+}
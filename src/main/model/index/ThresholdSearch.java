@@ -0,0 +1,218 @@
+package model.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Finds the clothing scoring best against weighted criteria with the
+// threshold algorithm, one match at a time. The bucket of each criterion is
+// read in turn, heaviest first, and from its highest ordinal down, and each
+// clothing is scored in full when first seen by probing the buckets not yet
+// read. As clothing unseen so far scores no more than the total weight of the
+// bucket being read and those after it, and ranks below the ordinal being
+// read on a tie, a scored match is returned as soon as it outranks that, and
+// reading carries on from the same place for the next match.
+final class ThresholdSearch {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<Bitmap> buckets;
+    private final int[] weights;
+    private final int[] rest;
+    private long bound;
+    private int bucket;
+    private int next;
+    private long[] pending;
+    private int pendingCount;
+    private int scoredCount;
+
+    // REQUIRES: buckets and weights have the same size, every weight >= 0
+    // EFFECTS: Creates a search over the given criteria buckets, where clothing
+    //          in a bucket gains the weight at the same index. Criteria with a
+    //          weight of 0 are ignored.
+    ThresholdSearch(List<Bitmap> buckets, List<Integer> weights) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < buckets.size(); ++i) {
+            if (weights.get(i) > 0) {
+                order.add(i);
+            }
+        }
+        order.sort((a, b) -> weights.get(a).equals(weights.get(b))
+                ? Integer.compare(buckets.get(b).cardinality(), buckets.get(a).cardinality())
+                : Integer.compare(weights.get(b), weights.get(a)));
+        this.buckets = new ArrayList<>(order.size());
+        this.weights = new int[order.size()];
+        this.rest = new int[order.size() + 1];
+        for (int i = order.size() - 1; i >= 0; --i) {
+            this.buckets.add(0, buckets.get(order.get(i)));
+            this.weights[i] = weights.get(order.get(i));
+            this.rest[i] = this.rest[i + 1] + this.weights[i];
+        }
+        this.pending = new long[INITIAL_CAPACITY];
+        this.bound = Long.MAX_VALUE;
+        this.bucket = -1;
+    }
+
+    // REQUIRES: no match has been read from this search yet
+    // MODIFIES: this
+    // EFFECTS: Skips every match whose score shifted 32 bits left and or'd
+    //          with its ordinal is not below the given bound.
+    void setBound(long bound) {
+        this.bound = bound;
+    }
+
+    // REQUIRES: k >= 0
+    // MODIFIES: this
+    // EFFECTS: Returns the ordinals of the k best scoring clothing with a score
+    //          above 0 not read from this search yet, ordered by ascending
+    //          score then ordinal. Of clothing tied at the lowest score kept,
+    //          those with the highest ordinals are kept.
+    int[] top(int k) {
+        long[] scored = this.next(k);
+        int[] top = new int[scored.length];
+        for (int i = 0; i < top.length; ++i) {
+            top[i] = (int) scored[scored.length - 1 - i];
+        }
+        return top;
+    }
+
+    // REQUIRES: k >= 0
+    // MODIFIES: this
+    // EFFECTS: Returns the next k matches as next() does, best first, or fewer
+    //          if there are no more.
+    long[] next(int k) {
+        long[] matches = new long[k];
+        int count = 0;
+        while (count < k && (matches[count] = this.next()) >= 0) {
+            count += 1;
+        }
+        return count == k ? matches : Arrays.copyOf(matches, count);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the best match not read from this search yet, as its
+    //          score shifted 32 bits left and or'd with its ordinal, or -1 if
+    //          there is none. Reads only as far as needed to know that no
+    //          clothing unseen so far outranks it.
+    long next() {
+        if (this.bucket < 0) {
+            this.startBucket(0);
+        }
+        while (this.pendingCount == 0 || this.pending[0] < this.ceiling()) {
+            if (this.bucket == this.buckets.size()) {
+                return this.pendingCount == 0 ? -1 : this.pollPending();
+            }
+            this.read();
+        }
+        return this.pollPending();
+    }
+
+    // EFFECTS: Returns the number of clothing scored by this search so far
+    int getScoredCount() {
+        return this.scoredCount;
+    }
+
+    // EFFECTS: Returns the greatest match any clothing not scored yet could
+    //          be, or -1 if every bucket has been read.
+    private long ceiling() {
+        if (this.bucket == this.buckets.size()) {
+            return -1;
+        }
+        return Math.min(this.bound - 1, (long) this.rest[this.bucket] << 32 | this.next);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Scores the clothing with the next ordinal of the bucket being
+    //          read if no bucket read before holds it and it may be below the
+    //          bound, and moves on to the ordinal below it.
+    private void read() {
+        int ordinal = this.next;
+        Bitmap current = this.buckets.get(this.bucket);
+        if (!this.inEarlierBucket(ordinal)) {
+            this.scoredCount += 1;
+            long scored = (long) this.score(ordinal) << 32 | ordinal;
+            if (scored < this.bound) {
+                this.addPending(scored);
+            }
+        }
+        this.next = current.previousValue(ordinal - 1);
+        if (this.next < 0) {
+            this.startBucket(this.bucket + 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Starts reading the first bucket from the given index on holding
+    //          clothing which may be below the bound, from its highest such
+    //          ordinal down, or stops reading if there is none.
+    private void startBucket(int from) {
+        for (this.bucket = from; this.bucket < this.buckets.size(); ++this.bucket) {
+            long limit = this.bound - ((long) this.weights[this.bucket] << 32);
+            this.next = limit <= 0 ? -1
+                    : this.buckets.get(this.bucket).previousValue((int) Math.min(limit - 1, Integer.MAX_VALUE));
+            if (this.next >= 0) {
+                return;
+            }
+        }
+    }
+
+    // EFFECTS: Returns true if a bucket read before the current one holds the
+    //          given ordinal
+    private boolean inEarlierBucket(int ordinal) {
+        for (int i = 0; i < this.bucket; ++i) {
+            if (this.buckets.get(i).contains(ordinal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // REQUIRES: the ordinal is in none of the buckets before the current one
+    // EFFECTS: Returns the score of the clothing with the given ordinal
+    private int score(int ordinal) {
+        int score = this.weights[this.bucket];
+        for (int i = this.bucket + 1; i < this.buckets.size(); ++i) {
+            if (this.buckets.get(i).contains(ordinal)) {
+                score += this.weights[i];
+            }
+        }
+        return score;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the scored match to the matches waiting to be returned,
+    //          which are kept as a binary heap with the best first.
+    private void addPending(long scored) {
+        if (this.pendingCount == this.pending.length) {
+            this.pending = Arrays.copyOf(this.pending, this.pending.length * 2);
+        }
+        int i = this.pendingCount++;
+        while (i > 0 && this.pending[(i - 1) / 2] < scored) {
+            this.pending[i] = this.pending[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        this.pending[i] = scored;
+    }
+
+    // REQUIRES: a match is waiting to be returned
+    // MODIFIES: this
+    // EFFECTS: Removes and returns the best match waiting to be returned
+    private long pollPending() {
+        long best = this.pending[0];
+        long last = this.pending[--this.pendingCount];
+        int i = 0;
+        while (2 * i + 1 < this.pendingCount) {
+            int child = 2 * i + 1;
+            if (child + 1 < this.pendingCount && this.pending[child + 1] > this.pending[child]) {
+                child += 1;
+            }
+            if (this.pending[child] <= last) {
+                break;
+            }
+            this.pending[i] = this.pending[child];
+            i = child;
+        }
+        this.pending[i] = last;
+        return best;
+    }
+}
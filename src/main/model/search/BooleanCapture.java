@@ -3,8 +3,10 @@ package model.search;
 // Captures a boolean value from a char input
 public class BooleanCapture {
 
-    private final KeyStringSearcher trueSearcher;
-    private final KeyStringSearcher falseSearcher;
+    private static final int TRUE = 0;
+    private static final int FALSE = 1;
+
+    private final MultiKeySearcher boolSearcher;
     private final WhitespaceConsumer whitespaceConsumer;
     private boolean hasFoundBool;
     private boolean boolCaptured;
@@ -17,8 +19,7 @@ public class BooleanCapture {
                           String falseKey) {
         this.hasFoundBool = false;
         this.whitespaceConsumer = new WhitespaceConsumer();
-        this.trueSearcher = new KeyStringSearcher(trueKey);
-        this.falseSearcher = new KeyStringSearcher(falseKey);
+        this.boolSearcher = new MultiKeySearcher(trueKey, falseKey);
     }
 
     // MODIFIES: this
@@ -35,19 +36,17 @@ public class BooleanCapture {
 
     // MODIFIES: this
     // EFFECTS: Parses the char input and checks if there has been a match
-    //          to a true/false key, returning true if this is the case.
+    //          to a true/false key, returning true if this is the case. Throws
+    //          UnexpectedBoolInputException if the input so far cannot be the
+    //          start of either key.
     public boolean foundBoolean(char input) throws UnexpectedBoolInputException {
         if (!this.hasFoundBool
                 && !this.whitespaceConsumer.shouldConsumeWhitespace(input)) {
-            MatchState foundTrue = this.trueSearcher.tryFindKey(input);
-            MatchState foundFalse = this.falseSearcher.tryFindKey(input);
-            if (foundTrue.wasMatch() || foundFalse.wasMatch()) {
+            MatchState found = this.boolSearcher.tryFindKey(input);
+            if (found.wasMatch()) {
                 hasFoundBool = true;
-                // Assume foundTrue and foundFalse are not both true
-                // due to constructor precondition.
-                this.boolCaptured = foundTrue.wasMatch();
-            } else if (foundTrue.matchError()
-                    && foundFalse.matchError()) {
+                this.boolCaptured = this.boolSearcher.getMatchedKey() == TRUE;
+            } else if (found.matchError()) {
                 throw new UnexpectedBoolInputException("Expected a boolean value of \""
                         + this.getTrueKey() + "\" or \""
                         + this.getFalseKey() + "\".");
@@ -58,12 +57,12 @@ public class BooleanCapture {
 
     // EFFECTS: Returns the true key
     public String getTrueKey() {
-        return this.trueSearcher.getKey();
+        return this.boolSearcher.getKey(TRUE);
     }
 
     // EFFECTS: Returns the false key
     public String getFalseKey() {
-        return this.falseSearcher.getKey();
+        return this.boolSearcher.getKey(FALSE);
     }
 
     // EFFECTS: Returns the boolean captured from the char input
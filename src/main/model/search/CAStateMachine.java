@@ -179,7 +179,7 @@ public class CAStateMachine
                     = this.equalityStrSearcher.tryFindKey(input);
             if (equalityTokenMatch.wasMatchRestarted()
                     || equalityTokenMatch.wasMatchBroken()) {
-                this.captured.append(this.equalityStrSearcher.getPartialMatch());
+                this.equalityStrSearcher.appendPartialMatch(this.captured);
             }
             if (equalityTokenMatch.wasMatch()) {
                 return this.nextStateFromCaptured();
@@ -17,6 +17,8 @@ public class CAStateMachineBuilder {
     public static final String COUNT_STR = "count";
     public static final String COLOR_STR = "color";
 
+    private static final ClothingAddressParser DEFAULT_PARSER = new CAStateMachineBuilder().compile();
+
     private String styleKey;
     private String brandKey;
     private String typeKey;
@@ -36,6 +38,12 @@ public class CAStateMachineBuilder {
         return new CAStateMachineBuilder().build();
     }
 
+    // EFFECTS: Returns the default ClothingAddressParser, which is compiled
+    //          once and shared, as a parser is immutable and thread safe.
+    public static ClothingAddressParser compileDefault() {
+        return DEFAULT_PARSER;
+    }
+
     // EFFECTS: Creates a new CAStateMachineBuilder with default
     //          parameters as seen in the constants of this class.
     public CAStateMachineBuilder() {
@@ -72,6 +80,26 @@ public class CAStateMachineBuilder {
                 colorKey);
     }
 
+    // REQUIRES: no key or symbol is empty, the list symbols cannot contain
+    //           each other and the boolean symbols cannot contain each other
+    // EFFECTS: Returns a new ClothingAddressParser compiled from the fields of
+    //          this class, which parses the same expressions as build().
+    public ClothingAddressParser compile() {
+        return new ClothingAddressParser(styleKey,
+                brandKey,
+                typeKey,
+                sizeKey,
+                isDirtyKey,
+                materialKey,
+                trueSymbol,
+                falseSymbol,
+                equalitySymbol,
+                listSeparatorSymbol,
+                listEndSymbol,
+                countKey,
+                colorKey);
+    }
+
     // MODIFIES: this
     // EFFECTS: Sets the style key to the given, and returns this.
     public CAStateMachineBuilder styleKey(String v) {
@@ -1,19 +1,28 @@
 package model.search;
 
+import model.ClothingAttribute;
 import model.Size;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 // Search parameters for an article of clothing.
 public final class ClothingAddress {
 
+    public static final int DEFAULT_WEIGHT = 1;
+    public static final int MAX_WEIGHT = 1000;
+
     private final List<String> brands;
     private final List<Size> sizes;
     private final List<String> styles;
     private final List<String> types;
     private final List<String> materials;
     private final List<String> colors;
+    private final int[] weights;
+    private final boolean frozen;
+    private boolean fuzzy;
     private Boolean isDirty;
     private int matchCount;
 
@@ -28,6 +37,26 @@ public final class ClothingAddress {
         this.colors = new ArrayList<>();
         this.isDirty = null;
         this.matchCount = Integer.MAX_VALUE;
+        this.weights = new int[ClothingAttribute.values().length];
+        Arrays.fill(this.weights, DEFAULT_WEIGHT);
+        this.fuzzy = false;
+        this.frozen = false;
+    }
+
+    // EFFECTS: Creates a frozen copy of the given clothing address, whose lists
+    //          cannot be modified and whose setters throw.
+    private ClothingAddress(ClothingAddress address) {
+        this.brands = Collections.unmodifiableList(new ArrayList<>(address.brands));
+        this.sizes = Collections.unmodifiableList(new ArrayList<>(address.sizes));
+        this.styles = Collections.unmodifiableList(new ArrayList<>(address.styles));
+        this.types = Collections.unmodifiableList(new ArrayList<>(address.types));
+        this.materials = Collections.unmodifiableList(new ArrayList<>(address.materials));
+        this.colors = Collections.unmodifiableList(new ArrayList<>(address.colors));
+        this.isDirty = address.isDirty;
+        this.matchCount = address.matchCount;
+        this.weights = address.weights.clone();
+        this.fuzzy = address.fuzzy;
+        this.frozen = true;
     }
 
     // MODIFIES: parser
@@ -55,10 +84,28 @@ public final class ClothingAddress {
     }
 
     // EFFECTS: Parses the given string expression into a clothing address with the
-    //          default CAStateMachine given by CAStateMachineBuilder.buildDefault().
+    //          shared default parser given by CAStateMachineBuilder.compileDefault().
+    //          Safe to call from any number of threads at once.
     public static ClothingAddress of(String expr) throws ClothingAddressParseException {
-        return of(CAStateMachineBuilder.buildDefault(),
-                expr);
+        return CAStateMachineBuilder.compileDefault().parse(expr);
+    }
+
+    // EFFECTS: Returns a frozen clothing address parsed from the given string
+    //          expression, shared with earlier calls for the same expression
+    //          through ClothingAddressCache.shared().
+    public static ClothingAddress ofCached(String expr) throws ClothingAddressParseException {
+        return ClothingAddressCache.shared().get(expr);
+    }
+
+    // EFFECTS: Returns this if it is frozen, otherwise a frozen copy of this
+    //          which can safely be shared.
+    public ClothingAddress freeze() {
+        return this.frozen ? this : new ClothingAddress(this);
+    }
+
+    // EFFECTS: Returns whether this address is frozen and cannot be modified
+    public boolean isFrozen() {
+        return this.frozen;
     }
 
     // EFFECTS: Returns whether it is searching for clean or dirty
@@ -70,8 +117,10 @@ public final class ClothingAddress {
 
     // MODIFIES: this
     // EFFECTS: Sets whether to search for dirty clothing, clean
-    //          or no preference.
+    //          or no preference. Throws UnsupportedOperationException if
+    //          this is frozen.
     public void setIsDirty(Boolean isDirty) {
+        this.checkNotFrozen();
         this.isDirty = isDirty;
     }
 
@@ -110,10 +159,64 @@ public final class ClothingAddress {
         return this.colors;
     }
 
+    // EFFECTS: Returns the number of criteria in this address, which is the
+    //          most criteria any piece of clothing can match.
+    public int getCriteriaCount() {
+        return this.brands.size()
+                + this.sizes.size()
+                + this.styles.size()
+                + this.types.size()
+                + this.materials.size()
+                + this.colors.size()
+                + (this.isDirty == null ? 0 : 1);
+    }
+
     // MODIFIES: this
-    // EFFECTS: Sets the match count for this address
+    // EFFECTS: Sets the match count for this address. Throws
+    //          UnsupportedOperationException if this is frozen.
     public void setMatchCount(int matchCount) {
+        this.checkNotFrozen();
         this.matchCount = matchCount;
     }
 
+    // EFFECTS: Returns the score clothing gains for each criterion on the
+    //          given attribute it meets.
+    public int getWeight(ClothingAttribute attribute) {
+        return this.weights[attribute.ordinal()];
+    }
+
+    // REQUIRES: 0 <= weight <= MAX_WEIGHT
+    // MODIFIES: this
+    // EFFECTS: Sets the score clothing gains for each criterion on the given
+    //          attribute it meets, so that criteria on some attributes can
+    //          count for more than others. A weight of 0 ignores the
+    //          attribute when scoring. Throws UnsupportedOperationException
+    //          if this is frozen.
+    public void setWeight(ClothingAttribute attribute, int weight) {
+        this.checkNotFrozen();
+        this.weights[attribute.ordinal()] = weight;
+    }
+
+    // EFFECTS: Returns whether string values absent from a closet are matched
+    //          to the closest values present, tolerating typing errors.
+    public boolean isFuzzy() {
+        return this.fuzzy;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets whether string values absent from a closet are matched to
+    //          the closest values present. Throws UnsupportedOperationException
+    //          if this is frozen.
+    public void setFuzzy(boolean fuzzy) {
+        this.checkNotFrozen();
+        this.fuzzy = fuzzy;
+    }
+
+    // EFFECTS: Throws UnsupportedOperationException if this is frozen
+    private void checkNotFrozen() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Clothing address is frozen.");
+        }
+    }
+
 }
@@ -0,0 +1,118 @@
+package model.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A bounded cache of frozen clothing addresses by the expression they were
+// parsed from, evicting the least recently used address when full. Parsing
+// happens outside the lock, so threads missing the cache parse in parallel.
+public class ClothingAddressCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final ClothingAddressCache SHARED
+            = new ClothingAddressCache(CAStateMachineBuilder.compileDefault(), DEFAULT_CAPACITY);
+
+    private final ClothingAddressParser parser;
+    private final int capacity;
+    private final Map<String, ClothingAddress> addresses;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    // REQUIRES: capacity > 0
+    // EFFECTS: Creates an empty cache holding at most capacity addresses
+    //          parsed by the given parser.
+    public ClothingAddressCache(ClothingAddressParser parser, int capacity) {
+        this.parser = parser;
+        this.capacity = capacity;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.addresses = new LinkedHashMap<String, ClothingAddress>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ClothingAddress> eldest) {
+                boolean evict = this.size() > ClothingAddressCache.this.capacity;
+                if (evict) {
+                    ClothingAddressCache.this.evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    // EFFECTS: Returns the cache shared by ClothingAddress.ofCached, using the
+    //          default parser.
+    public static ClothingAddressCache shared() {
+        return SHARED;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the frozen address parsed from the given expression,
+    //          parsing and caching it if it is not cached. Expressions which
+    //          fail to parse are not cached.
+    public ClothingAddress get(String expr) throws ClothingAddressParseException {
+        String key = normalize(expr);
+        ClothingAddress address;
+        synchronized (this.addresses) {
+            address = this.addresses.get(key);
+        }
+        if (address != null) {
+            this.hits.incrementAndGet();
+            return address;
+        }
+        this.misses.incrementAndGet();
+        address = this.parser.parse(key).freeze();
+        synchronized (this.addresses) {
+            this.addresses.put(key, address);
+        }
+        return address;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes every cached address, keeping the counters
+    public void clear() {
+        synchronized (this.addresses) {
+            this.addresses.clear();
+        }
+    }
+
+    // EFFECTS: Returns the number of addresses cached
+    public int size() {
+        synchronized (this.addresses) {
+            return this.addresses.size();
+        }
+    }
+
+    // EFFECTS: Returns the most addresses this caches at once
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    // EFFECTS: Returns the number of calls to get answered from the cache
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    // EFFECTS: Returns the number of calls to get which had to parse
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    // EFFECTS: Returns the number of addresses evicted to make room
+    public long getEvictionCount() {
+        return this.evictions.get();
+    }
+
+    // EFFECTS: Returns the expression without its leading whitespace, which
+    //          every parser skips, so expressions differing only there share
+    //          an entry.
+    static String normalize(String expr) {
+        int start = 0;
+        while (start < expr.length() && Character.isWhitespace(expr.charAt(start))) {
+            start += 1;
+        }
+        return expr.substring(start);
+    }
+}
@@ -5,16 +5,35 @@ package model.search;
 public abstract class ClothingAddressParseException extends Exception {
 
     private final CAStateMachine.State errorState;
+    private final String captured;
 
     // EFFECTS: Creates a new clothing address parse exception with the given message
     public ClothingAddressParseException(CAStateMachine.State errorState,
                                          String msg) {
         super(msg);
         this.errorState = errorState;
+        this.captured = null;
     }
 
-    // EFFECTS: Returns the state where the exception originated.
+    // EFFECTS: Creates a new clothing address parse exception with the given message,
+    //          where captured is the input processed by the parsing state where the
+    //          error occurred.
+    public ClothingAddressParseException(String captured,
+                                         String msg) {
+        super(msg);
+        this.errorState = null;
+        this.captured = captured;
+    }
+
+    // EFFECTS: Returns the state where the exception originated, or null if it
+    //          was thrown by a ClothingAddressParser.
     public CAStateMachine.State getErrorState() {
         return this.errorState;
     }
+
+    // EFFECTS: Returns the input processed by the parsing state where the
+    //          exception originated.
+    public String getCaptured() {
+        return this.errorState == null ? this.captured : this.errorState.getStateCaptured();
+    }
 }
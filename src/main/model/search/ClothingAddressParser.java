@@ -0,0 +1,522 @@
+package model.search;
+
+import model.ClothingAttribute;
+import model.Size;
+
+import java.util.Arrays;
+import java.util.List;
+
+// A clothing address parser compiled by a CAStateMachineBuilder. Its keys and
+// symbols are compiled into immutable transition tables, so an expression is
+// parsed by a loop over primitive state ids and indices into the expression
+// rather than by creating a state object for every transition. It accepts the
+// same expressions as a CAStateMachine built with the same keys and symbols.
+// A parser is never modified once compiled, and each parse keeps its state in
+// its own cursor, so one parser can be shared by any number of threads.
+public final class ClothingAddressParser {
+
+    private static final int KEY = 0;
+    private static final int LIST = 1;
+    private static final int BOOLEAN = 2;
+    private static final int INTEGER = 3;
+
+    private static final int STYLES = 0;
+    private static final int BRANDS = 1;
+    private static final int TYPES = 2;
+    private static final int SIZES = 3;
+    private static final int IS_DIRTY = 4;
+    private static final int MATERIALS = 5;
+    private static final int COUNT = 6;
+    private static final int COLORS = 7;
+    private static final ClothingAttribute[] FIELD_ATTRIBUTES = {ClothingAttribute.STYLE, ClothingAttribute.BRAND,
+            ClothingAttribute.TYPE, ClothingAttribute.SIZE, ClothingAttribute.DIRTY, ClothingAttribute.MATERIAL,
+            null, ClothingAttribute.COLOR};
+
+    private static final int LIST_END = 1;
+    private static final int TRUE = 0;
+
+    private static final String INTEGER_ERROR = "Expected an integer input.";
+
+    private final SymbolAutomaton keys;
+    private final SymbolAutomaton equality;
+    private final SymbolAutomaton listSymbols;
+    private final SymbolAutomaton booleanSymbols;
+    private final SymbolAutomaton integerEnd;
+    private final String listEndSymbol;
+    private final String booleanError;
+
+    // REQUIRES: no key or symbol is empty, the list symbols cannot contain
+    //           each other and the boolean symbols cannot contain each other
+    // EFFECTS: Compiles a parser for the given keys and symbols
+    ClothingAddressParser(String styleKey,
+                          String brandKey,
+                          String typeKey,
+                          String sizeKey,
+                          String isDirtyKey,
+                          String materialKey,
+                          String trueSymbol,
+                          String falseSymbol,
+                          String equalitySymbol,
+                          String listSeparatorSymbol,
+                          String listEndSymbol,
+                          String countKey,
+                          String colorKey) {
+        this.keys = SymbolAutomaton.of(styleKey, brandKey, typeKey, sizeKey,
+                isDirtyKey, materialKey, countKey, colorKey);
+        this.equality = SymbolAutomaton.of(equalitySymbol);
+        this.listSymbols = SymbolAutomaton.of(listSeparatorSymbol, listEndSymbol);
+        this.booleanSymbols = SymbolAutomaton.of(trueSymbol, falseSymbol);
+        this.integerEnd = SymbolAutomaton.of(listEndSymbol);
+        this.listEndSymbol = listEndSymbol;
+        this.booleanError = "Expected a boolean value of \"" + trueSymbol
+                + "\" or \"" + falseSymbol + "\".";
+    }
+
+    // EFFECTS: Parses the given expression into a new clothing address.
+    //          Throws a ClothingAddressParseException if the expression is
+    //          malformed, with the input of the parsing state where it failed.
+    public ClothingAddress parse(String expr) throws ClothingAddressParseException {
+        Cursor cursor = new Cursor(expr, null, null);
+        for (int i = 0; i < expr.length(); ++i) {
+            cursor.step(i);
+        }
+        return cursor.finish();
+    }
+
+    // EFFECTS: Returns a new cursor for parsing an expression which is fed to
+    //          it a piece at a time.
+    public Cursor newCursor() {
+        StringBuilder buffer = new StringBuilder();
+        return new Cursor(buffer, buffer, null);
+    }
+
+    // EFFECTS: Returns a new cursor for parsing an expression which is fed to
+    //          it a piece at a time, saving its state before each character
+    //          so it can be rewound to any earlier position.
+    public Cursor newCheckpointingCursor() {
+        StringBuilder buffer = new StringBuilder();
+        return new Cursor(buffer, buffer, new Checkpoints());
+    }
+
+    // EFFECTS: Returns the parsing mode for values of the given field
+    private static int modeOf(int field) {
+        switch (field) {
+            case IS_DIRTY:
+                return BOOLEAN;
+            case COUNT:
+                return INTEGER;
+            default:
+                return LIST;
+        }
+    }
+
+    // EFFECTS: Returns the first index from start up to end whose character
+    //          is not trimmed by String.trim, or end if there is none.
+    private static int trimStart(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start += 1;
+        }
+        return start;
+    }
+
+    // EFFECTS: Returns one past the last index from start up to end whose
+    //          character is not trimmed by String.trim, or start if there is none.
+    private static int trimEnd(CharSequence s, int start, int end) {
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end -= 1;
+        }
+        return end;
+    }
+
+    // The position of a single parse in an expression. All of the parse
+    // state is held in primitive fields, apart from the address being built.
+    // A cursor must only be used by one thread at a time.
+    public final class Cursor {
+
+        private final CharSequence expr;
+        private final StringBuilder buffer;
+        private final Checkpoints checkpoints;
+        private final ClothingAddress address;
+        private int mode;
+        private int field;
+        private int symbolState;
+        private int stateStart;
+        private int regionStart;
+        private long integer;
+        private boolean hasDigits;
+        private boolean enumMismatch;
+
+        // EFFECTS: Creates a cursor at the start of the given expression, which
+        //          is the buffer characters are fed into if it is not null,
+        //          saving its state into the given checkpoints if they are
+        //          not null.
+        private Cursor(CharSequence expr, StringBuilder buffer, Checkpoints checkpoints) {
+            this.expr = expr;
+            this.buffer = buffer;
+            this.checkpoints = checkpoints;
+            this.address = new ClothingAddress();
+            this.enterKey(0);
+        }
+
+        // REQUIRES: this was returned by newCursor or newCheckpointingCursor,
+        //           and has been rewound since feeding last threw if it did
+        // MODIFIES: this
+        // EFFECTS: Parses the given character as the next in the expression
+        public void feed(char c) throws ClothingAddressParseException {
+            if (this.checkpoints != null) {
+                this.checkpoints.save(this, this.buffer.length());
+            }
+            this.buffer.append(c);
+            this.step(this.buffer.length() - 1);
+        }
+
+        // REQUIRES: this was returned by newCursor or newCheckpointingCursor,
+        //           and has been rewound since feeding last threw if it did
+        // MODIFIES: this
+        // EFFECTS: Parses the given characters as the next in the expression
+        public void feed(CharSequence s) throws ClothingAddressParseException {
+            for (int i = 0; i < s.length(); ++i) {
+                this.feed(s.charAt(i));
+            }
+        }
+
+        // EFFECTS: Returns the number of characters parsed
+        public int getPosition() {
+            return this.buffer == null ? this.expr.length() : this.buffer.length();
+        }
+
+        // REQUIRES: this was returned by newCheckpointingCursor and
+        //           0 <= position <= getPosition()
+        // MODIFIES: this
+        // EFFECTS: Restores this to the state it was in when it had parsed the
+        //          given number of characters, forgetting those after them.
+        public void rewind(int position) {
+            if (position < this.buffer.length()) {
+                this.checkpoints.restore(this, position);
+                this.buffer.setLength(position);
+            }
+        }
+
+        // EFFECTS: Returns true if every key and value read has been completed,
+        //          so the next character read would start a new key.
+        public boolean isBetweenKeys() {
+            return this.mode == KEY && this.regionStart < 0;
+        }
+
+        // EFFECTS: Returns the attribute of the list whose items are being
+        //          read, or null if no list is being read.
+        public ClothingAttribute getOpenAttribute() {
+            return this.mode == LIST ? FIELD_ATTRIBUTES[this.field] : null;
+        }
+
+        // EFFECTS: Returns what has been read of the list item being read,
+        //          without leading whitespace, or an empty string if no list
+        //          is being read.
+        public String getOpenItem() {
+            if (this.mode != LIST || this.regionStart < 0) {
+                return "";
+            }
+            return this.substring(this.regionStart, this.getPosition());
+        }
+
+        // EFFECTS: Returns a frozen copy of the address built so far, holding
+        //          every list item and value completed before the position.
+        public ClothingAddress getAddress() {
+            return this.address.freeze();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Processes the character at index i, after consuming any
+        //          whitespace leading the current key, list item or value.
+        private void step(int i) throws ClothingAddressParseException {
+            char c = this.expr.charAt(i);
+            if (this.regionStart < 0) {
+                if (Character.isWhitespace(c)) {
+                    return;
+                }
+                this.regionStart = i;
+            }
+            if (this.mode == KEY) {
+                this.stepKey(c, i);
+            } else if (this.mode == LIST) {
+                this.stepList(c, i);
+            } else if (this.mode == BOOLEAN) {
+                this.stepBoolean(c, i);
+            } else {
+                this.stepInteger(c, i);
+            }
+        }
+
+        // EFFECTS: Returns the address parsed, or throws an
+        //          IncorrectEndStateException if the expression ended
+        //          part way through a key, list or boolean value. The address
+        //          returned must not be modified if this is still to be fed.
+        public ClothingAddress finish() throws ClothingAddressParseException {
+            String captured = this.substring(this.stateStart, this.expr.length());
+            String listEndDelimMissingMsg = "(is there a \"" + listEndSymbol + "\" present?)";
+            if (this.mode == LIST) {
+                throw new IncorrectEndStateException(captured, "Unfinished "
+                        + (this.field == SIZES ? "enum" : "string")
+                        + " list in expression! " + listEndDelimMissingMsg);
+            } else if (this.mode == BOOLEAN) {
+                throw new IncorrectEndStateException(captured, "Unfinished boolean value in expression!");
+            } else if (this.mode == KEY && this.regionStart >= 0) {
+                throw new IncorrectEndStateException(captured, "Incomplete key capture expression!");
+            }
+            return this.address;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Starts parsing a key from index i
+        private void enterKey(int i) {
+            this.enter(KEY, i);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Starts parsing the value of the given field from index i
+        private void enterValue(int field, int i) {
+            this.enter(modeOf(field), i);
+            this.field = field;
+            this.integer = 0;
+            this.hasDigits = false;
+            this.enumMismatch = false;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Switches to the given mode from index i
+        private void enter(int mode, int i) {
+            this.mode = mode;
+            this.symbolState = SymbolAutomaton.START;
+            this.stateStart = i;
+            this.regionStart = -1;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Reads c as part of a key, starting on its value once the
+        //          equality symbol is read.
+        private void stepKey(char c, int i) throws ClothingAddressParseException {
+            this.symbolState = equality.next(this.symbolState, c);
+            if (equality.matchAt(this.symbolState) == SymbolAutomaton.NO_MATCH) {
+                return;
+            }
+            int end = i + 1 - equality.lengthOf(0);
+            int keyStart = trimStart(this.expr, this.regionStart, end);
+            int keyEnd = trimEnd(this.expr, keyStart, end);
+            int key = keys.find(this.expr, keyStart, keyEnd, true);
+            if (key == SymbolAutomaton.NO_MATCH) {
+                throw new NoSuchKeyException(this.captured(i),
+                        this.substring(keyStart, keyEnd).toLowerCase());
+            }
+            this.enterValue(key, i + 1);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Reads c as part of a list, capturing an item at each list
+        //          separator and returning to keys at the list end.
+        private void stepList(char c, int i) throws ClothingAddressParseException {
+            this.symbolState = listSymbols.next(this.symbolState, c);
+            int symbol = listSymbols.matchAt(this.symbolState);
+            if (symbol == SymbolAutomaton.NO_MATCH) {
+                return;
+            }
+            this.captureItem(this.regionStart, i + 1 - listSymbols.lengthOf(symbol));
+            this.symbolState = SymbolAutomaton.START;
+            this.regionStart = -1;
+            if (symbol == LIST_END) {
+                if (this.enumMismatch) {
+                    throw new UnexpectedInputException(this.captured(i), "Enum value did not match!");
+                }
+                this.enterKey(i + 1);
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Adds the trimmed item from start up to end to the list of
+        //          the current field if it is not empty.
+        private void captureItem(int start, int end) {
+            int itemStart = trimStart(this.expr, start, end);
+            int itemEnd = trimEnd(this.expr, itemStart, end);
+            if (itemStart == itemEnd) {
+                return;
+            }
+            String item = this.substring(itemStart, itemEnd);
+            if (this.field == SIZES) {
+                Size size = EnumListCapture.stringToEnumLoose(Size.class, item);
+                this.enumMismatch |= size == null;
+                if (size != null) {
+                    this.address.getSizes().add(size);
+                    this.logChange(SIZES, 0);
+                }
+            } else {
+                this.stringList(this.field).add(item);
+                this.logChange(this.field, 0);
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Records a change to the given field of the address, which
+        //          held the given value before if it is not a list, so the
+        //          change can be undone by rewinding.
+        private void logChange(int field, int previous) {
+            if (this.checkpoints != null) {
+                this.checkpoints.logChange(field, previous);
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Undoes a change to the given field of the address, which
+        //          held the given value before if it is not a list.
+        private void undoChange(int field, int previous) {
+            if (field == IS_DIRTY) {
+                this.address.setIsDirty(previous < 0 ? null : previous == 1);
+            } else if (field == COUNT) {
+                this.address.setMatchCount(previous);
+            } else {
+                List<?> list = field == SIZES ? this.address.getSizes() : this.stringList(field);
+                list.remove(list.size() - 1);
+            }
+        }
+
+        // EFFECTS: Returns the list of strings of the address for the given field
+        private List<String> stringList(int field) {
+            switch (field) {
+                case STYLES:
+                    return this.address.getStyles();
+                case BRANDS:
+                    return this.address.getBrands();
+                case TYPES:
+                    return this.address.getTypes();
+                case MATERIALS:
+                    return this.address.getMaterials();
+                default:
+                    return this.address.getColors();
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Reads c as part of a boolean value, returning to keys once
+        //          a boolean symbol is read.
+        private void stepBoolean(char c, int i) throws ClothingAddressParseException {
+            int next = booleanSymbols.next(this.symbolState, c);
+            if (booleanSymbols.depthOf(next) != booleanSymbols.depthOf(this.symbolState) + 1) {
+                throw new UnexpectedInputException(this.captured(i), booleanError);
+            }
+            this.symbolState = next;
+            int symbol = booleanSymbols.matchAt(next);
+            if (symbol != SymbolAutomaton.NO_MATCH) {
+                Boolean isDirty = this.address.getIsDirty();
+                this.logChange(IS_DIRTY, isDirty == null ? -1 : isDirty ? 1 : 0);
+                this.address.setIsDirty(symbol == TRUE);
+                this.enterKey(i + 1);
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Reads c as part of an integer value, returning to keys once
+        //          the list end symbol is read.
+        private void stepInteger(char c, int i) throws ClothingAddressParseException {
+            int next = integerEnd.next(this.symbolState, c);
+            boolean extended = integerEnd.depthOf(next) == integerEnd.depthOf(this.symbolState) + 1;
+            this.symbolState = next;
+            if (integerEnd.matchAt(next) != SymbolAutomaton.NO_MATCH) {
+                if (!this.hasDigits) {
+                    throw new UnexpectedInputException(this.captured(i), INTEGER_ERROR);
+                }
+                this.logChange(COUNT, this.address.getMatchCount());
+                this.address.setMatchCount((int) this.integer);
+                this.enterKey(i + 1);
+            } else if (Character.isDigit(c)) {
+                this.integer = this.integer * 10 + Character.digit(c, 10);
+                this.hasDigits = true;
+                if (this.integer > Integer.MAX_VALUE) {
+                    throw new UnexpectedInputException(this.captured(i), INTEGER_ERROR);
+                }
+            } else if (!extended) {
+                throw new UnexpectedInputException(this.captured(i), INTEGER_ERROR);
+            }
+        }
+
+        // EFFECTS: Returns the input read in the current mode up to index i
+        private String captured(int i) {
+            return this.substring(this.stateStart, i + 1);
+        }
+
+        // EFFECTS: Returns the characters of the expression from start up to end
+        private String substring(int start, int end) {
+            return this.expr.subSequence(start, end).toString();
+        }
+    }
+
+    // The state a cursor was in before each character it read, held in
+    // parallel arrays so saving it creates no objects, along with a log of
+    // the changes made to its address so they can be undone.
+    private static final class Checkpoints {
+
+        private static final int STRIDE = 7;
+
+        private int[] states;
+        private long[] integers;
+        private int[] changedFields;
+        private int[] previousValues;
+        private int changeCount;
+
+        // EFFECTS: Creates empty checkpoints
+        Checkpoints() {
+            this.states = new int[16 * STRIDE];
+            this.integers = new long[16];
+            this.changedFields = new int[8];
+            this.previousValues = new int[8];
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Saves the state of the cursor as its state at the given position
+        void save(Cursor cursor, int position) {
+            if (position == this.integers.length) {
+                this.states = Arrays.copyOf(this.states, this.states.length * 2);
+                this.integers = Arrays.copyOf(this.integers, this.integers.length * 2);
+            }
+            int at = position * STRIDE;
+            this.states[at] = cursor.mode;
+            this.states[at + 1] = cursor.field;
+            this.states[at + 2] = cursor.symbolState;
+            this.states[at + 3] = cursor.stateStart;
+            this.states[at + 4] = cursor.regionStart;
+            this.states[at + 5] = this.changeCount;
+            this.states[at + 6] = (cursor.hasDigits ? 1 : 0) | (cursor.enumMismatch ? 2 : 0);
+            this.integers[position] = cursor.integer;
+        }
+
+        // REQUIRES: a state was saved at the given position
+        // MODIFIES: cursor
+        // EFFECTS: Restores the state of the cursor saved at the given position,
+        //          undoing every change to its address made since then.
+        void restore(Cursor cursor, int position) {
+            int at = position * STRIDE;
+            while (this.changeCount > this.states[at + 5]) {
+                this.changeCount -= 1;
+                cursor.undoChange(this.changedFields[this.changeCount], this.previousValues[this.changeCount]);
+            }
+            cursor.mode = this.states[at];
+            cursor.field = this.states[at + 1];
+            cursor.symbolState = this.states[at + 2];
+            cursor.stateStart = this.states[at + 3];
+            cursor.regionStart = this.states[at + 4];
+            cursor.hasDigits = (this.states[at + 6] & 1) != 0;
+            cursor.enumMismatch = (this.states[at + 6] & 2) != 0;
+            cursor.integer = this.integers[position];
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Records a change to the given field of a cursor's address,
+        //          which held the given value before if it is not a list.
+        void logChange(int field, int previous) {
+            if (this.changeCount == this.changedFields.length) {
+                this.changedFields = Arrays.copyOf(this.changedFields, this.changeCount * 2);
+                this.previousValues = Arrays.copyOf(this.previousValues, this.changeCount * 2);
+            }
+            this.changedFields[this.changeCount] = field;
+            this.previousValues[this.changeCount] = previous;
+            this.changeCount += 1;
+        }
+    }
+}
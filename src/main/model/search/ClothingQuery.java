@@ -0,0 +1,80 @@
+package model.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// An immutable boolean query over clothing attributes. A term matches the
+// clothing meeting at least one criterion of its address, and terms are
+// combined with AND, OR and NOT.
+public final class ClothingQuery {
+
+    // The operation at the root of a query
+    public enum Kind {
+        TERM,
+        AND,
+        OR,
+        NOT
+    }
+
+    private final Kind kind;
+    private final ClothingAddress term;
+    private final List<ClothingQuery> operands;
+
+    // EFFECTS: Creates a query of the given kind on the given term or operands
+    private ClothingQuery(Kind kind, ClothingAddress term, List<ClothingQuery> operands) {
+        this.kind = kind;
+        this.term = term;
+        this.operands = Collections.unmodifiableList(new ArrayList<>(operands));
+    }
+
+    // EFFECTS: Returns the query parsed from the given expression, in which
+    //          terms written as in a clothing address are combined with the
+    //          words AND, OR and NOT and grouped with parentheses. Terms next
+    //          to each other without a word between them are ANDed. Throws a
+    //          ClothingAddressParseException if the expression is malformed.
+    public static ClothingQuery parse(String expr) throws ClothingAddressParseException {
+        return new ClothingQueryParser(CAStateMachineBuilder.compileDefault(), expr).parse();
+    }
+
+    // REQUIRES: address has no match count set
+    // EFFECTS: Returns a query matching the clothing meeting at least one
+    //          criterion of a frozen copy of the given address.
+    public static ClothingQuery term(ClothingAddress address) {
+        return new ClothingQuery(Kind.TERM, address.freeze(), Collections.emptyList());
+    }
+
+    // REQUIRES: operands is not empty
+    // EFFECTS: Returns a query matching the clothing every operand matches
+    public static ClothingQuery and(ClothingQuery... operands) {
+        return new ClothingQuery(Kind.AND, null, Arrays.asList(operands));
+    }
+
+    // REQUIRES: operands is not empty
+    // EFFECTS: Returns a query matching the clothing any operand matches
+    public static ClothingQuery or(ClothingQuery... operands) {
+        return new ClothingQuery(Kind.OR, null, Arrays.asList(operands));
+    }
+
+    // EFFECTS: Returns a query matching the clothing the operand does not
+    public static ClothingQuery not(ClothingQuery operand) {
+        return new ClothingQuery(Kind.NOT, null, Collections.singletonList(operand));
+    }
+
+    // EFFECTS: Returns the operation at the root of this query
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    // EFFECTS: Returns the frozen address of this term, or null if this is
+    //          not a term.
+    public ClothingAddress getTerm() {
+        return this.term;
+    }
+
+    // EFFECTS: Returns the queries this combines, which is empty for a term
+    public List<ClothingQuery> getOperands() {
+        return this.operands;
+    }
+}
@@ -0,0 +1,147 @@
+package model.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A recursive descent parser of one clothing query expression. Each term is
+// read by a cursor of a clothing address parser until it has read one
+// complete key and value, so terms are written just as in an address.
+final class ClothingQueryParser {
+
+    private static final String AND_WORD = "and";
+    private static final String OR_WORD = "or";
+    private static final String NOT_WORD = "not";
+
+    private final ClothingAddressParser parser;
+    private final String expr;
+    private int position;
+
+    // EFFECTS: Creates a parser of the given expression, reading terms with
+    //          the given address parser.
+    ClothingQueryParser(ClothingAddressParser parser, String expr) {
+        this.parser = parser;
+        this.expr = expr;
+        this.position = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the query parsed from the whole expression, or throws a
+    //          ClothingAddressParseException if it is malformed.
+    ClothingQuery parse() throws ClothingAddressParseException {
+        ClothingQuery query = this.parseOr();
+        this.skipWhitespace();
+        if (this.position < this.expr.length()) {
+            throw new UnexpectedInputException(this.expr.substring(this.position),
+                    "Unmatched \")\" in query expression!");
+        }
+        return query;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Parses operands separated by OR
+    private ClothingQuery parseOr() throws ClothingAddressParseException {
+        List<ClothingQuery> operands = new ArrayList<>();
+        operands.add(this.parseAnd());
+        while (this.acceptWord(OR_WORD)) {
+            operands.add(this.parseAnd());
+        }
+        return operands.size() == 1
+                ? operands.get(0) : ClothingQuery.or(operands.toArray(new ClothingQuery[0]));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Parses operands separated by AND, or by nothing at all
+    private ClothingQuery parseAnd() throws ClothingAddressParseException {
+        List<ClothingQuery> operands = new ArrayList<>();
+        operands.add(this.parseNot());
+        while (this.acceptWord(AND_WORD) || this.atImplicitAnd()) {
+            operands.add(this.parseNot());
+        }
+        return operands.size() == 1
+                ? operands.get(0) : ClothingQuery.and(operands.toArray(new ClothingQuery[0]));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Parses an operand preceded by any number of NOTs
+    private ClothingQuery parseNot() throws ClothingAddressParseException {
+        if (this.acceptWord(NOT_WORD)) {
+            return ClothingQuery.not(this.parseNot());
+        }
+        return this.parsePrimary();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Parses a term or a parenthesized query
+    private ClothingQuery parsePrimary() throws ClothingAddressParseException {
+        this.skipWhitespace();
+        if (this.position == this.expr.length()) {
+            throw new IncorrectEndStateException(this.expr, "Query expression ended where a term was expected!");
+        }
+        char c = this.expr.charAt(this.position);
+        if (c == ')') {
+            throw new UnexpectedInputException(this.expr.substring(0, this.position + 1),
+                    "Expected a term before \")\" in query expression!");
+        } else if (c != '(') {
+            return this.parseTerm();
+        }
+        int start = this.position++;
+        ClothingQuery query = this.parseOr();
+        this.skipWhitespace();
+        if (this.position == this.expr.length()) {
+            throw new IncorrectEndStateException(this.expr.substring(start),
+                    "Unclosed \"(\" in query expression!");
+        }
+        this.position += 1;
+        return query;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Parses a single key and value as a term
+    private ClothingQuery parseTerm() throws ClothingAddressParseException {
+        int start = this.position;
+        ClothingAddressParser.Cursor cursor = this.parser.newCursor();
+        do {
+            cursor.feed(this.expr.charAt(this.position++));
+        } while (this.position < this.expr.length() && !cursor.isBetweenKeys());
+        ClothingAddress address = cursor.finish();
+        if (address.getCriteriaCount() == 0) {
+            throw new UnexpectedInputException(this.expr.substring(start, this.position),
+                    "Query terms must be attribute criteria, not a match count!");
+        }
+        return ClothingQuery.term(address);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns true and skips past the given word if it is the next
+    //          word, ignoring case and followed by whitespace or "(".
+    private boolean acceptWord(String word) {
+        this.skipWhitespace();
+        int end = this.position + word.length();
+        boolean found = this.expr.regionMatches(true, this.position, word, 0, word.length())
+                && (end == this.expr.length() || Character.isWhitespace(this.expr.charAt(end))
+                        || this.expr.charAt(end) == '(');
+        if (found) {
+            this.position = end;
+        }
+        return found;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns true if another operand follows without a word joining
+    //          it to the operand before.
+    private boolean atImplicitAnd() {
+        int start = this.position;
+        boolean isOr = this.acceptWord(OR_WORD);
+        this.position = start;
+        return !isOr && this.position < this.expr.length() && this.expr.charAt(this.position) != ')';
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Skips past any whitespace at the position
+    private void skipWhitespace() {
+        while (this.position < this.expr.length()
+                && Character.isWhitespace(this.expr.charAt(this.position))) {
+            this.position += 1;
+        }
+    }
+}
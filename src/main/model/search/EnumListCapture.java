@@ -1,7 +1,6 @@
 package model.search;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 // Processes char by char input into a list of enum constants of the given class
@@ -29,26 +28,19 @@ public class EnumListCapture<T extends Enum<T>> implements ListCapture<T> {
 
     // EFFECTS: Returns the matching enum name based on the given string,
     //          or null if it does not match any. Matches must be exact
-    //          to case and order.
+    //          to case and order. Uses a lookup table shared per enum class.
     public static <T extends Enum<T>> T stringToEnumStrict(Class<T> enumClass,
                                                            String in) {
-        return Arrays.stream(enumClass.getEnumConstants())
-                .filter(t -> t.name().equals(in))
-                .findFirst()
-                .orElse(null);
+        return EnumLookup.of(enumClass).strict(in);
     }
 
     // EFFECTS: Returns the matching enum name based on the given string,
     //          or null if it does not match any. Matches may have different
-    //          case and whitespace. The first match is returned.
+    //          case and whitespace. The first match is returned. Uses a
+    //          lookup table shared per enum class.
     public static <T extends Enum<T>> T stringToEnumLoose(Class<T> enumClass,
                                                           String in) {
-        String formatted = in.replaceAll("\\s+", "_");
-        return Arrays.stream(enumClass.getEnumConstants())
-                .filter(t -> t.name()
-                        .equalsIgnoreCase(formatted))
-                .findFirst()
-                .orElse(null);
+        return EnumLookup.of(enumClass).loose(in);
     }
 
     // MODIFIES: this
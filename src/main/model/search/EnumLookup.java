@@ -0,0 +1,78 @@
+package model.search;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Lookup tables from names to the constants of an enum class, built once per
+// class and shared. Strict lookups match names exactly, while loose lookups
+// ignore case and treat each run of whitespace as an underscore.
+final class EnumLookup<T extends Enum<T>> {
+
+    private static final ClassValue<EnumLookup<?>> LOOKUPS = new ClassValue<EnumLookup<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected EnumLookup<?> computeValue(Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    private final Map<String, T> strict;
+    private final Map<String, T> loose;
+
+    // EFFECTS: Builds the lookup tables for the given enum class. When several
+    //          constants have the same loose name, the first declared is kept.
+    private EnumLookup(Class<T> enumClass) {
+        Map<String, T> strict = new HashMap<>();
+        Map<String, T> loose = new HashMap<>();
+        for (T constant : enumClass.getEnumConstants()) {
+            strict.put(constant.name(), constant);
+            loose.putIfAbsent(looseKey(constant.name()), constant);
+        }
+        this.strict = Collections.unmodifiableMap(strict);
+        this.loose = Collections.unmodifiableMap(loose);
+    }
+
+    // REQUIRES: enumClass is an enum class
+    // EFFECTS: Returns the shared lookup tables for the given enum class
+    @SuppressWarnings("unchecked")
+    static <T extends Enum<T>> EnumLookup<T> of(Class<T> enumClass) {
+        return (EnumLookup<T>) LOOKUPS.get(enumClass);
+    }
+
+    // EFFECTS: Returns the constant named exactly in, or null if there is none
+    T strict(String in) {
+        return this.strict.get(in);
+    }
+
+    // EFFECTS: Returns the first constant whose name equals in ignoring case
+    //          once each run of whitespace in it is replaced by an underscore,
+    //          or null if there is none.
+    T loose(String in) {
+        return this.loose.get(looseKey(in));
+    }
+
+    // EFFECTS: Returns s with each run of whitespace replaced by an underscore
+    //          and each character folded the way String.equalsIgnoreCase
+    //          compares it.
+    private static String looseKey(String s) {
+        StringBuilder key = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            if (isSpace(c)) {
+                if (i == 0 || !isSpace(s.charAt(i - 1))) {
+                    key.append('_');
+                }
+            } else {
+                key.append(Character.toLowerCase(Character.toUpperCase(c)));
+            }
+        }
+        return key.toString();
+    }
+
+    // EFFECTS: Returns whether c is whitespace as matched by the regular
+    //          expression \s
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -7,4 +7,10 @@ public class IncorrectEndStateException extends ClothingAddressParseException {
     public IncorrectEndStateException(CAStateMachine.State errorState, String msg) {
         super(errorState, msg);
     }
+
+    // EFFECTS: Creates a new incorrect end state exception with the given message,
+    //          after the given input was captured.
+    public IncorrectEndStateException(String captured, String msg) {
+        super(captured, msg);
+    }
 }
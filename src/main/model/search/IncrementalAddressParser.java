@@ -0,0 +1,117 @@
+package model.search;
+
+import model.ClothingAttribute;
+
+// Parses a search expression as it is typed. The parse is checkpointed before
+// every character, so when the expression changes only the characters after
+// the longest prefix it shares with the expression last parsed are reparsed.
+public class IncrementalAddressParser {
+
+    private final ClothingAddressParser.Cursor cursor;
+    private String text;
+    private ClothingAddressParseException error;
+    private int errorPosition;
+    private int reparsedCount;
+
+    // EFFECTS: Creates an incremental parser of an empty expression using the
+    //          given parser.
+    public IncrementalAddressParser(ClothingAddressParser parser) {
+        this.cursor = parser.newCheckpointingCursor();
+        this.text = "";
+    }
+
+    // EFFECTS: Creates an incremental parser of an empty expression using the
+    //          default parser.
+    public IncrementalAddressParser() {
+        this(CAStateMachineBuilder.compileDefault());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Changes the expression parsed to the given text, rewinding the
+    //          parse to where the text first differs from the expression last
+    //          parsed and parsing on from there. Parsing stops at the first
+    //          character which is an error.
+    public void update(String text) {
+        int common = commonPrefixLength(this.text, text);
+        this.text = text;
+        this.reparsedCount = 0;
+        if (this.error != null && common > this.errorPosition) {
+            return;
+        }
+        this.error = null;
+        this.cursor.rewind(common);
+        for (int i = common; i < text.length(); ++i) {
+            this.reparsedCount += 1;
+            try {
+                this.cursor.feed(text.charAt(i));
+            } catch (ClothingAddressParseException e) {
+                this.error = e;
+                this.errorPosition = i;
+                this.cursor.rewind(i);
+                return;
+            }
+        }
+    }
+
+    // EFFECTS: Returns the expression last given to update
+    public String getText() {
+        return this.text;
+    }
+
+    // EFFECTS: Returns a frozen address holding every list item and value
+    //          completed in the expression before any error in it.
+    public ClothingAddress getPartialAddress() {
+        return this.cursor.getAddress();
+    }
+
+    // EFFECTS: Returns the attribute of the list whose items are being typed
+    //          at the end of the expression, or null if there is none or the
+    //          expression has an error.
+    public ClothingAttribute getOpenAttribute() {
+        return this.error == null ? this.cursor.getOpenAttribute() : null;
+    }
+
+    // EFFECTS: Returns what has been typed of the list item at the end of the
+    //          expression, or an empty string if there is none or the
+    //          expression has an error.
+    public String getOpenItem() {
+        return this.error == null ? this.cursor.getOpenItem() : "";
+    }
+
+    // EFFECTS: Returns a frozen address parsed from the whole expression, or
+    //          throws the first error in it, including an expression which
+    //          ends part way through a key or value.
+    public ClothingAddress getAddress() throws ClothingAddressParseException {
+        if (this.error != null) {
+            throw this.error;
+        }
+        return this.cursor.finish().freeze();
+    }
+
+    // EFFECTS: Returns the error the expression was stopped at, or null if
+    //          every character was parsed.
+    public ClothingAddressParseException getError() {
+        return this.error;
+    }
+
+    // EFFECTS: Returns the index of the character the expression was stopped
+    //          at, or -1 if every character was parsed.
+    public int getErrorPosition() {
+        return this.error == null ? -1 : this.errorPosition;
+    }
+
+    // EFFECTS: Returns the number of characters parsed by the last update
+    public int getReparsedCount() {
+        return this.reparsedCount;
+    }
+
+    // EFFECTS: Returns the number of leading characters a and b share
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i += 1;
+        }
+        return i;
+    }
+}
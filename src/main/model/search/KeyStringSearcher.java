@@ -5,7 +5,7 @@ package model.search;
 class KeyStringSearcher {
 
     private final String key;
-    private String partialMatchCaptured;
+    private int partialMatchLength;
     private int currentKeyIndex;
 
     // REQUIRES: Key cannot match a pattern deeply which needs to be
@@ -13,7 +13,6 @@ class KeyStringSearcher {
     // EFFECTS: Creates a new KeyStringSearcher to search for the given key.
     public KeyStringSearcher(String key) {
         this.key = key;
-        this.partialMatchCaptured = "";
         this.reset();
     }
 
@@ -22,7 +21,24 @@ class KeyStringSearcher {
     // EFFECTS: Returns the partial match cancelled this round, not including
     //          the character which caused the non-match.
     public String getPartialMatch() {
-        return this.partialMatchCaptured;
+        return this.key.substring(0, this.partialMatchLength);
+    }
+
+    // REQUIRES: Last result of tryFindKey indicated a partial, broken,
+    //           or restarted match.
+    // EFFECTS: Returns the length of the partial match given by getPartialMatch,
+    //          which is always a prefix of the key.
+    public int getPartialMatchLength() {
+        return this.partialMatchLength;
+    }
+
+    // REQUIRES: Last result of tryFindKey indicated a partial, broken,
+    //           or restarted match.
+    // MODIFIES: sb
+    // EFFECTS: Appends the partial match given by getPartialMatch to sb
+    //          without creating a string for it.
+    public void appendPartialMatch(StringBuilder sb) {
+        sb.append(this.key, 0, this.partialMatchLength);
     }
 
     // EFFECT: Returns the key this searcher is looking for
@@ -47,7 +63,7 @@ class KeyStringSearcher {
     //          empty string.
     public void reset() {
         this.currentKeyIndex = -1;
-        this.partialMatchCaptured = "";
+        this.partialMatchLength = 0;
     }
 
     // MODIFIES: this
@@ -56,6 +72,8 @@ class KeyStringSearcher {
     //          every call. If a partial match is broken, appends captured characters
     //          to the StringBuilder associated with this object and returns
     //          MatchState.PARTIAL_MATCH. Otherwise, returns MatchState.NO_MATCH.
+    //          Only the length of the partial match is recorded, so no
+    //          objects are created per character.
     public MatchState tryFindKey(char input) {
         // Is the current index long enough for the match?
         MatchState result = MatchState.NO_MATCH;
@@ -64,10 +82,10 @@ class KeyStringSearcher {
             if (input == key.charAt(currentKeyIndex + 1)) {
                 currentKeyIndex += 1;
                 result = MatchState.PARTIAL_MATCH;
-                this.partialMatchCaptured = key.substring(0, currentKeyIndex + 1);
+                this.partialMatchLength = currentKeyIndex + 1;
             } else if (currentKeyIndex != -1) { // Partial match no longer valid
                 result = MatchState.MATCH_BROKEN;
-                this.partialMatchCaptured = key.substring(0, currentKeyIndex + 1);
+                this.partialMatchLength = currentKeyIndex + 1;
                 // Check for start of match again
                 if (input == key.charAt(0)) {
                     currentKeyIndex = 0;
@@ -0,0 +1,77 @@
+package model.search;
+
+// Searches character input for several keys at once using one shared
+// SymbolAutomaton, so each character is a single table lookup however many
+// keys there are. Reports the same match states as a KeyStringSearcher does
+// for one key, treating the keys as one: a partial match of any key is a
+// partial match, and a broken match falls back to the longest partial match
+// of any key still possible rather than restarting naively.
+class MultiKeySearcher {
+
+    private final SymbolAutomaton automaton;
+    private final String[] keys;
+    private int state;
+    private int matchedKey;
+
+    // REQUIRES: no key is empty and no key contains another
+    // EFFECTS: Creates a new searcher for the given keys, each identified by
+    //          its index in the arguments.
+    MultiKeySearcher(String... keys) {
+        this.automaton = SymbolAutomaton.of(keys);
+        this.keys = keys.clone();
+        this.reset();
+    }
+
+    // EFFECTS: Returns the key with the given index
+    String getKey(int i) {
+        return this.keys[i];
+    }
+
+    // EFFECTS: Returns the index of the key matched, or -1 if none has been
+    //          matched since this was reset.
+    int getMatchedKey() {
+        return this.matchedKey;
+    }
+
+    // EFFECTS: Returns the number of characters read which are partially
+    //          matching a key.
+    int getPartialMatchLength() {
+        return this.automaton.depthOf(this.state);
+    }
+
+    // EFFECTS: Returns whether this is in the process of matching a key
+    boolean isMatching() {
+        return this.getPartialMatchLength() != 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Resets this to search for the keys from scratch
+    void reset() {
+        this.state = SymbolAutomaton.START;
+        this.matchedKey = SymbolAutomaton.NO_MATCH;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads the given input. Once a key is fully matched, returns
+    //          MatchState.MATCH every call until reset. Otherwise returns
+    //          PARTIAL_MATCH if the input extends a partial match, MATCH_BROKEN
+    //          if it ends one, MATCH_RESTARTED if it ends one but begins
+    //          another, and NO_MATCH if no key was or is partially matched.
+    MatchState tryFindKey(char input) {
+        if (this.matchedKey != SymbolAutomaton.NO_MATCH) {
+            return MatchState.MATCH;
+        }
+        int depth = this.automaton.depthOf(this.state);
+        this.state = this.automaton.next(this.state, input);
+        this.matchedKey = this.automaton.matchAt(this.state);
+        int nextDepth = this.automaton.depthOf(this.state);
+        if (this.matchedKey != SymbolAutomaton.NO_MATCH) {
+            return MatchState.MATCH;
+        } else if (nextDepth == depth + 1) {
+            return MatchState.PARTIAL_MATCH;
+        } else if (depth == 0) {
+            return MatchState.NO_MATCH;
+        }
+        return nextDepth == 0 ? MatchState.MATCH_BROKEN : MatchState.MATCH_RESTARTED;
+    }
+}
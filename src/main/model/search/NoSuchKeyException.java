@@ -8,4 +8,10 @@ public class NoSuchKeyException extends ClothingAddressParseException {
     public NoSuchKeyException(CAStateMachine.State errorState, String key) {
         super(errorState, "Key \"" + key + "\" does not exist and cannot be filtered for!");
     }
+
+    // EFFECTS: Creates a new exception with a message for the given key which
+    //          was not found, after the given input was captured.
+    public NoSuchKeyException(String captured, String key) {
+        super(captured, "Key \"" + key + "\" does not exist and cannot be filtered for!");
+    }
 }
@@ -0,0 +1,193 @@
+package model.search;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// An immutable automaton matching any of a set of symbols in a character
+// stream, compiled into a transition table with one row per state. Each state
+// stands for the longest suffix of the input read which is a prefix of some
+// symbol, so a stream is matched by one table lookup per character.
+final class SymbolAutomaton {
+
+    static final int START = 0;
+    static final int NO_MATCH = -1;
+
+    private static final int ASCII_LIMIT = 128;
+    private static final Map<List<String>, SymbolAutomaton> COMPILED = new ConcurrentHashMap<>();
+
+    private final char[] alphabet;
+    private final int[] asciiClasses;
+    private final int width;
+    private final int[] transitions;
+    private final int[] depths;
+    private final int[] matches;
+    private final int[] lengths;
+
+    // REQUIRES: every symbol is non-empty
+    // EFFECTS: Compiles an automaton matching the given symbols. A symbol is
+    //          identified by its index in the arguments.
+    SymbolAutomaton(String... symbols) {
+        this.alphabet = alphabetOf(symbols);
+        this.asciiClasses = new int[ASCII_LIMIT];
+        for (int i = 0; i < this.alphabet.length; ++i) {
+            if (this.alphabet[i] < ASCII_LIMIT) {
+                this.asciiClasses[this.alphabet[i]] = i + 1;
+            }
+        }
+        this.width = this.alphabet.length + 1;
+        int maxStates = 1;
+        this.lengths = new int[symbols.length];
+        for (int i = 0; i < symbols.length; ++i) {
+            this.lengths[i] = symbols[i].length();
+            maxStates += symbols[i].length();
+        }
+        this.depths = new int[maxStates];
+        this.matches = new int[maxStates];
+        Arrays.fill(this.matches, NO_MATCH);
+        this.transitions = new int[maxStates * this.width];
+        Arrays.fill(this.transitions, NO_MATCH);
+        int stateCount = this.buildTrie(symbols);
+        this.link(stateCount);
+    }
+
+    // REQUIRES: every symbol is non-empty
+    // EFFECTS: Returns an automaton matching the given symbols, shared with
+    //          every other caller asking for the same symbols in the same order.
+    static SymbolAutomaton of(String... symbols) {
+        List<String> key = Arrays.asList(symbols.clone());
+        SymbolAutomaton automaton = COMPILED.get(key);
+        if (automaton == null) {
+            automaton = COMPILED.computeIfAbsent(key, k -> new SymbolAutomaton(symbols));
+        }
+        return automaton;
+    }
+
+    // EFFECTS: Returns the state reached by reading c in the given state
+    int next(int state, char c) {
+        return this.transitions[state * this.width + this.classOf(c)];
+    }
+
+    // EFFECTS: Returns the index of the symbol which ends at the given state,
+    //          or NO_MATCH if no symbol does.
+    int matchAt(int state) {
+        return this.matches[state];
+    }
+
+    // EFFECTS: Returns the number of characters of a symbol partially matched
+    //          in the given state.
+    int depthOf(int state) {
+        return this.depths[state];
+    }
+
+    // EFFECTS: Returns the length of the symbol with the given index
+    int lengthOf(int symbol) {
+        return this.lengths[symbol];
+    }
+
+    // EFFECTS: Returns the index of the symbol equal to the characters of s
+    //          from start up to end, or NO_MATCH if there is none. If lowerCase
+    //          is true, each character is converted to lower case first.
+    int find(CharSequence s, int start, int end, boolean lowerCase) {
+        int state = START;
+        for (int i = start; i < end; ++i) {
+            char c = lowerCase ? Character.toLowerCase(s.charAt(i)) : s.charAt(i);
+            int next = this.next(state, c);
+            if (this.depths[next] != this.depths[state] + 1) {
+                return NO_MATCH;
+            }
+            state = next;
+        }
+        int symbol = this.matches[state];
+        return symbol != NO_MATCH && this.lengths[symbol] == end - start ? symbol : NO_MATCH;
+    }
+
+    // EFFECTS: Returns the column of the transition table for c
+    private int classOf(char c) {
+        if (c < ASCII_LIMIT) {
+            return this.asciiClasses[c];
+        }
+        return Math.max(Arrays.binarySearch(this.alphabet, c) + 1, 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds a path of states for each symbol from the start state and
+    //          returns the number of states added.
+    private int buildTrie(String[] symbols) {
+        int stateCount = 1;
+        for (int i = 0; i < symbols.length; ++i) {
+            int state = START;
+            for (int j = 0; j < symbols[i].length(); ++j) {
+                int cell = state * this.width + this.classOf(symbols[i].charAt(j));
+                if (this.transitions[cell] == NO_MATCH) {
+                    this.transitions[cell] = stateCount;
+                    this.depths[stateCount] = j + 1;
+                    stateCount += 1;
+                }
+                state = this.transitions[cell];
+            }
+            this.matches[state] = i;
+        }
+        return stateCount;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Visits the states breadth first, pointing every missing
+    //          transition at the transition of the state's failure state and
+    //          letting each state match what its failure state matches.
+    private void link(int stateCount) {
+        int[] failures = new int[stateCount];
+        Deque<Integer> queue = this.linkStart();
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            if (this.matches[state] == NO_MATCH) {
+                this.matches[state] = this.matches[failures[state]];
+            }
+            for (int c = 0; c < this.width; ++c) {
+                int cell = state * this.width + c;
+                int fallback = this.transitions[failures[state] * this.width + c];
+                if (this.transitions[cell] == NO_MATCH) {
+                    this.transitions[cell] = fallback;
+                } else {
+                    failures[this.transitions[cell]] = fallback;
+                    queue.add(this.transitions[cell]);
+                }
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Points every missing transition from the start state back at it
+    //          and returns a queue of the states one character from the start.
+    private Deque<Integer> linkStart() {
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < this.width; ++c) {
+            if (this.transitions[c] == NO_MATCH) {
+                this.transitions[c] = START;
+            } else {
+                queue.add(this.transitions[c]);
+            }
+        }
+        return queue;
+    }
+
+    // EFFECTS: Returns the distinct characters of the symbols in order
+    private static char[] alphabetOf(String[] symbols) {
+        StringBuilder chars = new StringBuilder();
+        for (String symbol : symbols) {
+            chars.append(symbol);
+        }
+        char[] sorted = chars.toString().toCharArray();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; ++i) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+}
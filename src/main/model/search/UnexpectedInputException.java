@@ -7,4 +7,10 @@ public class UnexpectedInputException extends ClothingAddressParseException {
     public UnexpectedInputException(CAStateMachine.State errorState, String msg) {
         super(errorState, msg);
     }
+
+    // EFFECTS: Creates a new unexpected input exception with the given
+    //          message, after the given input was captured.
+    public UnexpectedInputException(String captured, String msg) {
+        super(captured, msg);
+    }
 }
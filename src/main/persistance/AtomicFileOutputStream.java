@@ -0,0 +1,103 @@
+package persistance;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// A buffered output stream to a temporary file beside a destination file.
+// Committing it forces the temporary file to the storage device, moves it
+// over the destination and then forces the directory holding them, so once
+// commit returns the new contents survive a crash, and until then the old
+// contents of the destination are untouched.
+final class AtomicFileOutputStream extends OutputStream {
+
+    private final Path tempPath;
+    private final Path dstPath;
+    private final FileChannel channel;
+    private final OutputStream out;
+    private boolean closed;
+
+    // EFFECTS: Creates a stream writing to a new temporary file beside the
+    //          given destination.
+    private AtomicFileOutputStream(Path tempPath, Path dstPath) throws IOException {
+        this.tempPath = tempPath;
+        this.dstPath = dstPath;
+        this.channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.out = new BufferedOutputStream(Channels.newOutputStream(this.channel));
+    }
+
+    // EFFECTS: Returns a stream which replaces the file at the given path with
+    //          what is written to it once committed.
+    static AtomicFileOutputStream open(String path) throws IOException {
+        Path dst = Paths.get(path).toAbsolutePath();
+        return new AtomicFileOutputStream(dst.resolveSibling(dst.getFileName() + ".tmp"), dst);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the byte to the temporary file
+    @Override
+    public void write(int b) throws IOException {
+        this.out.write(b);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes len bytes of the array from off to the temporary file
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        this.out.write(b, off, len);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Flushes buffered bytes to the temporary file
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Forces everything written to the storage device, closes the
+    //          temporary file, moves it over the destination and forces the
+    //          directory entry of the move.
+    void commit() throws IOException {
+        this.out.flush();
+        this.channel.force(true);
+        this.close();
+        Files.move(this.tempPath, this.dstPath,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(this.dstPath.getParent());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Closes the temporary file if it is open, leaving the
+    //          destination untouched unless this was committed.
+    @Override
+    public void close() throws IOException {
+        if (!this.closed) {
+            this.closed = true;
+            this.out.close();
+        }
+    }
+
+    // EFFECTS: Forces the entries of the given directory to the storage
+    //          device. Does nothing on platforms where directories cannot be
+    //          opened, which make renames durable without it.
+    private static void forceDirectory(Path dir) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dir, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (FileChannel d = channel) {
+            d.force(true);
+        }
+    }
+}
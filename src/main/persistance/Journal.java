@@ -0,0 +1,198 @@
+package persistance;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// An append-only log of records in a file. Each record is framed by its
+// length and checksum, so a record torn by a crash while it was being
+// appended is detected and dropped along with everything after it.
+public class Journal implements Closeable {
+
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private long end;
+    private int recordCount;
+
+    // EFFECTS: Creates a journal appending to the given channel at end, which
+    //          holds the given number of intact records before it.
+    private Journal(FileChannel channel, long end, int recordCount) throws IOException {
+        this.channel = channel;
+        this.end = end;
+        this.recordCount = recordCount;
+        channel.position(end);
+    }
+
+    // EFFECTS: Opens the journal at the given path for appending, creating it
+    //          if it does not exist and truncating any torn record at its end.
+    public static Journal open(String path) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            List<byte[]> records = new ArrayList<>();
+            long end = readRecords(channel, records);
+            channel.truncate(end);
+            return new Journal(channel, end, records.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // EFFECTS: Opens the journal at the given path for appending without
+    //          reading its records, if it still ends where a journal holding
+    //          the given number of records was left ending when last closed.
+    //          Otherwise the journal was changed since, and is opened as by
+    //          open(path).
+    public static Journal open(String path, long end, int recordCount) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == end) {
+                return new Journal(channel, end, recordCount);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return open(path);
+    }
+
+    // EFFECTS: Replaces the journal at the given path with one holding only the
+    //          given records, and opens it for appending. The new journal is
+    //          written beside the old one and forced to the storage device
+    //          before it is moved over it, so a crash leaves either journal
+    //          whole.
+    public static Journal create(String path, List<byte[]> records) throws IOException {
+        long end = 0;
+        try (AtomicFileOutputStream out = AtomicFileOutputStream.open(path)) {
+            for (byte[] record : records) {
+                ByteBuffer frame = frame(record);
+                out.write(frame.array(), 0, frame.limit());
+                end += frame.limit();
+            }
+            out.commit();
+        }
+        return open(path, end, records.size());
+    }
+
+    // EFFECTS: Returns every intact record in the journal at the given path in
+    //          the order they were appended, stopping at the first torn record.
+    //          Returns no records if there is no journal at the path.
+    public static List<byte[]> read(String path) throws IOException {
+        Path p = Paths.get(path);
+        List<byte[]> records = new ArrayList<>();
+        if (!Files.exists(p)) {
+            return records;
+        }
+        try (FileChannel channel = FileChannel.open(p, StandardOpenOption.READ)) {
+            readRecords(channel, records);
+        }
+        return records;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Appends the given record to the end of the journal
+    public void append(byte[] record) throws IOException {
+        ByteBuffer frame = frame(record);
+        while (frame.hasRemaining()) {
+            this.channel.write(frame);
+        }
+        this.end += FRAME_HEADER_SIZE + record.length;
+        this.recordCount += 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Forces every appended record to the storage device
+    public void sync() throws IOException {
+        this.channel.force(false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes every record from the journal
+    public void clear() throws IOException {
+        this.channel.truncate(0);
+        this.channel.position(0);
+        this.channel.force(false);
+        this.end = 0;
+        this.recordCount = 0;
+    }
+
+    // EFFECTS: Returns the number of records in the journal
+    public int getRecordCount() {
+        return this.recordCount;
+    }
+
+    // EFFECTS: Returns the position just after the last record in the journal
+    public long getEnd() {
+        return this.end;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Closes the journal file
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    // EFFECTS: Returns the given record framed by its length and checksum,
+    //          ready to be read from the start.
+    private static ByteBuffer frame(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + record.length);
+        frame.putInt(record.length);
+        frame.putInt((int) crc.getValue());
+        frame.put(record);
+        frame.flip();
+        return frame;
+    }
+
+    // MODIFIES: channel, records
+    // EFFECTS: Reads intact records from the start of the channel into records
+    //          and returns the position just after the last of them.
+    private static long readRecords(FileChannel channel, List<byte[]> records) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        while (size - position >= FRAME_HEADER_SIZE) {
+            header.clear();
+            readFully(channel, header, position);
+            int length = header.getInt(0);
+            if (length < 0 || length > size - position - FRAME_HEADER_SIZE) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(channel, record, position + FRAME_HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(record.array());
+            if ((int) crc.getValue() != header.getInt(4)) {
+                break;
+            }
+            records.add(record.array());
+            position += FRAME_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: Fills the buffer with bytes from the channel at the position
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new SnapshotFormatException("Unexpected end of journal.");
+            }
+        }
+    }
+}
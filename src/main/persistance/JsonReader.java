@@ -2,7 +2,10 @@ package persistance;
 
 import org.json.JSONObject;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -29,4 +32,11 @@ public class JsonReader {
         return new JSONObject(fileData);
     }
 
+    // EFFECTS: Opens the file at srcPath for reading one JSON token at a time
+    public JsonStreamReader openStream() throws IOException {
+        return new JsonStreamReader(new InputStreamReader(
+                new BufferedInputStream(Files.newInputStream(Paths.get(this.srcPath))),
+                StandardCharsets.UTF_8));
+    }
+
 }
@@ -0,0 +1,390 @@
+package persistance;
+
+import org.json.JSONException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Reads a JSON document one token at a time from a character stream, without
+// building a tree of the document in memory.
+public class JsonStreamReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer;
+    private final StringBuilder scratch;
+    private int pos;
+    private int limit;
+
+    private boolean[] inObject;
+    private int[] elementCounts;
+    private int depth;
+    private boolean nameRead;
+    private boolean valuePrepared;
+
+    // EFFECTS: Creates a new stream reader reading JSON from the given reader
+    public JsonStreamReader(Reader in) {
+        this.in = in;
+        this.buffer = new char[BUFFER_SIZE];
+        this.scratch = new StringBuilder();
+        this.inObject = new boolean[8];
+        this.elementCounts = new int[8];
+        this.depth = 0;
+        this.nameRead = false;
+        this.valuePrepared = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the start of an object
+    public void beginObject() throws IOException {
+        this.beforeValue();
+        this.expect('{');
+        this.push(true);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the end of the current object
+    public void endObject() throws IOException {
+        this.expect('}');
+        this.pop();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the start of an array
+    public void beginArray() throws IOException {
+        this.beforeValue();
+        this.expect('[');
+        this.push(false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the end of the current array
+    public void endArray() throws IOException {
+        this.expect(']');
+        this.pop();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns true if the current object or array has another element
+    public boolean hasNext() throws IOException {
+        int c = this.peekNonWhitespace();
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes and returns the next property name in the current object
+    public String nextName() throws IOException {
+        if (this.depth == 0 || !this.inObject[this.depth - 1] || this.nameRead) {
+            throw this.syntaxError("Expected a value, not a name");
+        }
+        this.beforeElement();
+        String name = this.readString();
+        this.expect(':');
+        this.nameRead = true;
+        return name;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes and returns the next string value
+    public String nextString() throws IOException {
+        this.beforeValue();
+        return this.readString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes and returns the next boolean value
+    public boolean nextBoolean() throws IOException {
+        this.beforeValue();
+        String literal = this.readLiteral();
+        if (literal.equals("true")) {
+            return true;
+        } else if (literal.equals("false")) {
+            return false;
+        }
+        throw this.syntaxError("Expected a boolean but was " + literal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes and returns the next integer value
+    public int nextInt() throws IOException {
+        long value = this.nextLong();
+        if (value != (int) value) {
+            throw this.syntaxError("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes and returns the next long value
+    public long nextLong() throws IOException {
+        this.beforeValue();
+        String literal = this.readLiteral();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            throw this.syntaxError("Expected a number but was " + literal);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes an array, reading each element with the given reader,
+    //          and returns the elements read in a mutable list.
+    public <T> List<T> nextArray(ValueReader<T> reader) throws IOException {
+        List<T> values = new ArrayList<>();
+        this.beginArray();
+        while (this.hasNext()) {
+            values.add(reader.read(this));
+        }
+        this.endArray();
+        return values;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes an array of integers and returns them in order
+    public int[] nextIntArray() throws IOException {
+        int[] values = new int[8];
+        int count = 0;
+        this.beginArray();
+        while (this.hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = this.nextInt();
+        }
+        this.endArray();
+        return Arrays.copyOf(values, count);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the next value, including every value nested in it
+    public void skipValue() throws IOException {
+        this.beforeValue();
+        this.valuePrepared = true;
+        int c = this.peekNonWhitespace();
+        if (c == '{') {
+            this.beginObject();
+            while (this.hasNext()) {
+                this.nextName();
+                this.skipValue();
+            }
+            this.endObject();
+        } else if (c == '[') {
+            this.beginArray();
+            while (this.hasNext()) {
+                this.skipValue();
+            }
+            this.endArray();
+        } else if (c == '"') {
+            this.nextString();
+        } else {
+            this.beforeValue();
+            this.readLiteral();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Closes the underlying reader
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the separator before the next value if it is an element
+    //          of an array, or checks a name was read if it is in an object.
+    //          Does nothing if this was already done for the upcoming value.
+    private void beforeValue() throws IOException {
+        if (this.valuePrepared) {
+            this.valuePrepared = false;
+            return;
+        }
+        if (this.depth == 0) {
+            return;
+        }
+        if (this.inObject[this.depth - 1]) {
+            if (!this.nameRead) {
+                throw this.syntaxError("Expected a name before the value");
+            }
+            this.nameRead = false;
+        } else {
+            this.beforeElement();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes a comma if the current container already has elements,
+    //          and counts the element about to be read.
+    private void beforeElement() throws IOException {
+        if (this.elementCounts[this.depth - 1] > 0) {
+            this.expect(',');
+        }
+        this.elementCounts[this.depth - 1] += 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Enters a new object or array
+    private void push(boolean object) {
+        if (this.depth == this.inObject.length) {
+            this.inObject = Arrays.copyOf(this.inObject, this.depth * 2);
+            this.elementCounts = Arrays.copyOf(this.elementCounts, this.depth * 2);
+        }
+        this.inObject[this.depth] = object;
+        this.elementCounts[this.depth] = 0;
+        this.depth += 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Leaves the current object or array
+    private void pop() {
+        this.depth -= 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the next non-whitespace character, which must be the
+    //          one given.
+    private void expect(char expected) throws IOException {
+        int c = this.peekNonWhitespace();
+        if (c != expected) {
+            throw this.syntaxError("Expected '" + expected + "' but was "
+                    + (c == -1 ? "end of input" : "'" + (char) c + "'"));
+        }
+        this.pos += 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes a quoted string, resolving escape sequences
+    private String readString() throws IOException {
+        this.expect('"');
+        this.scratch.setLength(0);
+        while (true) {
+            int c = this.read();
+            if (c == '"') {
+                return this.scratch.toString();
+            } else if (c == '\\') {
+                this.scratch.append(this.readEscape());
+            } else if (c == -1) {
+                throw this.syntaxError("Unterminated string");
+            } else {
+                this.scratch.append((char) c);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes the remainder of an escape sequence and returns the
+    //          character it stands for.
+    private char readEscape() throws IOException {
+        int c = this.read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            case 'u':
+                return this.readUnicodeEscape();
+            case -1:
+                throw this.syntaxError("Unterminated escape sequence");
+            default:
+                return (char) c;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes four hex digits and returns the character they encode
+    private char readUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; ++i) {
+            int digit = Character.digit(this.read(), 16);
+            if (digit < 0) {
+                throw this.syntaxError("Malformed unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes an unquoted literal such as a number, true or null
+    private String readLiteral() throws IOException {
+        this.peekNonWhitespace();
+        this.scratch.setLength(0);
+        while (true) {
+            int c = this.peek();
+            if (c == -1 || c == ',' || c == '}' || c == ']' || c == ':'
+                    || Character.isWhitespace(c)) {
+                break;
+            }
+            this.scratch.append((char) c);
+            this.pos += 1;
+        }
+        if (this.scratch.length() == 0) {
+            throw this.syntaxError("Expected a value");
+        }
+        return this.scratch.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Skips whitespace and returns the next character without
+    //          consuming it, or -1 at the end of input.
+    private int peekNonWhitespace() throws IOException {
+        int c = this.peek();
+        while (c != -1 && Character.isWhitespace(c)) {
+            this.pos += 1;
+            c = this.peek();
+        }
+        return c;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the next character without consuming it, or -1 at the
+    //          end of input.
+    private int peek() throws IOException {
+        if (this.pos == this.limit && !this.fill()) {
+            return -1;
+        }
+        return this.buffer[this.pos];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Consumes and returns the next character, or -1 at the end of input.
+    private int read() throws IOException {
+        int c = this.peek();
+        if (c != -1) {
+            this.pos += 1;
+        }
+        return c;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Refills the buffer, returning false at the end of input
+    private boolean fill() throws IOException {
+        int read = this.in.read(this.buffer, 0, this.buffer.length);
+        this.pos = 0;
+        this.limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    // Reads a single value from a JSON stream
+    @FunctionalInterface
+    public interface ValueReader<T> {
+        // MODIFIES: jsr
+        // EFFECTS: Consumes and returns the next value from the stream
+        T read(JsonStreamReader jsr) throws IOException;
+    }
+
+    // EFFECTS: Returns an exception for malformed input with the given message
+    private JSONException syntaxError(String msg) {
+        return new JSONException(msg + " at depth " + this.depth + ".");
+    }
+}
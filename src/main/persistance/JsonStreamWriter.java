@@ -0,0 +1,245 @@
+package persistance;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+// Writes a JSON document one token at a time to a character stream, without
+// building a tree of the document in memory.
+public class JsonStreamWriter implements Closeable {
+
+    private final Writer out;
+    private final int indent;
+
+    private int[] elementCounts;
+    private int depth;
+    private boolean nameWritten;
+
+    // REQUIRES: indent >= 0
+    // EFFECTS: Creates a new stream writer writing JSON to the given writer,
+    //          indenting each nesting level by the given number of spaces, or
+    //          writing compactly on one line if indent is 0.
+    public JsonStreamWriter(Writer out, int indent) {
+        this.out = out;
+        this.indent = indent;
+        this.elementCounts = new int[8];
+        this.depth = 0;
+        this.nameWritten = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the start of an object
+    public JsonStreamWriter beginObject() throws IOException {
+        return this.open('{');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the end of the current object
+    public JsonStreamWriter endObject() throws IOException {
+        return this.close('}');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the start of an array
+    public JsonStreamWriter beginArray() throws IOException {
+        return this.open('[');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the end of the current array
+    public JsonStreamWriter endArray() throws IOException {
+        return this.close(']');
+    }
+
+    // REQUIRES: the current container is an object
+    // MODIFIES: this
+    // EFFECTS: Writes the name of the next property in the current object
+    public JsonStreamWriter name(String name) throws IOException {
+        if (this.depth == 0 || this.nameWritten) {
+            throw new JSONException("Expected a value, not a name.");
+        }
+        this.beforeElement();
+        this.out.write(JSONObject.quote(name));
+        this.out.write(this.indent > 0 ? ": " : ":");
+        this.nameWritten = true;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given string value, or null if it is null
+    public JsonStreamWriter value(String value) throws IOException {
+        this.beforeValue();
+        this.out.write(value == null ? "null" : JSONObject.quote(value));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given boolean value
+    public JsonStreamWriter value(boolean value) throws IOException {
+        this.beforeValue();
+        this.out.write(value ? "true" : "false");
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given integer value
+    public JsonStreamWriter value(long value) throws IOException {
+        this.beforeValue();
+        this.out.write(Long.toString(value));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given value, which may be null, a string, boolean,
+    //          number, enum, JSONObject, JSONArray, map or iterable of these.
+    public JsonStreamWriter value(Object value) throws IOException {
+        if (value instanceof JSONObject) {
+            return this.object(((JSONObject) value).toMap());
+        } else if (value instanceof Map) {
+            return this.object((Map<?, ?>) value);
+        } else if (value instanceof JSONArray) {
+            return this.array(((JSONArray) value).toList());
+        } else if (value instanceof Iterable) {
+            return this.array((Iterable<?>) value);
+        } else if (value instanceof Boolean) {
+            return this.value((boolean) (Boolean) value);
+        } else if (value instanceof Number) {
+            this.beforeValue();
+            this.out.write(JSONObject.numberToString((Number) value));
+            return this;
+        } else if (value instanceof Enum) {
+            return this.value(((Enum<?>) value).name());
+        }
+        return this.value(value == null ? null : value.toString());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given savable, passing it the given arguments
+    public <T> JsonStreamWriter savable(Savable<T> s, T args) throws IOException {
+        s.writeJson(this, args);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes an array of the given savables, passing each of them the
+    //          given arguments.
+    public <T extends Savable<E>, E> JsonStreamWriter savableArray(Iterable<T> s, E args)
+            throws IOException {
+        this.beginArray();
+        for (Savable<E> savable : s) {
+            savable.writeJson(this, args);
+        }
+        return this.endArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes an array of the given integers
+    public JsonStreamWriter intArray(int[] values) throws IOException {
+        this.beginArray();
+        for (int value : values) {
+            this.value(value);
+        }
+        return this.endArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Flushes the underlying writer
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Flushes and closes the underlying writer
+    @Override
+    public void close() throws IOException {
+        this.out.flush();
+        this.out.close();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes an object holding the entries of the given map
+    private JsonStreamWriter object(Map<?, ?> map) throws IOException {
+        this.beginObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            this.name(String.valueOf(entry.getKey()));
+            this.value(entry.getValue());
+        }
+        return this.endObject();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes an array holding the given values
+    private JsonStreamWriter array(Iterable<?> values) throws IOException {
+        this.beginArray();
+        for (Object value : values) {
+            this.value(value);
+        }
+        return this.endArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given opening bracket and enters a new container
+    private JsonStreamWriter open(char bracket) throws IOException {
+        this.beforeValue();
+        this.out.write(bracket);
+        if (this.depth == this.elementCounts.length) {
+            this.elementCounts = Arrays.copyOf(this.elementCounts, this.depth * 2);
+        }
+        this.elementCounts[this.depth] = 0;
+        this.depth += 1;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Leaves the current container and writes the given closing bracket
+    private JsonStreamWriter close(char bracket) throws IOException {
+        if (this.depth == 0 || this.nameWritten) {
+            throw new JSONException("Unexpected '" + bracket + "'.");
+        }
+        this.depth -= 1;
+        if (this.elementCounts[this.depth] > 0) {
+            this.newline();
+        }
+        this.out.write(bracket);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the separator before the next value if it is an array
+    //          element, or consumes the name written before it in an object.
+    private void beforeValue() throws IOException {
+        if (this.nameWritten) {
+            this.nameWritten = false;
+        } else if (this.depth > 0) {
+            this.beforeElement();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes a comma if the current container already has elements,
+    //          starts a new line, and counts the element about to be written.
+    private void beforeElement() throws IOException {
+        if (this.elementCounts[this.depth - 1] > 0) {
+            this.out.write(',');
+        }
+        this.elementCounts[this.depth - 1] += 1;
+        this.newline();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Starts a new line indented to the current depth, if indenting
+    private void newline() throws IOException {
+        if (this.indent > 0) {
+            this.out.write('\n');
+            for (int i = 0; i < this.depth * this.indent; ++i) {
+                this.out.write(' ');
+            }
+        }
+    }
+}
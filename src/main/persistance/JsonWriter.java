@@ -1,29 +1,45 @@
 package persistance;
 
-import org.json.JSONObject;
-
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 // Serializes application data to a JSON format at the given path
 public class JsonWriter {
 
+    public static final int DEFAULT_INDENT = 1;
+
     public final String dstPath;
+    public final int indent;
 
     // EFFECTS: Constructs a new JsonWriter to the given path
     public JsonWriter(String path) {
+        this(path, DEFAULT_INDENT);
+    }
+
+    // REQUIRES: indent >= 0
+    // EFFECTS: Constructs a new JsonWriter to the given path, indenting each
+    //          nesting level by the given number of spaces, or writing
+    //          compactly if indent is 0.
+    public JsonWriter(String path, int indent) {
         this.dstPath = path;
+        this.indent = indent;
     }
 
     // EFFECTS: Writes the given savable to the path associated with this
-    //          json writer, passing the given arguments to the savable.
+    //          json writer, passing the given arguments to the savable. The
+    //          JSON is written to a temporary file which is forced to the
+    //          storage device and then moved over the path, so the file at the
+    //          path is never partially written. If writing fails, the file at
+    //          the path is left as it was.
     public <T> void write(Savable<T> am, T args) throws IOException {
-        JSONObject jso = am.toJson(args);
-        Files.write(Paths.get(this.dstPath),
-                jso.toString(1)
-                        .getBytes(StandardCharsets.UTF_8));
+        try (AtomicFileOutputStream file = AtomicFileOutputStream.open(this.dstPath);
+             JsonStreamWriter jsw = new JsonStreamWriter(
+                     new OutputStreamWriter(file, StandardCharsets.UTF_8), this.indent)) {
+            am.writeJson(jsw, args);
+            jsw.flush();
+            file.commit();
+        }
     }
 
 }
@@ -2,10 +2,19 @@ package persistance;
 
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 // A savable data type
 @FunctionalInterface
 public interface Savable<T> {
 
     // EFFECTS: Returns a JSON representation of this object.
     JSONObject toJson(T args);
+
+    // MODIFIES: jsw
+    // EFFECTS: Writes the JSON representation of this object to the stream.
+    //          By default, writes the object returned by toJson.
+    default void writeJson(JsonStreamWriter jsw, T args) throws IOException {
+        jsw.value(this.toJson(args));
+    }
 }
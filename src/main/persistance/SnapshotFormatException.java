@@ -0,0 +1,13 @@
+package persistance;
+
+import java.io.IOException;
+
+// A checked exception for when a binary snapshot is malformed or was written
+// in an unsupported version of the format.
+public class SnapshotFormatException extends IOException {
+
+    // EFFECTS: Creates a new snapshot format exception with the given message
+    public SnapshotFormatException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,330 @@
+package persistance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads application data written by a SnapshotWriter from a buffer, which may
+// be a memory-mapped file. Strings are decoded from the string table the first
+// time they are read, and each section can be read independently with the
+// string table at its end.
+public class SnapshotReader implements Closeable {
+
+    private final ByteBuffer buffer;
+    private final StringTable strings;
+    private final int[] sectionKeys;
+    private final int[] sectionStarts;
+    private final int[] sectionLengths;
+    private final int[] sectionTableOffsets;
+    private final ByteBuffer raw;
+    private final int tableOffset;
+
+    // MODIFIES: in
+    // EFFECTS: Creates a new snapshot reader over the whole of the given
+    //          stream. Throws SnapshotFormatException if the stream is not a
+    //          snapshot of a supported version.
+    public SnapshotReader(InputStream in) throws IOException {
+        this(ByteBuffer.wrap(readFully(in)));
+    }
+
+    // EFFECTS: Creates a new snapshot reader over the remaining bytes of the
+    //          given buffer, reading its header and the string table offsets
+    //          and section directory from its trailer, and positioned at the
+    //          start of its body. Throws SnapshotFormatException if the buffer
+    //          does not hold a snapshot of a supported version.
+    public SnapshotReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.slice();
+        if (this.buffer.remaining() < 4 || this.buffer.getInt() != SnapshotWriter.MAGIC) {
+            throw new SnapshotFormatException("Not a snapshot file.");
+        }
+        int version = this.readVarInt();
+        if (version != SnapshotWriter.VERSION) {
+            throw new SnapshotFormatException("Unsupported snapshot version " + version + ".");
+        }
+        int bodyStart = this.buffer.position();
+        int trailerStart = this.readTrailerStart();
+        this.buffer.position(trailerStart);
+        this.strings = new StringTable(this);
+        int sectionCount = this.readCount();
+        this.sectionKeys = new int[sectionCount];
+        this.sectionStarts = new int[sectionCount];
+        this.sectionLengths = new int[sectionCount];
+        this.sectionTableOffsets = new int[sectionCount];
+        this.readDirectory();
+        this.buffer.limit(trailerStart);
+        this.buffer.position(bodyStart);
+        this.raw = null;
+        this.tableOffset = -1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads the key, start, length and string table offset of each
+    //          section from the section directory.
+    private void readDirectory() throws IOException {
+        for (int i = 0; i < this.sectionKeys.length; ++i) {
+            this.sectionKeys[i] = this.readVarInt();
+            this.sectionStarts[i] = this.readVarInt();
+            this.sectionLengths[i] = this.readVarInt();
+            this.sectionTableOffsets[i] = this.readVarInt();
+        }
+    }
+
+    // EFFECTS: Returns the offset of the trailer, read from the end of the
+    //          buffer. Throws SnapshotFormatException if it is not between the
+    //          current position and the end of the buffer.
+    private int readTrailerStart() throws IOException {
+        int end = this.buffer.limit() - Long.BYTES;
+        long trailerStart = end < this.buffer.position() ? -1 : this.buffer.getLong(end);
+        if (trailerStart < this.buffer.position() || trailerStart > end) {
+            throw new SnapshotFormatException("Malformed snapshot trailer.");
+        }
+        this.buffer.limit(end);
+        return (int) trailerStart;
+    }
+
+    // EFFECTS: Creates a reader for a section, whose values are followed by
+    //          their string table at the given offset.
+    private SnapshotReader(ByteBuffer section, int tableOffset) throws IOException {
+        this.raw = section;
+        this.tableOffset = tableOffset;
+        this.buffer = section.duplicate();
+        this.buffer.position(tableOffset);
+        this.strings = new StringTable(this);
+        this.buffer.limit(tableOffset);
+        this.buffer.position(0);
+        this.sectionKeys = new int[0];
+        this.sectionStarts = new int[0];
+        this.sectionLengths = new int[0];
+        this.sectionTableOffsets = new int[0];
+    }
+
+    // EFFECTS: Returns a new snapshot reader over the file at the given path,
+    //          which is memory-mapped rather than read. Throws
+    //          SnapshotFormatException if the file is not a snapshot of a
+    //          supported version.
+    public static SnapshotReader open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return new SnapshotReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // EFFECTS: Returns the number of sections in this snapshot
+    public int getSectionCount() {
+        return this.sectionKeys.length;
+    }
+
+    // REQUIRES: 0 <= i < getSectionCount()
+    // EFFECTS: Returns the key of the i-th section
+    public String getSectionKey(int i) throws IOException {
+        return this.strings.get(this.sectionKeys[i]);
+    }
+
+    // REQUIRES: 0 <= i < getSectionCount()
+    // EFFECTS: Returns a new reader over only the i-th section, with the
+    //          string table of the section.
+    public SnapshotReader section(int i) throws IOException {
+        int start = this.sectionStarts[i];
+        int end = start + this.sectionLengths[i];
+        int table = this.sectionTableOffsets[i];
+        if (start < 0 || end < start || end > this.buffer.limit() || table < 0 || table > end - start) {
+            throw new SnapshotFormatException("Section " + i + " is out of bounds.");
+        }
+        ByteBuffer section = this.buffer.duplicate();
+        section.limit(end);
+        section.position(start);
+        return new SnapshotReader(section.slice(), table);
+    }
+
+    // REQUIRES: this reader was returned by section
+    // EFFECTS: Returns the bytes of the whole section, from its start to the
+    //          end of its string table.
+    ByteBuffer rawSection() {
+        return this.raw.duplicate();
+    }
+
+    // REQUIRES: this reader was returned by section
+    // EFFECTS: Returns the offset of the string table from the section start
+    int getTableOffset() {
+        return this.tableOffset;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads a non-negative integer written by writeVarInt
+    public int readVarInt() throws IOException {
+        long value = this.readVarLong();
+        if (value > 0xFFFFFFFFL) {
+            throw new SnapshotFormatException("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads a non-negative long written by writeVarLong
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = this.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SnapshotFormatException("Malformed variable length integer.");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads a boolean written by writeBoolean
+    public boolean readBoolean() throws IOException {
+        return this.readByte() != 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads a string written by writeString
+    public String readString() throws IOException {
+        return this.strings.get(this.readVarInt());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads strings written by writeStrings into a mutable list
+    public List<String> readStrings() throws IOException {
+        return this.readAll(SnapshotReader::readString);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads integers written by writeInts
+    public int[] readInts() throws IOException {
+        int[] values = new int[this.readCount()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = this.readVarInt();
+        }
+        return values;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads integers written by writeSortedInts
+    public int[] readSortedInts() throws IOException {
+        int[] values = new int[this.readCount()];
+        int last = 0;
+        for (int i = 0; i < values.length; ++i) {
+            last += this.readVarInt();
+            values[i] = last;
+        }
+        return values;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads values written by SnapshotWriter.writeAll into a mutable
+    //          list, reading each one with the given reader.
+    public <T> List<T> readAll(ValueReader<T> reader) throws IOException {
+        int count = this.readCount();
+        List<T> values = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            values.add(reader.read(this));
+        }
+        return values;
+    }
+
+    // EFFECTS: Does nothing, as a mapped file is released once no reader
+    //          refers to it.
+    @Override
+    public void close() {
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads a count of values, each of which takes at least one byte
+    private int readCount() throws IOException {
+        int count = this.readVarInt();
+        if (count < 0 || count > this.buffer.remaining()) {
+            throw new SnapshotFormatException("Count " + count + " exceeds the snapshot size.");
+        }
+        return count;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Reads the next byte
+    private byte readByte() throws IOException {
+        try {
+            return this.buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw new SnapshotFormatException("Unexpected end of snapshot.");
+        }
+    }
+
+    // MODIFIES: in
+    // EFFECTS: Reads and returns every remaining byte of the stream
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        for (int read = in.read(chunk); read != -1; read = in.read(chunk)) {
+            bytes.write(chunk, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reads a single value from a snapshot
+    @FunctionalInterface
+    public interface ValueReader<T> {
+        // MODIFIES: sr
+        // EFFECTS: Reads and returns the next value from the snapshot
+        T read(SnapshotReader sr) throws IOException;
+    }
+
+    // The string table of a snapshot, decoding each string when first read
+    private static class StringTable {
+
+        private final ByteBuffer data;
+        private final int[] ends;
+        private final String[] decoded;
+
+        // MODIFIES: sr
+        // EFFECTS: Reads the string count and offsets from the snapshot and
+        //          skips over the string data.
+        StringTable(SnapshotReader sr) throws IOException {
+            int count = sr.readVarInt();
+            if (count < 0 || count > sr.buffer.remaining() / 4) {
+                throw new SnapshotFormatException("Malformed string table.");
+            }
+            this.ends = new int[count];
+            for (int i = 0; i < count; ++i) {
+                this.ends[i] = sr.buffer.getInt();
+            }
+            int length = count == 0 ? 0 : this.ends[count - 1];
+            if (length < 0 || length > sr.buffer.remaining()) {
+                throw new SnapshotFormatException("Malformed string table.");
+            }
+            this.data = sr.buffer.slice();
+            this.data.limit(length);
+            sr.buffer.position(sr.buffer.position() + length);
+            this.decoded = new String[count];
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Returns the string with the given index
+        String get(int id) throws IOException {
+            if (id < 0 || id >= this.decoded.length) {
+                throw new SnapshotFormatException("No string with index " + id + ".");
+            }
+            if (this.decoded[id] == null) {
+                int start = id == 0 ? 0 : this.ends[id - 1];
+                if (start < 0 || start > this.ends[id] || this.ends[id] > this.data.limit()) {
+                    throw new SnapshotFormatException("Malformed string table.");
+                }
+                byte[] bytes = new byte[this.ends[id] - start];
+                ByteBuffer view = this.data.duplicate();
+                view.position(start);
+                view.get(bytes);
+                this.decoded[id] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return this.decoded[id];
+        }
+    }
+}
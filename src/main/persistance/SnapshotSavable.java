@@ -0,0 +1,12 @@
+package persistance;
+
+import java.io.IOException;
+
+// A data type savable to a binary snapshot
+@FunctionalInterface
+public interface SnapshotSavable<T> {
+
+    // MODIFIES: sw
+    // EFFECTS: Writes the binary representation of this object to the snapshot.
+    void writeSnapshot(SnapshotWriter sw, T args) throws IOException;
+}
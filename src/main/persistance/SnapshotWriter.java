@@ -0,0 +1,246 @@
+package persistance;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes application data in a compact versioned binary format. Strings are
+// stored once in a string table and referred to by index, and integers are
+// written as variable length quantities. Parts of the body can be marked as
+// named sections, listed in a directory so they can be read independently.
+// Each section ends with a string table of its own, so a section read from
+// one snapshot can be copied into another as it is. The body is streamed out
+// as it is written, and the string table of everything outside the sections
+// and the section directory follow it in a trailer, whose offset ends the
+// snapshot.
+public class SnapshotWriter implements Closeable {
+
+    public static final int MAGIC = 0x5643534E;
+    public static final int VERSION = 5;
+
+    private final AtomicFileOutputStream file;
+    private final DataOutputStream body;
+    private final Map<String, Integer> stringIds;
+    private final List<String> strings;
+    private final Map<String, Integer> sectionStringIds;
+    private final List<String> sectionStrings;
+    private final List<int[]> sections;
+    private int sectionStart;
+
+    // EFFECTS: Creates a new snapshot writer writing to the given stream,
+    //          starting with the header.
+    public SnapshotWriter(OutputStream out) throws IOException {
+        this(out, null);
+    }
+
+    // EFFECTS: Creates a new snapshot writer writing to the given stream,
+    //          starting with the header, which once closed commits the given
+    //          file the stream writes to if it is not null.
+    private SnapshotWriter(OutputStream out, AtomicFileOutputStream file) throws IOException {
+        this.file = file;
+        this.body = new DataOutputStream(out);
+        this.body.writeInt(MAGIC);
+        writeVarLong(this.body, VERSION);
+        this.stringIds = new HashMap<>();
+        this.strings = new ArrayList<>();
+        this.sectionStringIds = new HashMap<>();
+        this.sectionStrings = new ArrayList<>();
+        this.sections = new ArrayList<>();
+        this.sectionStart = -1;
+    }
+
+    // EFFECTS: Returns a new snapshot writer writing to the file at the given
+    //          path once it is closed. The snapshot is written to a temporary
+    //          file first, forced to the storage device and then moved over the
+    //          path, so the file at the path is never partially written, and
+    //          readers still mapping the old file keep seeing its contents.
+    public static SnapshotWriter open(String path) throws IOException {
+        AtomicFileOutputStream file = AtomicFileOutputStream.open(path);
+        return new SnapshotWriter(file, file);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given non-negative integer in as few bytes as needed
+    public void writeVarInt(int value) throws IOException {
+        writeVarLong(this.body, value & 0xFFFFFFFFL);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given non-negative long in as few bytes as needed
+    public void writeVarLong(long value) throws IOException {
+        writeVarLong(this.body, value);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the given boolean as one byte
+    public void writeBoolean(boolean value) throws IOException {
+        this.body.writeBoolean(value);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds the string to the string table if it is not already
+    //          present and writes its index in the table.
+    public void writeString(String value) throws IOException {
+        this.writeVarInt(this.sectionStart < 0
+                ? stringId(this.stringIds, this.strings, value)
+                : stringId(this.sectionStringIds, this.sectionStrings, value));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the number of strings followed by each string
+    public void writeStrings(Collection<String> values) throws IOException {
+        this.writeVarInt(values.size());
+        for (String value : values) {
+            this.writeString(value);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the number of integers followed by each integer
+    public void writeInts(int[] values) throws IOException {
+        this.writeVarInt(values.length);
+        for (int value : values) {
+            this.writeVarInt(value);
+        }
+    }
+
+    // REQUIRES: values is sorted in ascending order
+    // MODIFIES: this
+    // EFFECTS: Writes the number of integers followed by the difference of
+    //          each integer from the one before it.
+    public void writeSortedInts(int[] values) throws IOException {
+        this.writeVarInt(values.length);
+        int last = 0;
+        for (int value : values) {
+            this.writeVarInt(value - last);
+            last = value;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the number of savables followed by each savable, passing
+    //          each of them the given arguments.
+    public <T extends SnapshotSavable<E>, E> void writeAll(Collection<T> s, E args)
+            throws IOException {
+        this.writeVarInt(s.size());
+        for (T savable : s) {
+            savable.writeSnapshot(this, args);
+        }
+    }
+
+    // REQUIRES: no section has been begun without being ended
+    // MODIFIES: this
+    // EFFECTS: Begins a section with the given key, holding everything written
+    //          until the section is ended.
+    public void beginSection(String key) {
+        this.sections.add(new int[]{stringId(this.stringIds, this.strings, key), this.body.size(), 0, 0});
+        this.sectionStart = this.body.size();
+    }
+
+    // REQUIRES: a section has been begun without being ended
+    // MODIFIES: this
+    // EFFECTS: Ends the current section with the string table of the strings
+    //          written in it.
+    public void endSection() throws IOException {
+        int[] section = this.sections.get(this.sections.size() - 1);
+        section[3] = this.body.size() - this.sectionStart;
+        writeStringTable(this.body, this.sectionStrings);
+        section[2] = this.body.size() - this.sectionStart;
+        this.sectionStringIds.clear();
+        this.sectionStrings.clear();
+        this.sectionStart = -1;
+    }
+
+    // REQUIRES: no section has been begun without being ended, section is a
+    //           reader returned by SnapshotReader.section
+    // MODIFIES: this
+    // EFFECTS: Adds a section with the given key holding the same values as
+    //          the given section of another snapshot, by copying its bytes
+    //          without decoding them.
+    public void copySection(String key, SnapshotReader section) throws IOException {
+        ByteBuffer raw = section.rawSection();
+        this.sections.add(new int[]{stringId(this.stringIds, this.strings, key), this.body.size(),
+                raw.remaining(), section.getTableOffset()});
+        WritableByteChannel channel = Channels.newChannel(this.body);
+        while (raw.hasRemaining()) {
+            channel.write(raw);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Writes the trailer of string table, section directory and the
+    //          offset of the trailer after everything written to this, then
+    //          commits the file written, if any, and closes the underlying
+    //          stream.
+    @Override
+    public void close() throws IOException {
+        try (DataOutputStream trailer = this.body) {
+            int trailerStart = trailer.size();
+            writeStringTable(trailer, this.strings);
+            writeVarLong(trailer, this.sections.size());
+            for (int[] section : this.sections) {
+                for (int field : section) {
+                    writeVarLong(trailer, field);
+                }
+            }
+            trailer.writeLong(trailerStart);
+            trailer.flush();
+            if (this.file != null) {
+                this.file.commit();
+            }
+        }
+    }
+
+    // MODIFIES: ids, strings
+    // EFFECTS: Returns the index of the string in the string table of the
+    //          given strings and their indices, adding it if it is not present.
+    private static int stringId(Map<String, Integer> ids, List<String> strings, String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    // MODIFIES: out
+    // EFFECTS: Writes the number of strings, the fixed width end offset of
+    //          each string, and then the UTF-8 bytes of all the strings, so any
+    //          string can be decoded without decoding those before it.
+    private static void writeStringTable(DataOutputStream out, List<String> strings) throws IOException {
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        writeVarLong(out, strings.size());
+        int end = 0;
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            end += bytes.length;
+            out.writeInt(end);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: Writes the given non-negative long to out seven bits at a time,
+    //          setting the high bit of every byte but the last.
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -4,6 +4,8 @@ import model.Closet;
 import model.Clothing;
 import model.Size;
 import model.search.ClothingAddress;
+import model.search.ClothingAddressParseException;
+import model.search.ClothingQuery;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -77,6 +79,24 @@ public final class ClosetModeConsole extends CommandSystem {
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: searches this closet with the boolean clothing query parsed
+    //          from the user
+    private void clothingQuerySearch() {
+        String input = this.getInput("\tEnter clothing query expression: ");
+        try {
+            List<Clothing> clothing = this.closet.query(ClothingQuery.parse(input));
+            if (clothing.isEmpty()) {
+                System.out.println("\tNo clothing matched the given query.");
+            } else {
+                System.out.println("Matches: \n" + clothing);
+            }
+        } catch (ClothingAddressParseException e) {
+            System.out.println("\t" + e.getMessage()
+                    + " Occurred at \"" + e.getCaptured() + "\".");
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: Prompts the user to select clothing to edit from a search expression.
     private void editClothing() {
@@ -124,7 +144,10 @@ public final class ClosetModeConsole extends CommandSystem {
     private void initSearchCommands() {
         this.addCommands(new ConsoleCommand(this::clothingAddressSearch,
                 "Search closet by clothing address.",
-                "search"));
+                "search"),
+                new ConsoleCommand(this::clothingQuerySearch,
+                        "Search closet by a query of clothing address terms joined by AND, OR and NOT.",
+                        "query"));
     }
 
     // MODIFIES: this
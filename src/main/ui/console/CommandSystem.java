@@ -179,10 +179,10 @@ public abstract class CommandSystem {
     //          the errors and returns null.
     protected ClothingAddress address(String expr) {
         try {
-            return ClothingAddress.of(expr);
+            return ClothingAddress.ofCached(expr);
         } catch (ClothingAddressParseException e) {
             System.out.println("\t" + e.getMessage()
-                    + " Occurred at \"" + e.getErrorState().getStateCaptured() + "\".");
+                    + " Occurred at \"" + e.getCaptured() + "\".");
             return null;
         }
     }
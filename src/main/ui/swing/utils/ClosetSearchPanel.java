@@ -2,27 +2,43 @@ package ui.swing.utils;
 
 import model.Closet;
 import model.Clothing;
+import model.ClothingAttribute;
+import model.index.SearchCursor;
 import model.search.ClothingAddress;
 import model.search.ClothingAddressParseException;
+import model.search.IncrementalAddressParser;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
+import java.util.ConcurrentModificationException;
 
 // A panel to search a given closet
 public class ClosetSearchPanel extends JPanel {
 
+    private static final int COMPLETION_COUNT = 5;
+    private static final int PAGE_SIZE = 100;
+    private static final String MORE_HINT = " Showing the closest matches, press More for the next " + PAGE_SIZE + ".";
+
     private Closet closet;
     private PromptedTextField searchExpressionField;
     private JTextArea searchExpressionErrorText;
     private JButton searchButton;
     private JList<Clothing> searchClothingJList;
+    private final DefaultListModel<Clothing> searchResults;
+    private JButton moreButton;
+    private SearchCursor searchCursor;
     private JTextArea clothingInfoTextArea;
+    private final IncrementalAddressParser liveParser;
 
     // EFFECTS: Constructs a new closet search panel for the given
     //          closet.
     public ClosetSearchPanel(Closet closet) {
         this.closet = closet;
+        this.liveParser = new IncrementalAddressParser();
+        this.searchResults = new DefaultListModel<>();
 
         this.addComponents();
         this.addListeners();
@@ -44,12 +60,7 @@ public class ClosetSearchPanel extends JPanel {
         searchExpressionErrorText.setLineWrap(true);
         searchExpressionErrorText.setWrapStyleWord(true);
 
-        this.searchClothingJList = new JList<>();
-        this.searchClothingJList.setCellRenderer(
-                (list, val, idx, sel, foc) -> new ClothingListItem(this, val, sel));
-        this.add(new JScrollPane(searchClothingJList),
-                GBC.at(0, 2).fillBoth().north()
-                        .weighty(1).gridwidth(2).insets(4));
+        this.addResultComponents();
 
         this.clothingInfoTextArea = new JTextArea();
         this.clothingInfoTextArea.setEditable(false);
@@ -61,12 +72,44 @@ public class ClosetSearchPanel extends JPanel {
         this.refresh();
     }
 
+    // REQUIRES: addResultComponents has not been called
+    // MODIFIES: this
+    // EFFECTS: Adds the list of search results to the view, and the button
+    //          listing more of them below it
+    private void addResultComponents() {
+        this.searchClothingJList = new JList<>(this.searchResults);
+        this.searchClothingJList.setCellRenderer(
+                (list, val, idx, sel, foc) -> new ClothingListItem(this, val, sel));
+        this.add(new JScrollPane(searchClothingJList),
+                GBC.at(0, 2).fillBoth().north()
+                        .weighty(1).gridwidth(2).insets(4));
+        this.add(moreButton = new JButton("More"),
+                GBC.hfillNorth(0, 3).gridwidth(2).insets(2));
+        this.moreButton.setEnabled(false);
+    }
+
     // REQUIRES: addListeners has not been called
     // MODIFIES: this
     // EFFECTS: Adds listeners to view components
     private void addListeners() {
         this.searchButton.addActionListener(e -> refreshSearch());
+        this.moreButton.addActionListener(e -> showMoreResults());
         this.searchExpressionField.addActionListener(e -> refreshSearch());
+        this.searchExpressionField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                refreshLiveSearch();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                refreshLiveSearch();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
         this.searchClothingJList.addListSelectionListener(e -> {
             if (e.getValueIsAdjusting()) {
                 this.refreshSelectedClothing();
@@ -80,18 +123,13 @@ public class ClosetSearchPanel extends JPanel {
     private void refreshSearch() {
         if (searchExpressionField.hasTextValue() && closet != null) {
             try {
-                java.util.List<Clothing> found = this.closet.findClothing(ClothingAddress.of(
+                boolean more = this.showResults(ClothingAddress.ofCached(
                         this.searchExpressionField.getText()
                 ));
-                Clothing[] clothingArr = new Clothing[found.size()];
-                for (int i = found.size() - 1; i >= 0; --i) {
-                    clothingArr[i] = found.get(found.size() - i - 1);
-                }
-                this.searchClothingJList.setListData(clothingArr);
-                searchExpressionErrorText.setText("Search expression ok.");
+                searchExpressionErrorText.setText("Search expression ok." + (more ? MORE_HINT : ""));
             } catch (ClothingAddressParseException e) {
                 searchExpressionErrorText.setText("Error in expression: " + e.getMessage()
-                        + " At \"" + e.getErrorState().getStateCaptured() + "\".");
+                        + " At \"" + e.getCaptured() + "\".");
             }
         } else if (closet == null) {
             this.searchExpressionErrorText.setText("No closet set.");
@@ -100,6 +138,91 @@ public class ClosetSearchPanel extends JPanel {
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: Parses the search expression as it is typed, reparsing only
+    //          what changed since it was last parsed, and lists the clothing
+    //          matching the criteria completed so far.
+    private void refreshLiveSearch() {
+        if (!searchExpressionField.hasTextValue() || closet == null) {
+            return;
+        }
+        this.liveParser.update(this.searchExpressionField.getText());
+        ClothingAddress partial = this.liveParser.getPartialAddress();
+        boolean more = partial.getCriteriaCount() > 0 && this.showResults(partial);
+        ClothingAddressParseException e = this.liveParser.getError();
+        if (e == null) {
+            searchExpressionErrorText.setText("Searching as you type." + (more ? MORE_HINT : "")
+                    + this.completionHint());
+        } else {
+            searchExpressionErrorText.setText("Error in expression: " + e.getMessage()
+                    + " At \"" + e.getCaptured() + "\".");
+        }
+    }
+
+    // EFFECTS: Returns a hint listing the closet values completing the list
+    //          item being typed at the end of the search expression, or an
+    //          empty string if there are none.
+    private String completionHint() {
+        ClothingAttribute attribute = this.liveParser.getOpenAttribute();
+        if (attribute == null) {
+            return "";
+        }
+        java.util.List<String> completions = this.closet.completeValues(attribute,
+                this.liveParser.getOpenItem(), COMPLETION_COUNT);
+        return completions.isEmpty() ? "" : " Suggestions: " + String.join(", ", completions);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Lists the first page of clothing closest to the address in the
+    //          search clothing jList, closest first, keeping the cursor to list
+    //          the next pages from, and returns true if more clothing matches it.
+    private boolean showResults(ClothingAddress address) {
+        this.searchCursor = this.closet.searchClothing(address, PAGE_SIZE, null);
+        this.searchResults.clear();
+        return this.appendPage();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Appends the next page of the last search to the search
+    //          clothing jList, if there is a last search. Searches again if
+    //          the closet changed since the last search.
+    private void showMoreResults() {
+        if (this.searchCursor == null) {
+            return;
+        }
+        try {
+            this.appendPage();
+        } catch (ConcurrentModificationException e) {
+            this.searchCursor = null;
+            this.moreButton.setEnabled(false);
+            this.refreshSearch();
+        }
+    }
+
+    // EFFECTS: Returns true if the last search has clothing left to list,
+    //          false if there is none or the closet changed since.
+    private boolean hasMoreResults() {
+        try {
+            return this.searchCursor != null && this.searchCursor.hasNext();
+        } catch (ConcurrentModificationException e) {
+            return false;
+        }
+    }
+
+    // REQUIRES: searchCursor is not null
+    // MODIFIES: this
+    // EFFECTS: Appends the next page of the search cursor to the search
+    //          clothing jList, enables the more button only if clothing is
+    //          left to list, and returns true if there is.
+    private boolean appendPage() {
+        for (Clothing c : this.searchCursor.nextPage()) {
+            this.searchResults.addElement(c);
+        }
+        boolean more = this.searchCursor.hasNext();
+        this.moreButton.setEnabled(more && this.searchExpressionField.isEnabled());
+        return more;
+    }
+
     // MODIFIES: this
     // EFFECTS: Updates selected clothing views
     public void refreshSelectedClothing() {
@@ -137,6 +260,7 @@ public class ClosetSearchPanel extends JPanel {
         this.refresh();
         this.searchExpressionField.setEnabled(enabled);
         this.searchButton.setEnabled(enabled);
+        this.moreButton.setEnabled(enabled && this.hasMoreResults());
         this.searchClothingJList.setEnabled(enabled);
     }
 
@@ -144,6 +268,7 @@ public class ClosetSearchPanel extends JPanel {
     // EFFECTS: Sets the closet used to the given
     public void setCloset(Closet closet) {
         this.closet = closet;
+        this.searchCursor = null;
         this.setEnabled(closet != null);
         this.refresh();
     }
@@ -4,9 +4,14 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import persistance.Journal;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -147,6 +152,315 @@ public class AccountManagerTest {
         assertEquals(this.acm.getAccounts(), acm2.getAccounts());
     }
 
+    @Test
+    void testSaveIndent() {
+        assertEquals(1, this.acm.getSaveIndent());
+        this.acm.setSaveIndent(0);
+        assertEquals(0, this.acm.getSaveIndent());
+    }
+
+    @Test
+    void testSaveStateCompactLoadState() throws IOException {
+        this.populate();
+        this.acm.setSaveIndent(0);
+        this.acm.saveState();
+        assertEquals(1, Files.readAllLines(Paths.get(this.acm.getFileSavePath())).size());
+        AccountManager acm2 = new AccountManager();
+        acm2.loadState();
+        assertTrue(this.acm.toJson(null).similar(acm2.toJson(null)));
+    }
+
+    // Adds an account with a closet and outfit of two pieces of clothing
+    private void populate() {
+        this.acm.addAccount(jake);
+        jake.addCloset("C1");
+        Closet closet = jake.getCloset("C1").get();
+        Clothing shirt = new Clothing(Collections.singletonList("shirt"), Size.XL, "Adidas", "Silk",
+                Collections.singletonList("casual"), Collections.singletonList("blue"), true);
+        Clothing pants = new Clothing(Collections.singletonList("pants"), Size.L, "Nike", "Cotton",
+                Collections.singletonList("casual"), Arrays.asList("orange", "yellow"), false);
+        closet.addClothing(shirt);
+        closet.addClothing(pants);
+        jake.getCatalogue().addOutfit(new Outfit("fit", Arrays.asList(pants, shirt)));
+    }
+
+    @Test
+    void testSaveSnapshotLoadSnapshot() throws IOException {
+        assertEquals(AccountManager.SNAPSHOT_SAVE_PATH, this.acm.getSnapshotSavePath());
+        assertEquals(AccountManager.JOURNAL_SAVE_PATH, this.acm.getJournalSavePath());
+        this.useJournalPaths("testdata");
+        assertEquals("./data/testdata.snapshot", this.acm.getSnapshotSavePath());
+        this.populate();
+        this.acm.saveSnapshot();
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        assertTrue(this.acm.toJson(null).similar(acm2.toJson(null)));
+        this.deleteJournalPaths();
+    }
+
+    @Test
+    void testLoadSnapshotIsLazy() throws IOException {
+        this.useJournalPaths("testlazy");
+        this.populate();
+        this.acm.addAccount(eric);
+        this.acm.saveSnapshot();
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        assertEquals(2, acm2.getAccounts().size());
+        Account jake2 = acm2.getAccounts().get(0);
+        Account eric2 = acm2.getAccounts().get(1);
+        assertEquals("Jake", jake2.getName());
+        assertEquals("Eric", eric2.getName());
+        assertFalse(jake2.isLoaded());
+        assertFalse(eric2.isLoaded());
+        assertEquals(2, jake2.getCloset("C1").get().getClothing().size());
+        assertTrue(jake2.isLoaded());
+        assertFalse(eric2.isLoaded());
+        acm2.saveSnapshot();
+        assertTrue(eric2.getCatalogue().getOutfits().isEmpty());
+        assertTrue(jake.toJson(null).similar(jake2.toJson(null)));
+        this.deleteJournalPaths();
+    }
+
+    @Test
+    void testCheckpointKeepsAccountsUnloaded() throws IOException {
+        this.useJournalPaths("testlazycheckpoint");
+        this.populate();
+        this.acm.addAccount(eric);
+        eric.addCloset("Eric's");
+        this.acm.saveSnapshot();
+        AccountManager acm2 = this.loadCopy();
+        Account eric2 = acm2.getAccount("Eric");
+        eric2.setName("Erica", acm2.getAccounts());
+        acm2.getAccount("Jake").getCloset("C1").get().getClothing().get(0).setBrand("Puma");
+        acm2.saveChanges();
+        acm2.saveSnapshot();
+        assertFalse(eric2.isLoaded());
+        AccountManager acm3 = this.loadCopy();
+        acm3.saveSnapshot();
+        assertFalse(acm3.getAccount("Erica").isLoaded());
+        assertFalse(acm3.getAccount("Jake").isLoaded());
+        assertTrue(acm2.toJson(null).similar(this.loadCopy().toJson(null)));
+        assertEquals("Eric's", acm3.getAccount("Erica").getClosets().get(0).getName());
+        this.deleteJournalPaths();
+    }
+
+    // Returns a new account manager loaded from the snapshot and journal of
+    // the account manager
+    private AccountManager loadCopy() throws IOException {
+        AccountManager copy = new AccountManager();
+        copy.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        copy.setJournalSavePath(this.acm.getJournalSavePath());
+        copy.loadSnapshot();
+        return copy;
+    }
+
+    @Test
+    void testConvertJsonAndSnapshot() throws IOException {
+        this.populate();
+        this.acm.setFileSavePath("./data/testconvert.json");
+        this.acm.saveState();
+        AccountManager.convertJsonToSnapshot("./data/testconvert.json", "./data/testconvert.snapshot");
+        AccountManager.convertSnapshotToJson("./data/testconvert.snapshot", "./data/testconvert2.json");
+        AccountManager acm2 = new AccountManager();
+        acm2.setFileSavePath("./data/testconvert2.json");
+        acm2.loadState();
+        assertTrue(this.acm.toJson(null).similar(acm2.toJson(null)));
+        for (String path : new String[]{"testconvert.json", "testconvert.snapshot", "testconvert2.json"}) {
+            Files.delete(Paths.get("./data", path));
+        }
+    }
+
+    @Test
+    void testSaveChangesJournal() throws IOException {
+        this.useJournalPaths("testchanges");
+        assertEquals("./data/testchanges.journal", this.acm.getJournalSavePath());
+        this.populate();
+        this.acm.addAccount(eric);
+        this.acm.saveSnapshot();
+        assertEquals(0, Journal.read(this.acm.getJournalSavePath()).size());
+        this.acm.saveChanges();
+        assertEquals(0, Journal.read(this.acm.getJournalSavePath()).size());
+
+        jake.getCloset("C1").get().getClothing().get(0).setBrand("Puma");
+        this.acm.saveChanges();
+        assertEquals(1, Journal.read(this.acm.getJournalSavePath()).size());
+        eric.setName("Erica", this.acm.getAccounts());
+        this.acm.addAccount(new Account("Zed"));
+        this.acm.saveChanges();
+        assertEquals(3, Journal.read(this.acm.getJournalSavePath()).size());
+
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        assertTrue(this.acm.toJson(null).similar(acm2.toJson(null)));
+        this.deleteJournalPaths();
+    }
+
+    @Test
+    void testSaveChangesJournalsEachChange() throws IOException {
+        this.useJournalPaths("testmutations");
+        this.populate();
+        this.acm.saveSnapshot();
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        this.changeEverything(acm2.getAccount("Jake"));
+        acm2.saveChanges();
+        assertEquals(14, Journal.read(this.acm.getJournalSavePath()).size());
+        acm2.removeAccount("Jake2");
+        acm2.addAccount(new Account("Jake"));
+        acm2.saveChanges();
+        assertEquals(16, Journal.read(this.acm.getJournalSavePath()).size());
+
+        AccountManager acm3 = new AccountManager();
+        acm3.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm3.setJournalSavePath(this.acm.getJournalSavePath());
+        acm3.loadSnapshot();
+        assertTrue(acm2.toJson(null).similar(acm3.toJson(null)));
+        this.deleteJournalPaths();
+    }
+
+    // Makes each kind of change which is journaled to the populated account,
+    // which is journaled as 14 records
+    private void changeEverything(Account account) {
+        account.addCloset("C2");
+        Closet c1 = account.getCloset("C1").get();
+        Closet c2 = account.getCloset("C2").get();
+        Clothing shirt = c1.getClothing().get(0);
+        Clothing hat = new Clothing(Collections.singletonList("hat"), Size.S, "Puma", "Wool",
+                Collections.emptyList(), Collections.singletonList("red"), false);
+        c2.addAll(Arrays.asList(hat, shirt));
+        shirt.setBrand("Gucci");
+        shirt.getColors().add("green");
+        c2.setAllDirty(true);
+        c1.removeClothing(shirt);
+        Outfit fit = account.getCatalogue().getOutfits().get(0);
+        fit.setName("fit2");
+        fit.addClothing(hat);
+        account.getCatalogue().addOutfit(new Outfit("hats", Collections.singletonList(hat)));
+        account.getCatalogue().removeAllWithName("fit2");
+        account.removeCloset("C1");
+        assertTrue(account.setName("Jake2", Collections.emptyList()));
+    }
+
+    @Test
+    void testSaveChangesAfterLazyLoadIsEmpty() throws IOException {
+        this.useJournalPaths("testlazychanges");
+        this.populate();
+        this.acm.saveSnapshot();
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        assertEquals(2, acm2.getAccounts().get(0).getCloset("C1").get().getClothing().size());
+        acm2.saveChanges();
+        assertEquals(0, Journal.read(this.acm.getJournalSavePath()).size());
+        this.deleteJournalPaths();
+    }
+
+    @Test
+    void testSaveChangesRemoveAndCheckpoint() throws IOException {
+        this.useJournalPaths("testcheckpoint");
+        this.populate();
+        this.acm.saveChanges();
+        assertFalse(Files.exists(Paths.get(this.acm.getSnapshotSavePath())));
+        for (int i = 1; i < AccountManager.CHECKPOINT_INTERVAL; ++i) {
+            jake.setName("Jake" + (i % 2), this.acm.getAccounts());
+            this.acm.saveChanges();
+        }
+        assertTrue(Files.exists(Paths.get(this.acm.getSnapshotSavePath())));
+        assertTrue(Journal.read(this.acm.getJournalSavePath()).size() < AccountManager.CHECKPOINT_INTERVAL);
+        this.acm.removeAccount(jake.getName());
+        this.acm.saveChanges();
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        assertTrue(acm2.getAccounts().isEmpty());
+        this.deleteJournalPaths();
+    }
+
+    @Test
+    void testCrashBeforeJournalClearedSkipsIncludedRecords() throws IOException {
+        this.useJournalPaths("testcrash");
+        this.acm.addAccount(new Account("a"));
+        this.acm.saveSnapshot();
+        this.acm.getAccount("a").addCloset("C1");
+        this.acm.getAccount("a").setName("b", this.acm.getAccounts());
+        this.acm.saveChanges();
+        byte[] journal = Files.readAllBytes(Paths.get(this.acm.getJournalSavePath()));
+        this.acm.saveSnapshot();
+        Files.write(Paths.get(this.acm.getJournalSavePath()), journal);
+
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        assertTrue(this.acm.toJson(null).similar(acm2.toJson(null)));
+        acm2.getAccount("b").addCloset("C2");
+        acm2.saveChanges();
+        AccountManager acm3 = new AccountManager();
+        acm3.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm3.setJournalSavePath(this.acm.getJournalSavePath());
+        acm3.loadSnapshot();
+        assertTrue(acm2.toJson(null).similar(acm3.toJson(null)));
+        this.deleteJournalPaths();
+    }
+
+    @Test
+    void testCrashBeforeJournalClearedAfterStartingOver() throws IOException {
+        this.useJournalPaths("testcrashreset");
+        this.populate();
+        this.acm.saveSnapshot();
+        for (int i = 0; i < 5; ++i) {
+            jake.addCloset("Extra" + i);
+            this.acm.saveChanges();
+        }
+        AccountManager fresh = new AccountManager();
+        fresh.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        fresh.setJournalSavePath(this.acm.getJournalSavePath());
+        fresh.addAccount(new Account("Zed"));
+        fresh.saveChanges();
+        assertEquals(2, Journal.read(this.acm.getJournalSavePath()).size());
+        byte[] journal = Files.readAllBytes(Paths.get(this.acm.getJournalSavePath()));
+        fresh.saveSnapshot();
+        Files.write(Paths.get(this.acm.getJournalSavePath()), journal);
+
+        AccountManager acm2 = new AccountManager();
+        acm2.setSnapshotSavePath(this.acm.getSnapshotSavePath());
+        acm2.setJournalSavePath(this.acm.getJournalSavePath());
+        acm2.loadSnapshot();
+        assertTrue(fresh.toJson(null).similar(acm2.toJson(null)));
+        this.deleteJournalPaths();
+    }
+
+    // Points the snapshot and journal paths at test files with the given name
+    private void useJournalPaths(String name) throws IOException {
+        this.acm.setSnapshotSavePath("./data/" + name + ".snapshot");
+        this.acm.setJournalSavePath("./data/" + name + ".journal");
+        this.deleteJournalPaths();
+    }
+
+    // Deletes the snapshot and journal files of the account manager
+    private void deleteJournalPaths() throws IOException {
+        Files.deleteIfExists(Paths.get(this.acm.getSnapshotSavePath()));
+        Files.deleteIfExists(Paths.get(this.acm.getJournalSavePath()));
+    }
+
+    @Test
+    void testLoadSnapshotThrows() {
+        this.acm.setSnapshotSavePath("./data/DNOSADNASDDNSAD");
+        this.acm.setJournalSavePath("./data/DNOSADNASDDNSAD.journal");
+        assertThrows(IOException.class, this.acm::loadSnapshot);
+    }
+
     @Test
     void testLoadStateThrows() {
         this.acm.setFileSavePath("./data/DNOSADNASDDNSAD");
@@ -0,0 +1,63 @@
+package model;
+
+import model.search.ClothingAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSearchTest {
+
+    private Clothing shirt;
+    private Clothing pants;
+    private Clothing hat;
+
+    @BeforeEach
+    void setup() {
+        this.shirt = new Clothing(Collections.singletonList("shirt"), Size.M, "Nike", "Cotton",
+                Collections.singletonList("casual"), Collections.singletonList("blue"), false);
+        this.pants = new Clothing(Collections.singletonList("pants"), Size.L, "Nike", "Denim",
+                Collections.singletonList("casual"), Collections.singletonList("blue"), false);
+        this.hat = new Clothing(Collections.singletonList("hat"), Size.S, "Puma", "Wool",
+                Collections.singletonList("formal"), Collections.singletonList("red"), true);
+    }
+
+    @Test
+    void testRank() {
+        Map<Clothing, Integer> scored = new IdentityHashMap<>();
+        scored.put(this.shirt, 3);
+        scored.put(this.pants, 1);
+        scored.put(this.hat, 2);
+        assertEquals(Arrays.asList(this.pants, this.hat, this.shirt), AccountSearch.rank(scored, 5));
+        assertEquals(Arrays.asList(this.hat, this.shirt), AccountSearch.rank(scored, 2));
+        assertTrue(AccountSearch.rank(scored, 0).isEmpty());
+    }
+
+    @Test
+    void testMergesClosetsByIdentity() {
+        List<Closet> closets = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            Closet closet = new Closet("C" + i);
+            closet.addClothing(this.shirt);
+            closet.addClothing(i % 2 == 0 ? this.pants : this.hat);
+            closets.add(closet);
+        }
+        ClothingAddress address = new ClothingAddress();
+        address.getBrands().add("Nike");
+        address.getColors().add("blue");
+        address.getTypes().add("shirt");
+        Map<Clothing, Integer> scored = ForkJoinPool.commonPool().invoke(new AccountSearch(closets, address));
+        assertEquals(2, scored.size());
+        assertEquals(3, (int) scored.get(this.shirt));
+        assertEquals(2, (int) scored.get(this.pants));
+        assertTrue(ForkJoinPool.commonPool().invoke(new AccountSearch(new ArrayList<>(), address)).isEmpty());
+    }
+}
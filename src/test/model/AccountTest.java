@@ -1,11 +1,13 @@
 package model;
 
+import model.search.ClothingAddress;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +45,29 @@ public class AccountTest {
         assertEquals(this.ac1.getName(), "ABC");
     }
 
+    @Test
+    void testFindClothing() {
+        Clothing shirt = new Clothing(Collections.singletonList("shirt"), Size.M, "Nike", "Cotton",
+                Collections.singletonList("casual"), Collections.singletonList("blue"), false);
+        Clothing pants = new Clothing(Collections.singletonList("pants"), Size.L, "Puma", "Denim",
+                Collections.singletonList("casual"), Collections.singletonList("black"), false);
+        this.ac1.addCloset("A");
+        this.ac1.addCloset("B");
+        this.ac1.addCloset("C");
+        this.ac1.getCloset("A").get().addClothing(shirt);
+        this.ac1.getCloset("B").get().addClothing(shirt);
+        this.ac1.getCloset("B").get().addClothing(pants);
+        ClothingAddress address = new ClothingAddress();
+        address.getBrands().add("Nike");
+        address.getStyles().add("casual");
+        assertEquals(Arrays.asList(pants, shirt), this.ac1.findClothing(address));
+        address.setMatchCount(1);
+        assertEquals(Collections.singletonList(shirt), this.ac1.findClothing(address));
+        address.setMatchCount(-1);
+        assertTrue(this.ac1.findClothing(address).isEmpty());
+        assertTrue(this.ac2.findClothing(new ClothingAddress()).isEmpty());
+    }
+
     @Test
     void testAddCloset() {
         assertTrue(this.ac1.addCloset("A"));
@@ -69,6 +94,18 @@ public class AccountTest {
         assertFalse(this.ac1.removeCloset("C"));
     }
 
+    @Test
+    void testRemoveClosetDetaches() {
+        this.ac1.addCloset("A");
+        Closet a = this.ac1.getCloset("A").get();
+        Clothing hat = new Clothing(Collections.singletonList("hat"), Size.S,
+                "Nike", "Wool", new ArrayList<>(), new ArrayList<>(), false);
+        a.addClothing(hat);
+        this.ac1.removeCloset("A");
+        hat.setBrand("Puma");
+        assertTrue(a.getBrands().contains("Nike"));
+    }
+
     @Test
     void testHasCloset() {
         assertFalse(this.ac1.hasCloset("A"));
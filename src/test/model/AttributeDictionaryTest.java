@@ -0,0 +1,91 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeDictionaryTest {
+
+    @Test
+    void testCanonical() {
+        String first = AttributeDictionary.canonical(ClothingAttribute.BRAND, new String("Dictionary Brand"));
+        int size = AttributeDictionary.size();
+        assertSame(first, AttributeDictionary.canonical(ClothingAttribute.BRAND, new String("Dictionary Brand")));
+        assertSame(first, AttributeDictionary.canonical(ClothingAttribute.COLOR, "Dictionary Brand"));
+        assertTrue(AttributeDictionary.size() <= size);
+        assertEquals("Dictionary brand", AttributeDictionary.canonical(ClothingAttribute.STYLE, "Dictionary brand"));
+        assertNull(AttributeDictionary.canonical(ClothingAttribute.MATERIAL, null));
+    }
+
+    @Test
+    void testUnusedValuesDropped() throws InterruptedException {
+        WeakReference<String> dropped = new WeakReference<>(
+                AttributeDictionary.canonical(ClothingAttribute.BRAND, new String("Dropped Brand")));
+        for (int i = 0; i < 50 && dropped.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(dropped.get());
+        String again = new String("Dropped Brand");
+        assertSame(again, AttributeDictionary.canonical(ClothingAttribute.BRAND, again));
+    }
+
+    @Test
+    void testCanonicalConcurrently() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int t = 0; t < 4; ++t) {
+            results.add(pool.submit(() -> {
+                List<String> values = new ArrayList<>();
+                for (int i = 0; i < 1000; ++i) {
+                    values.add(AttributeDictionary.canonical(ClothingAttribute.COLOR, new String("shade" + i)));
+                }
+                return values;
+            }));
+        }
+        pool.shutdown();
+        List<String> first = results.get(0).get();
+        for (Future<List<String>> result : results) {
+            List<String> values = result.get();
+            for (int i = 0; i < values.size(); ++i) {
+                assertSame(first.get(i), values.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testTypesLowerCase() {
+        assertSame(AttributeDictionary.canonical(ClothingAttribute.TYPE, "dictionary shirt"),
+                AttributeDictionary.canonical(ClothingAttribute.TYPE, "Dictionary SHIRT"));
+    }
+
+    @Test
+    void testClothingSharesValues() {
+        Clothing a = new Clothing(Collections.singletonList("Shirt"), Size.M, new String("Nike"),
+                new String("Cotton"), Collections.singletonList(new String("casual")),
+                Arrays.asList(new String("red"), "blue"), false);
+        Clothing b = a.copy();
+        b.setBrand(new String("Puma"));
+        b.setBrand(new String("Nike"));
+        b.getColors().set(0, new String("red"));
+        b.getTypes().add("PANTS");
+        assertSame(a.getBrand(), b.getBrand());
+        assertSame(a.getMaterial(), b.getMaterial());
+        assertSame(a.getStyles().get(0), b.getStyles().get(0));
+        assertSame(a.getColors().get(0), b.getColors().get(0));
+        assertSame(a.getTypes().get(0), b.getTypes().get(0));
+        assertEquals(Arrays.asList("shirt", "pants"), b.getTypes());
+        Clothing read = Clothing.fromJson(b.toJson(null));
+        assertSame(b.getBrand(), read.getBrand());
+        assertSame(b.getTypes().get(1), read.getTypes().get(1));
+    }
+}
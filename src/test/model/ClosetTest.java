@@ -1,7 +1,9 @@
 package model;
 
+import model.index.SearchCursor;
 import model.search.ClothingAddress;
 import model.search.ClothingAddressParseException;
+import model.search.ClothingQuery;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -87,6 +89,45 @@ public class ClosetTest {
         assertEquals(this.shirt1, result.get(0), result.get(0).toString());
     }
 
+    @Test
+    void testQuery() throws ClothingAddressParseException {
+        this.closet1.addClothing(this.shirt1);
+        this.closet1.addClothing(this.pants1);
+        List<Clothing> result = this.closet1.query(ClothingQuery.parse(
+                STYLE_CAPTURE_STR + EQUALITY_STR + "casual" + LIST_END_STR
+                        + " AND NOT " + BRAND_CAPTURE_STR + EQUALITY_STR + "Nike" + LIST_END_STR));
+        assertEquals(Collections.singletonList(this.shirt1), result);
+        result = this.closet1.query(ClothingQuery.parse(
+                "(" + IS_DIRTY_CAPTURE_STR + EQUALITY_STR + TRUE_STR + ") OR "
+                        + COLOR_STR + EQUALITY_STR + "yellow" + LIST_END_STR));
+        assertEquals(this.closet1.getClothing(), result);
+    }
+
+    @Test
+    void testFindClosestValues() {
+        this.closet1.addClothing(this.shirt1);
+        this.closet1.addClothing(this.pants1);
+        assertEquals(Collections.singletonList("Adidas"),
+                this.closet1.findClosestValues(ClothingAttribute.BRAND, "addidas"));
+        assertEquals(Collections.singletonList("yellow"),
+                this.closet1.findClosestValues(ClothingAttribute.COLOR, "yelow"));
+        this.closet1.removeClothing(this.pants1);
+        assertTrue(this.closet1.findClosestValues(ClothingAttribute.COLOR, "yelow").isEmpty());
+    }
+
+    @Test
+    void testCompleteValues() {
+        this.closet1.addClothing(this.shirt1);
+        this.closet1.addClothing(this.pants1);
+        assertEquals(Collections.singletonList("Adidas"),
+                this.closet1.completeValues(ClothingAttribute.BRAND, "ad", 5));
+        assertEquals(Arrays.asList("Cotton", "Silk"),
+                this.closet1.completeValues(ClothingAttribute.MATERIAL, "", 5));
+        this.closet1.removeClothing(this.shirt1);
+        assertTrue(this.closet1.completeValues(ClothingAttribute.BRAND, "AD", 5).isEmpty());
+        assertTrue(this.closet1.completeValues(ClothingAttribute.SIZE, "", 5).isEmpty());
+    }
+
     @Test
     void testFindClothingDirty() {
         this.closet1.addClothing(shirt1);
@@ -97,6 +138,34 @@ public class ClosetTest {
         assertEquals(shirt1, result.get(0));
     }
 
+    @Test
+    void testFindAllClothing() {
+        this.closet1.addClothing(this.shirt1);
+        this.closet1.addClothing(this.pants1);
+        ClothingAddress casual = new ClothingAddress();
+        casual.getStyles().add("casual");
+        casual.getBrands().add("Nike");
+        ClothingAddress blue = new ClothingAddress();
+        blue.getColors().add("blue");
+        List<List<Clothing>> found = this.closet1.findAllClothing(Arrays.asList(casual, blue));
+        assertEquals(Arrays.asList(this.shirt1, this.pants1), found.get(0));
+        assertEquals(Collections.singletonList(this.shirt1), found.get(1));
+    }
+
+    @Test
+    void testSearchClothing() {
+        this.closet1.addClothing(this.shirt1);
+        this.closet1.addClothing(this.pants1);
+        ClothingAddress casual = new ClothingAddress();
+        casual.getStyles().add("casual");
+        casual.getBrands().add("Nike");
+        SearchCursor cursor = this.closet1.searchClothing(casual, 1, null);
+        assertEquals(Collections.singletonList(this.pants1), cursor.nextPage());
+        cursor = this.closet1.searchClothing(casual, 1, cursor.getPageToken());
+        assertEquals(Collections.singletonList(this.shirt1), cursor.nextPage());
+        assertFalse(cursor.hasNext());
+    }
+
     @Test
     void testFindClothingNoneMatch() {
         this.closet1.addClothing(shirt1);
@@ -256,4 +325,73 @@ public class ClosetTest {
         assertEquals(this.closet1.getClothing(), c.getClothing());
     }
 
+    @Test
+    void testMutatedClothingReindexed() {
+        this.closet1.addClothing(shirt1);
+        this.closet1.addClothing(pants1);
+        this.shirt1.setBrand("Puma");
+        this.shirt1.getColors().add("green");
+        assertFalse(this.closet1.getBrands().contains("Adidas"));
+        assertTrue(this.closet1.getBrands().contains("Puma"));
+        assertTrue(this.closet1.getColors().contains("green"));
+        assertEquals(Arrays.asList(pants1, shirt1), this.closet1.getClothing());
+
+        ClothingAddress address = new ClothingAddress();
+        address.getBrands().add("Puma");
+        assertEquals(Collections.singletonList(shirt1), this.closet1.findClothing(address));
+        address.getBrands().set(0, "Adidas");
+        assertTrue(this.closet1.findClothing(address).isEmpty());
+
+        this.closet1.removeClothing(shirt1);
+        this.shirt1.setBrand("Adidas");
+        assertFalse(this.closet1.getBrands().contains("Adidas"));
+    }
+
+    @Test
+    void testSetAllDirty() {
+        this.closet1.addClothing(shirt1);
+        this.closet1.addClothing(pants1);
+        Closet other = new Closet("C2");
+        other.addClothing(pants1);
+        this.closet1.setAllDirty(true);
+        assertTrue(shirt1.isDirty());
+        assertTrue(pants1.isDirty());
+
+        ClothingAddress address = new ClothingAddress();
+        address.setIsDirty(true);
+        assertEquals(2, this.closet1.findClothing(address).size());
+        assertEquals(Collections.singletonList(pants1), other.findClothing(address));
+        address.setIsDirty(false);
+        assertTrue(this.closet1.findClothing(address).isEmpty());
+        assertTrue(other.findClothing(address).isEmpty());
+    }
+
+    @Test
+    void testAddAll() {
+        this.closet1.addClothing(shirt1);
+        this.closet1.addAll(Arrays.asList(pants1, shirt1.copy(), pants1));
+        assertEquals(Arrays.asList(shirt1, pants1), this.closet1.getClothing());
+        assertSame(shirt1, this.closet1.getClothing().get(0));
+        assertTrue(this.closet1.getBrands().containsAll(Arrays.asList("Nike", "Adidas")));
+
+        ClothingAddress address = new ClothingAddress();
+        address.getStyles().add("casual");
+        assertEquals(2, this.closet1.findClothing(address).size());
+        pants1.setBrand("Puma");
+        assertTrue(this.closet1.getBrands().contains("Puma"));
+    }
+
+    @Test
+    void testRemoveAll() {
+        this.closet1.addAll(Arrays.asList(shirt1, pants1));
+        this.closet1.removeAll(Arrays.asList(pants1.copy(), pants1));
+        assertEquals(Collections.singletonList(shirt1), this.closet1.getClothing());
+        assertFalse(this.closet1.getBrands().contains("Nike"));
+        pants1.setBrand("Puma");
+        assertFalse(this.closet1.getBrands().contains("Puma"));
+        this.closet1.removeAll(Collections.singletonList(shirt1));
+        assertTrue(this.closet1.getClothing().isEmpty());
+        assertTrue(this.closet1.getBrands().isEmpty());
+    }
+
 }
@@ -1,9 +1,14 @@
 package model;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import persistance.JsonStreamReader;
+
+import java.io.IOException;
+import java.io.StringReader;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -143,12 +148,87 @@ public class ClothingTest {
         assertEquals(c, cl);
     }
 
+    @Test
+    void testFromJsonStream() throws IOException {
+        JSONObject jso = cl.toJson(null);
+        assertEquals(cl, readStream(jso));
+        for (String key : Arrays.asList(JSON_STYLES_KEY, JSON_TYPES_KEY, JSON_BRAND_KEY, JSON_SIZE_KEY,
+                JSON_DIRTY_KEY, JSON_MATERIAL_KEY, JSON_COLORS_KEY)) {
+            JSONObject missing = new JSONObject(jso.toString());
+            missing.remove(key);
+            JSONException e = assertThrows(JSONException.class, () -> readStream(missing));
+            assertTrue(e.getMessage().contains(key));
+        }
+    }
+
+    @Test
+    void testFromJsonStreamBadSize() {
+        JSONObject jso = cl.toJson(null).put(JSON_SIZE_KEY, "HUGE");
+        JSONException e = assertThrows(JSONException.class, () -> readStream(jso));
+        assertTrue(e.getMessage().contains(JSON_SIZE_KEY));
+    }
+
+    // Reads clothing from the given JSON object as a stream
+    private static Clothing readStream(JSONObject jso) throws IOException {
+        try (JsonStreamReader jsr = new JsonStreamReader(new StringReader(jso.toString()))) {
+            return Clothing.fromJsonStream(jsr);
+        }
+    }
+
     @Test
     void testEquals() {
         assertNotEquals(cl, "ABC");
         assertEquals(cl, cl);
     }
 
+    @Test
+    void testHashCode() {
+        Clothing other = cl.copy();
+        assertEquals(cl.hashCode(), other.hashCode());
+        other.setBrand("Nike");
+        assertNotEquals(cl, other);
+        other.setBrand(cl.getBrand());
+        assertEquals(cl.hashCode(), other.hashCode());
+    }
+
+    @Test
+    void testCompareToAfterListMutation() {
+        Clothing other = cl.copy();
+        other.getColors().set(0, "red");
+        assertEquals("orange".compareTo("red"), cl.compareTo(other));
+        other.getColors().remove(0);
+        other.getColors().add("orange");
+        assertEquals(cl, other);
+        assertEquals(cl.hashCode(), other.hashCode());
+        other.getStyles().add(0, "Formal");
+        assertTrue(cl.compareTo(other) < 0);
+    }
+
+    @Test
+    void testListeners() {
+        List<String> events = new ArrayList<>();
+        ClothingListener listener = new ClothingListener() {
+            @Override
+            public void attributeChanging(Clothing clothing, ClothingAttribute attribute) {
+                events.add("changing " + attribute + " " + clothing.getBrand());
+            }
+
+            @Override
+            public void attributeChanged(Clothing clothing, ClothingAttribute attribute) {
+                events.add("changed " + attribute + " " + clothing.getBrand());
+            }
+        };
+        cl.addListener(listener);
+        cl.addListener(listener);
+        cl.setBrand("Nike");
+        cl.setBrand("Nike");
+        cl.getTypes().add("shorts");
+        cl.removeListener(listener);
+        cl.setDirty(true);
+        assertEquals(Arrays.asList("changing BRAND Adidas", "changed BRAND Nike",
+                "changing TYPE Nike", "changed TYPE Nike"), events);
+    }
+
     @Test
     void testCopy() {
         Clothing other = cl.copy();
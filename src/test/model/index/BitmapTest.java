@@ -0,0 +1,147 @@
+package model.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapTest {
+
+    private Bitmap bitmap;
+
+    @BeforeEach
+    void setup() {
+        this.bitmap = new Bitmap();
+    }
+
+    @Test
+    void testConstructor() {
+        assertTrue(this.bitmap.isEmpty());
+        assertEquals(0, this.bitmap.cardinality());
+        assertFalse(this.bitmap.isDense());
+        assertFalse(this.bitmap.contains(0));
+        assertArrayEquals(new int[0], this.bitmap.toArray());
+    }
+
+    @Test
+    void testAddSparse() {
+        assertTrue(this.bitmap.add(500));
+        assertTrue(this.bitmap.add(3));
+        assertFalse(this.bitmap.add(500));
+        assertFalse(this.bitmap.isDense());
+        assertEquals(2, this.bitmap.cardinality());
+        assertTrue(this.bitmap.contains(3));
+        assertTrue(this.bitmap.contains(500));
+        assertFalse(this.bitmap.contains(4));
+        assertArrayEquals(new int[]{3, 500}, this.bitmap.toArray());
+    }
+
+    @Test
+    void testAddBecomesDense() {
+        for (int i = 0; i < 200; i += 2) {
+            this.bitmap.add(i);
+        }
+        assertTrue(this.bitmap.isDense());
+        assertEquals(100, this.bitmap.cardinality());
+        assertTrue(this.bitmap.contains(198));
+        assertFalse(this.bitmap.contains(199));
+        assertFalse(this.bitmap.contains(10000));
+        assertFalse(this.bitmap.add(4));
+        assertTrue(this.bitmap.add(10000));
+        assertTrue(this.bitmap.contains(10000));
+    }
+
+    @Test
+    void testRemove() {
+        this.bitmap.add(1);
+        this.bitmap.add(7);
+        assertTrue(this.bitmap.remove(1));
+        assertFalse(this.bitmap.remove(1));
+        assertArrayEquals(new int[]{7}, this.bitmap.toArray());
+    }
+
+    @Test
+    void testRemoveBecomesSparse() {
+        for (int i = 0; i < 256; ++i) {
+            this.bitmap.add(i);
+        }
+        assertTrue(this.bitmap.isDense());
+        for (int i = 0; i < 255; ++i) {
+            assertTrue(this.bitmap.remove(i));
+        }
+        assertFalse(this.bitmap.remove(1000));
+        assertFalse(this.bitmap.isDense());
+        assertArrayEquals(new int[]{255}, this.bitmap.toArray());
+        assertTrue(this.bitmap.add(3));
+        assertArrayEquals(new int[]{3, 255}, this.bitmap.toArray());
+    }
+
+    @Test
+    void testAddTo() {
+        int[] counts = new int[300];
+        this.bitmap.add(2);
+        this.bitmap.addTo(counts);
+        for (int i = 0; i < 300; i += 3) {
+            this.bitmap.add(i);
+        }
+        assertTrue(this.bitmap.isDense());
+        this.bitmap.addTo(counts);
+        assertEquals(1, counts[0]);
+        assertEquals(2, counts[2]);
+        assertEquals(0, counts[1]);
+        assertEquals(1, counts[297]);
+    }
+
+    @Test
+    void testAddAll() {
+        Bitmap sparse = new Bitmap();
+        sparse.add(7);
+        sparse.add(2);
+        Bitmap dense = new Bitmap();
+        for (int i = 0; i < 100; i += 2) {
+            dense.add(i);
+        }
+        assertTrue(dense.isDense());
+
+        this.bitmap.addAll(sparse);
+        assertArrayEquals(new int[]{2, 7}, this.bitmap.toArray());
+        this.bitmap.addAll(dense);
+        assertTrue(this.bitmap.isDense());
+        assertEquals(51, this.bitmap.cardinality());
+        assertTrue(this.bitmap.contains(7));
+        assertTrue(this.bitmap.contains(98));
+
+        Bitmap empty = new Bitmap();
+        empty.addAll(dense);
+        assertEquals(50, empty.cardinality());
+        assertArrayEquals(dense.toArray(), empty.toArray());
+        empty.addAll(new Bitmap());
+        assertEquals(50, empty.cardinality());
+    }
+
+    @Test
+    void testPreviousValue() {
+        assertEquals(-1, this.bitmap.previousValue(Integer.MAX_VALUE));
+        this.bitmap.add(3);
+        this.bitmap.add(40);
+        assertFalse(this.bitmap.isDense());
+        assertEquals(40, this.bitmap.previousValue(Integer.MAX_VALUE));
+        assertEquals(40, this.bitmap.previousValue(40));
+        assertEquals(3, this.bitmap.previousValue(39));
+        assertEquals(-1, this.bitmap.previousValue(2));
+        assertEquals(-1, this.bitmap.previousValue(-1));
+
+        Bitmap dense = new Bitmap();
+        for (int i = 0; i < 200; i += 3) {
+            dense.add(i);
+        }
+        dense.add(64);
+        assertTrue(dense.isDense());
+        assertEquals(198, dense.previousValue(Integer.MAX_VALUE));
+        assertEquals(195, dense.previousValue(197));
+        assertEquals(64, dense.previousValue(65));
+        assertEquals(63, dense.previousValue(63));
+        assertEquals(0, dense.previousValue(2));
+        assertEquals(-1, dense.previousValue(-5));
+    }
+}
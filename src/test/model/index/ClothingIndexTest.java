@@ -0,0 +1,261 @@
+package model.index;
+
+import model.Clothing;
+import model.ClothingAttribute;
+import model.Size;
+import model.search.ClothingAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClothingIndexTest {
+
+    private ClothingIndex index;
+    private Clothing shirt;
+    private Clothing pants;
+
+    @BeforeEach
+    void setup() {
+        this.index = new ClothingIndex();
+        this.shirt = new Clothing(Collections.singletonList("shirt"),
+                Size.M,
+                "Nike",
+                "Cotton",
+                Collections.singletonList("casual"),
+                Arrays.asList("red", "blue"),
+                false);
+        this.pants = new Clothing(Collections.singletonList("pants"),
+                Size.L,
+                "Nike",
+                "Denim",
+                Collections.singletonList("formal"),
+                Collections.singletonList("blue"),
+                true);
+    }
+
+    @Test
+    void testAddRemove() {
+        this.index.add(this.shirt);
+        this.index.add(this.shirt);
+        assertEquals(1, this.index.size());
+        assertTrue(this.index.getColors().containsAll(Arrays.asList("red", "blue")));
+        this.index.add(this.pants);
+        this.index.remove(this.shirt);
+        this.index.remove(this.shirt);
+        assertEquals(1, this.index.size());
+        assertEquals(Collections.singleton("blue"), this.index.getColors());
+        assertEquals(Collections.singleton("pants"), this.index.getTypes());
+        assertEquals(Collections.singleton("formal"), this.index.getStyles());
+        assertEquals(Collections.singleton(Size.L), this.index.getSizes());
+        assertEquals(Collections.singleton("Nike"), this.index.getBrands());
+    }
+
+    @Test
+    void testRemoveReusesOrdinal() {
+        this.index.add(this.shirt);
+        this.index.remove(this.shirt);
+        this.index.add(this.pants);
+        ClothingAddress address = new ClothingAddress();
+        address.getBrands().add("Nike");
+        assertEquals(Collections.singletonList(this.pants), this.index.find(address));
+    }
+
+    @Test
+    void testFindOrdersByMatches() {
+        this.index.add(this.shirt);
+        this.index.add(this.pants);
+        ClothingAddress address = new ClothingAddress();
+        address.getColors().addAll(Arrays.asList("red", "blue"));
+        address.setIsDirty(false);
+        List<Clothing> found = this.index.find(address);
+        assertEquals(Arrays.asList(this.pants, this.shirt), found);
+
+        address.setMatchCount(1);
+        assertEquals(Collections.singletonList(this.shirt), this.index.find(address));
+        address.setMatchCount(-1);
+        assertTrue(this.index.find(address).isEmpty());
+    }
+
+    @Test
+    void testScoresOf() {
+        this.index.add(this.shirt);
+        this.index.add(this.pants);
+        ClothingAddress address = new ClothingAddress();
+        address.getBrands().add("Nike");
+        address.getColors().add("red");
+        address.setWeight(ClothingAttribute.COLOR, 4);
+        assertArrayEquals(new int[]{1, 5}, this.index.scoresOf(address, Arrays.asList(this.pants, this.shirt)));
+        assertArrayEquals(new int[0], this.index.scoresOf(address, Collections.emptyList()));
+    }
+
+    @Test
+    void testFindManyClothing() {
+        for (int i = 0; i < 1000; ++i) {
+            this.index.add(new Clothing(Collections.singletonList("shirt"),
+                    Size.S,
+                    "Brand" + (i % 10),
+                    "Cotton",
+                    Collections.emptyList(),
+                    Collections.emptyList(),
+                    i % 2 == 0));
+        }
+        ClothingAddress address = new ClothingAddress();
+        address.getBrands().add("Brand3");
+        address.setIsDirty(false);
+        List<Clothing> found = this.index.find(address);
+        assertEquals(500, found.size());
+        assertEquals("Brand3", found.get(found.size() - 1).getBrand());
+        assertEquals(found.size(), this.index.find(address).size());
+    }
+
+    @Test
+    void testFindTopKeepsBestAndLatestTies() {
+        Clothing hat = new Clothing(Collections.singletonList("hat"),
+                Size.S,
+                "Nike",
+                "Wool",
+                Collections.singletonList("casual"),
+                Collections.singletonList("green"),
+                false);
+        this.index.add(this.shirt);
+        this.index.add(this.pants);
+        this.index.add(hat);
+        ClothingAddress address = new ClothingAddress();
+        address.getBrands().add("Nike");
+        address.getStyles().add("casual");
+        address.setMatchCount(2);
+        assertEquals(Arrays.asList(this.shirt, hat), this.index.find(address));
+        address.setMatchCount(1);
+        assertEquals(Collections.singletonList(hat), this.index.find(address));
+        address.setMatchCount(0);
+        assertTrue(this.index.find(address).isEmpty());
+        address.setMatchCount(3);
+        assertEquals(Arrays.asList(this.pants, this.shirt, hat), this.index.find(address));
+    }
+
+    @Test
+    void testFindWeighted() {
+        this.index.add(this.shirt);
+        this.index.add(this.pants);
+        ClothingAddress address = new ClothingAddress();
+        address.getTypes().add("pants");
+        address.getColors().add("red");
+        address.getStyles().add("casual");
+        assertEquals(Arrays.asList(this.pants, this.shirt), this.index.find(address));
+        address.setWeight(ClothingAttribute.TYPE, 5);
+        assertEquals(Arrays.asList(this.shirt, this.pants), this.index.find(address));
+        address.setMatchCount(1);
+        assertEquals(Collections.singletonList(this.pants), this.index.find(address));
+        address.setWeight(ClothingAttribute.TYPE, 0);
+        address.setMatchCount(Integer.MAX_VALUE);
+        assertEquals(Collections.singletonList(this.shirt), this.index.find(address));
+    }
+
+    private void addRandomClothing(Random random, int count) {
+        for (int i = 0; i < count; ++i) {
+            this.index.add(new Clothing(Collections.singletonList("type" + random.nextInt(4)),
+                    Size.values()[random.nextInt(Size.values().length)],
+                    "Brand" + random.nextInt(6),
+                    "Material" + random.nextInt(3),
+                    Collections.singletonList("style" + random.nextInt(5)),
+                    Arrays.asList("color" + random.nextInt(7), "color" + random.nextInt(7)),
+                    random.nextBoolean()));
+        }
+    }
+
+    @Test
+    void testThresholdMatchesFullScoring() {
+        this.addRandomClothing(new Random(19), 300);
+        ClothingAddress address = new ClothingAddress();
+        address.getTypes().add("type1");
+        address.getBrands().addAll(Arrays.asList("Brand2", "Brand5"));
+        address.getColors().addAll(Arrays.asList("color0", "color3"));
+        address.getSizes().add(Size.M);
+        address.setIsDirty(true);
+        address.setWeight(ClothingAttribute.TYPE, 4);
+        address.setWeight(ClothingAttribute.BRAND, 2);
+        address.setWeight(ClothingAttribute.MATERIAL, 7);
+        List<Clothing> all = this.index.find(address);
+        for (int k : new int[]{0, 1, 5, 17, 64, 299}) {
+            address.setMatchCount(k);
+            List<Clothing> top = this.index.find(address);
+            assertEquals(all.subList(all.size() - Math.min(k, all.size()), all.size()), top);
+            for (int i = 0; i < top.size(); ++i) {
+                assertSame(all.get(all.size() - top.size() + i), top.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testFindConcurrently() throws InterruptedException, ExecutionException {
+        this.addRandomClothing(new Random(25), 400);
+        List<ClothingAddress> addresses = new ArrayList<>();
+        for (int q = 0; q < 60; ++q) {
+            ClothingAddress address = new ClothingAddress();
+            address.getBrands().add("Brand" + q % 6);
+            address.getColors().add("color" + q % 7);
+            addresses.add(address);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<List<Clothing>>> results = new ArrayList<>();
+        for (ClothingAddress address : addresses) {
+            results.add(pool.submit(() -> this.index.find(address)));
+        }
+        pool.shutdown();
+        for (int q = 0; q < addresses.size(); ++q) {
+            assertEquals(this.index.find(addresses.get(q)), results.get(q).get());
+        }
+    }
+
+    @Test
+    void testFindAllMatchesFind() {
+        this.addRandomClothing(new Random(23), 200);
+        Random random = new Random(24);
+        List<ClothingAddress> addresses = new ArrayList<>();
+        for (int q = 0; q < 40; ++q) {
+            ClothingAddress address = new ClothingAddress();
+            address.getTypes().add("type" + random.nextInt(3));
+            address.getBrands().add("Brand" + random.nextInt(6));
+            address.getColors().add("color" + random.nextInt(4));
+            address.setWeight(ClothingAttribute.BRAND, 1 + random.nextInt(3));
+            address.setMatchCount(q % 4 == 0 ? Integer.MAX_VALUE : random.nextInt(30));
+            addresses.add(address);
+        }
+        List<List<Clothing>> found = this.index.findAll(addresses);
+        assertEquals(addresses.size(), found.size());
+        for (int q = 0; q < addresses.size(); ++q) {
+            assertEquals(this.index.find(addresses.get(q)), found.get(q));
+        }
+        assertEquals(found, this.index.findAll(addresses, 7));
+        assertEquals(found, this.index.findAll(addresses, 1));
+        assertTrue(this.index.findAll(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    void testFindFuzzy() {
+        this.index.add(this.shirt);
+        this.index.add(this.pants);
+        ClothingAddress address = new ClothingAddress();
+        address.getMaterials().add("denin");
+        address.getColors().add("rd");
+        assertTrue(this.index.find(address).isEmpty());
+        address.setFuzzy(true);
+        assertEquals(Collections.singletonList(this.pants), this.index.find(address));
+        address.getColors().set(0, "reed");
+        assertEquals(Arrays.asList(this.shirt, this.pants), this.index.find(address));
+        assertEquals(Collections.singletonList("Nike"), this.index.closestKeys(ClothingAttribute.BRAND, "nikee"));
+        assertEquals(Collections.singletonList("formal"), this.index.closestKeys(ClothingAttribute.STYLE, "FORMEL"));
+        assertTrue(this.index.closestKeys(ClothingAttribute.SIZE, "M").isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package model.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieTest {
+
+    private CompletionTrie trie;
+
+    @BeforeEach
+    void setup() {
+        this.trie = new CompletionTrie();
+        this.trie.set("Nike", 3);
+        this.trie.set("Nautica", 3);
+        this.trie.set("navy", 5);
+        this.trie.set("New Balance", 1);
+        this.trie.set("Puma", 2);
+    }
+
+    @Test
+    void testCompleteByFrequency() {
+        assertEquals(Arrays.asList("navy", "Nautica", "Nike", "New Balance"), this.trie.complete("n", 10));
+        assertEquals(Arrays.asList("navy", "Nautica"), this.trie.complete("NA", 10));
+        assertEquals(Arrays.asList("navy", "Nautica", "Nike", "Puma", "New Balance"), this.trie.complete("", 10));
+        assertEquals(Collections.singletonList("Nike"), this.trie.complete("nike", 10));
+        assertTrue(this.trie.complete("nikes", 10).isEmpty());
+        assertTrue(this.trie.complete("g", 10).isEmpty());
+    }
+
+    @Test
+    void testCompleteLimited() {
+        assertEquals(Arrays.asList("navy", "Nautica"), this.trie.complete("n", 2));
+        assertTrue(this.trie.complete("n", 0).isEmpty());
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < CompletionTrie.MAX_COMPLETIONS + 5; ++i) {
+            this.trie.set("blue" + i, 1);
+        }
+        many.addAll(this.trie.complete("blue", 100));
+        assertEquals(CompletionTrie.MAX_COMPLETIONS, many.size());
+    }
+
+    @Test
+    void testSetCount() {
+        this.trie.set("New Balance", 6);
+        assertEquals(Arrays.asList("New Balance", "navy"), this.trie.complete("n", 2));
+        this.trie.set("navy", 0);
+        assertEquals(Arrays.asList("New Balance", "Nautica", "Nike"), this.trie.complete("n", 10));
+        assertEquals(Collections.singletonList("Nautica"), this.trie.complete("na", 10));
+        this.trie.set("Nautica", 0);
+        assertTrue(this.trie.complete("na", 10).isEmpty());
+        this.trie.set("NIKE", 1);
+        assertEquals(Arrays.asList("Nike", "NIKE"), this.trie.complete("nike", 10));
+    }
+
+    @Test
+    void testCompleteBetweenChanges() {
+        assertEquals(Collections.singletonList("navy"), this.trie.complete("n", 1));
+        for (int i = 1; i <= 20; ++i) {
+            this.trie.set("nylon", i);
+            this.trie.set("navy", 0);
+            assertEquals(Collections.singletonList("nylon"), this.trie.complete("ny", 1));
+        }
+        assertEquals(Arrays.asList("nylon", "Nautica", "Nike"), this.trie.complete("n", 3));
+        assertEquals(Collections.singletonList("Nautica"), this.trie.complete("na", 10));
+    }
+}
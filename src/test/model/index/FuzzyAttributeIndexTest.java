@@ -0,0 +1,118 @@
+package model.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyAttributeIndexTest {
+
+    private FuzzyAttributeIndex index;
+
+    @BeforeEach
+    void setup() {
+        this.index = new FuzzyAttributeIndex();
+        List<String> keys = Arrays.asList("Adidas", "Nike", "Puma", "navy blue", "navy", "blue", "Reebok");
+        for (int i = 0; i < keys.size(); ++i) {
+            this.index.add(keys.get(i), i);
+        }
+    }
+
+    @Test
+    void testDistance() {
+        assertEquals(0, FuzzyAttributeIndex.distance("", ""));
+        assertEquals(3, FuzzyAttributeIndex.distance("", "abc"));
+        assertEquals(1, FuzzyAttributeIndex.distance("addidas", "adidas"));
+        assertEquals(3, FuzzyAttributeIndex.distance("kitten", "sitting"));
+    }
+
+    @Test
+    void testTolerance() {
+        assertEquals(0, FuzzyAttributeIndex.toleranceFor("xs"));
+        assertEquals(1, FuzzyAttributeIndex.toleranceFor("nikey"));
+        assertEquals(2, FuzzyAttributeIndex.toleranceFor("navy blu"));
+    }
+
+    @Test
+    void testClosestKeys() {
+        assertEquals(Collections.singletonList("Adidas"), this.index.closestKeys("addidas", 2));
+        assertEquals(Collections.singletonList("navy blue"), this.index.closestKeys("NAVY BLU", 2));
+        assertEquals(Collections.singletonList("Nike"), this.index.closestKeys("nike", 2));
+        assertTrue(this.index.closestKeys("gucci", 2).isEmpty());
+        List<String> tied = this.index.closestKeys("nima", 2);
+        Collections.sort(tied);
+        assertEquals(Arrays.asList("Nike", "Puma"), tied);
+    }
+
+    @Test
+    void testRemovedKeysNotFound() {
+        this.index.remove("Adidas", 0);
+        assertTrue(this.index.closestKeys("addidas", 2).isEmpty());
+        this.index.add("Adidas", 9);
+        assertEquals(Collections.singletonList("Adidas"), this.index.closestKeys("addidas", 2));
+        this.index.remove("Nike", 1);
+        this.index.remove("Puma", 2);
+        this.index.remove("navy blue", 3);
+        this.index.remove("navy", 4);
+        assertTrue(this.index.closestKeys("nike", 1).isEmpty());
+        assertEquals(Collections.singletonList("blue"), this.index.closestKeys("blu", 1));
+        assertEquals(Collections.singletonList("Reebok"), this.index.closestKeys("rebok", 1));
+        this.index.clear();
+        assertTrue(this.index.closestKeys("navy", 2).isEmpty());
+        this.index.add("Puma", 0);
+        assertEquals(Collections.singletonList("Puma"), this.index.closestKeys("pumas", 1));
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        Random random = new Random(20);
+        FuzzyAttributeIndex big = new FuzzyAttributeIndex();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            String key = randomWord(random);
+            keys.add(key);
+            big.add(key, i);
+        }
+        for (int i = 0; i < 200; i += 2) {
+            big.remove(keys.get(i), i);
+        }
+        for (int q = 0; q < 50; ++q) {
+            String token = randomWord(random);
+            List<String> expected = linearClosest(big, token, 2);
+            List<String> actual = big.closestKeys(token, 2);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual, token);
+        }
+    }
+
+    private static List<String> linearClosest(FuzzyAttributeIndex index, String token, int maxDistance) {
+        int best = maxDistance + 1;
+        List<String> closest = new ArrayList<>();
+        for (String key : index.keySet()) {
+            int d = FuzzyAttributeIndex.distance(key.toLowerCase(), token);
+            if (d < best) {
+                best = d;
+                closest.clear();
+            }
+            if (d == best) {
+                closest.add(key);
+            }
+        }
+        return closest;
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 3 + random.nextInt(4); i > 0; --i) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
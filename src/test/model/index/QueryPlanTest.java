@@ -0,0 +1,113 @@
+package model.index;
+
+import model.Clothing;
+import model.Size;
+import model.search.ClothingAddressParseException;
+import model.search.ClothingQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlanTest {
+
+    private ClothingIndex index;
+    private List<Clothing> clothing;
+
+    @BeforeEach
+    void setup() {
+        this.index = new ClothingIndex();
+        this.clothing = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            Clothing c = new Clothing(Collections.singletonList(i % 2 == 0 ? "shirt" : "pants"),
+                    i < 4 ? Size.XS : Size.M,
+                    i % 10 == 0 ? "Gucci" : "Nike",
+                    "Cotton",
+                    Collections.singletonList("casual"),
+                    Collections.singletonList(i % 4 == 0 ? "red" : "blue"),
+                    i % 3 == 0);
+            this.clothing.add(c);
+            this.index.add(c);
+        }
+    }
+
+    private QueryPlan plan(String expr) throws ClothingAddressParseException {
+        return QueryPlan.compile(ClothingQuery.parse(expr), this.index);
+    }
+
+    @Test
+    void testTermEstimate() throws ClothingAddressParseException {
+        assertEquals(20, this.plan("type=shirt;").getEstimate());
+        assertEquals(36, this.plan("brand=Nike;").getEstimate());
+        assertEquals(40, this.plan("size=xs; or brand=Nike;").getEstimate());
+        assertEquals(40, this.plan("type=shirt,pants;").getEstimate());
+        assertTrue(this.plan("type=hat;").isEmpty());
+        assertEquals(36, this.plan("not size=xs;").getEstimate());
+    }
+
+    @Test
+    void testAndOrdersBySelectivity() throws ClothingAddressParseException {
+        QueryPlan plan = this.plan("type=shirt; AND size=xs; AND brand=Gucci;");
+        List<Integer> estimates = new ArrayList<>();
+        for (QueryPlan operand : plan.getOperands()) {
+            estimates.add(operand.getEstimate());
+        }
+        assertEquals(Arrays.asList(4, 4, 20), estimates);
+        assertEquals(4, plan.getEstimate());
+        assertArrayEquals(new int[]{0}, plan.execute(this.index).toArray());
+    }
+
+    @Test
+    void testEmptyIntersectionShortCircuits() throws ClothingAddressParseException {
+        QueryPlan plan = this.plan("type=shirt; AND color=green; AND NOT dirty=yes");
+        assertTrue(plan.isEmpty());
+        assertTrue(plan.getOperands().get(0).isEmpty());
+        assertTrue(plan.execute(this.index).isEmpty());
+        assertTrue(this.plan("type=hat; OR color=green;").isEmpty());
+        assertFalse(this.plan("NOT type=hat;").isEmpty());
+    }
+
+    @Test
+    void testExecute() throws ClothingAddressParseException {
+        assertArrayEquals(new int[]{1, 3, 5, 7, 9, 11, 13, 15, 17, 19, 21, 23, 25, 27, 29, 31, 33, 35, 37, 39},
+                this.plan("NOT type=shirt;").execute(this.index).toArray());
+        assertArrayEquals(new int[]{0, 2, 4, 8, 12, 16, 20, 24, 28, 32, 36},
+                this.plan("size=xs; type=shirt; OR color=red; ").execute(this.index).toArray());
+        assertArrayEquals(new int[]{6, 18, 30},
+                this.plan("dirty=yes AND NOT (color=red; OR type=pants;)").execute(this.index).toArray());
+        assertArrayEquals(new int[]{2},
+                this.plan("NOT dirty=yes AND type=shirt; AND size=xs;").execute(this.index).toArray());
+    }
+
+    @Test
+    void testMatchesBruteForce() throws ClothingAddressParseException {
+        String expr = "(brand=Gucci; OR NOT color=blue;) AND NOT (dirty=no AND size=m;)";
+        int[] matched = this.plan(expr).execute(this.index).toArray();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            Clothing c = this.clothing.get(i);
+            boolean left = c.getBrand().equals("Gucci") || !c.getColors().contains("blue");
+            boolean right = !c.isDirty() && c.getSize() == Size.M;
+            if (left && !right) {
+                expected.add(i);
+            }
+        }
+        assertEquals(expected.size(), matched.length);
+        for (int i = 0; i < matched.length; ++i) {
+            assertEquals((int) expected.get(i), matched[i]);
+        }
+    }
+
+    @Test
+    void testPlanSeesIndexChanges() throws ClothingAddressParseException {
+        this.index.remove(this.clothing.get(0));
+        assertEquals(3, this.plan("size=xs;").getEstimate());
+        assertEquals(39, this.plan("NOT type=hat;").getEstimate());
+        assertArrayEquals(new int[]{2}, this.plan("size=xs; AND type=shirt;").execute(this.index).toArray());
+    }
+}
@@ -0,0 +1,125 @@
+package model.index;
+
+import model.Clothing;
+import model.ClothingAttribute;
+import model.Size;
+import model.search.ClothingAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCursorTest {
+
+    private ClothingIndex index;
+    private ClothingAddress address;
+    private List<Clothing> bestFirst;
+
+    @BeforeEach
+    void setup() {
+        this.index = new ClothingIndex();
+        Random random = new Random(24);
+        for (int i = 0; i < 250; ++i) {
+            this.index.add(new Clothing(Collections.singletonList("type" + random.nextInt(4)),
+                    Size.values()[random.nextInt(Size.values().length)],
+                    "Brand" + random.nextInt(6),
+                    "Material" + random.nextInt(3),
+                    Collections.singletonList("style" + random.nextInt(5)),
+                    Collections.singletonList("color" + random.nextInt(7)),
+                    random.nextBoolean()));
+        }
+        this.address = new ClothingAddress();
+        this.address.getTypes().add("type2");
+        this.address.getBrands().addAll(Arrays.asList("Brand1", "Brand4"));
+        this.address.getColors().add("color6");
+        this.address.setWeight(ClothingAttribute.BRAND, 3);
+        this.bestFirst = this.index.find(this.address);
+        Collections.reverse(this.bestFirst);
+    }
+
+    @Test
+    void testIteratesBestFirst() {
+        SearchCursor cursor = this.index.search(this.address, 7, null);
+        List<Clothing> found = new ArrayList<>();
+        cursor.forEachRemaining(found::add);
+        assertEquals(this.bestFirst, found);
+        assertFalse(cursor.hasNext());
+        assertThrows(NoSuchElementException.class, cursor::next);
+        assertTrue(cursor.nextPage().isEmpty());
+    }
+
+    @Test
+    void testPages() {
+        SearchCursor cursor = this.index.search(this.address, 20, null);
+        assertEquals(this.bestFirst.subList(0, 20), cursor.nextPage());
+        assertSame(this.bestFirst.get(20), cursor.next());
+        assertEquals(this.bestFirst.subList(21, 40), cursor.nextPage());
+        assertEquals(this.bestFirst.subList(40, 60), cursor.nextPage());
+    }
+
+    @Test
+    void testResumeFromPageToken() {
+        SearchCursor cursor = this.index.search(this.address, 30, null);
+        List<Clothing> found = new ArrayList<>(cursor.nextPage());
+        cursor.next();
+        String token = cursor.getPageToken();
+        found.add(this.bestFirst.get(30));
+        List<Clothing> page;
+        do {
+            cursor = this.index.search(this.address, 30, token);
+            page = cursor.nextPage();
+            found.addAll(page);
+            token = cursor.getPageToken();
+        } while (!page.isEmpty());
+        assertEquals(this.bestFirst, found);
+        assertThrows(IllegalArgumentException.class, () -> this.index.search(this.address, 30, "xyz"));
+        assertThrows(IllegalArgumentException.class, () -> this.index.search(this.address, 30, "1:2"));
+        assertThrows(IllegalArgumentException.class, () -> this.index.search(this.address, 30, "1:2:3:4"));
+    }
+
+    @Test
+    void testNegativePageTokenRejected() {
+        String modCount = Integer.toHexString(this.index.getModCount());
+        assertThrows(IllegalArgumentException.class, () -> this.index.search(this.address, 30, "-1:-5:" + modCount));
+        assertThrows(IllegalArgumentException.class, () -> this.index.search(this.address, 30, "1:-5:" + modCount));
+        assertThrows(IllegalArgumentException.class, () -> this.index.search(this.address, 30, "-1:5:" + modCount));
+        assertThrows(IllegalArgumentException.class,
+                () -> this.index.search(this.address, 30, "1:80000000:" + modCount));
+    }
+
+    @Test
+    void testChangedIndexFailsFast() {
+        SearchCursor cursor = this.index.search(this.address, 3, null);
+        List<Clothing> page = cursor.nextPage();
+        String token = cursor.getPageToken();
+        for (Clothing c : page) {
+            this.index.remove(c);
+        }
+        assertThrows(ConcurrentModificationException.class, cursor::hasNext);
+        assertThrows(ConcurrentModificationException.class, cursor::nextPage);
+        assertThrows(ConcurrentModificationException.class, () -> this.index.search(this.address, 3, token));
+        SearchCursor fresh = this.index.search(this.address, 3, null);
+        assertEquals(this.bestFirst.subList(3, 6), fresh.nextPage());
+        this.index.reindexAllDirty(true);
+        assertThrows(ConcurrentModificationException.class, fresh::next);
+    }
+
+    @Test
+    void testMatchCountLimitsAcrossPages() {
+        this.address.setMatchCount(25);
+        SearchCursor cursor = this.index.search(this.address, 10, null);
+        assertEquals(10, cursor.nextPage().size());
+        SearchCursor resumed = this.index.search(this.address, 10, cursor.getPageToken());
+        assertEquals(this.bestFirst.subList(10, 20), resumed.nextPage());
+        assertEquals(this.bestFirst.subList(20, 25), resumed.nextPage());
+        assertFalse(resumed.hasNext());
+    }
+}
@@ -0,0 +1,129 @@
+package model.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThresholdSearchTest {
+
+    private static Bitmap bitmapOf(int from, int to) {
+        Bitmap bitmap = new Bitmap();
+        for (int i = from; i < to; ++i) {
+            bitmap.add(i);
+        }
+        return bitmap;
+    }
+
+    private static Bitmap randomBitmap(Random random, int limit) {
+        Bitmap bitmap = new Bitmap();
+        for (int i = 0; i < limit; ++i) {
+            if (random.nextInt(3) == 0) {
+                bitmap.add(i);
+            }
+        }
+        return bitmap;
+    }
+
+    private static List<Long> rankEveryOrdinal(List<Bitmap> buckets, List<Integer> weights, int limit) {
+        List<Long> ranked = new ArrayList<>();
+        for (int i = 0; i < limit; ++i) {
+            long score = 0;
+            for (int b = 0; b < buckets.size(); ++b) {
+                score += buckets.get(b).contains(i) ? weights.get(b) : 0;
+            }
+            if (score > 0) {
+                ranked.add(score << 32 | i);
+            }
+        }
+        ranked.sort(Collections.reverseOrder());
+        return ranked;
+    }
+
+    @Test
+    void testStopsOnceRestCannotWin() {
+        Bitmap heavy = bitmapOf(0, 10);
+        Bitmap light = bitmapOf(5, 1000);
+        ThresholdSearch search = new ThresholdSearch(Arrays.asList(light, heavy), Arrays.asList(1, 5));
+        assertArrayEquals(new int[]{7, 8, 9}, search.top(3));
+        assertEquals(3, search.getScoredCount());
+    }
+
+    @Test
+    void testStopsWithinBucketOnTies() {
+        Bitmap all = bitmapOf(0, 200000);
+        ThresholdSearch search = new ThresholdSearch(Collections.singletonList(all), Collections.singletonList(1));
+        assertArrayEquals(new int[]{199997, 199998, 199999}, search.top(3));
+        assertEquals(3, search.getScoredCount());
+        assertArrayEquals(new int[]{199995, 199996}, search.top(2));
+        assertEquals(5, search.getScoredCount());
+    }
+
+    @Test
+    void testReadsOnWhenTiesPossible() {
+        Bitmap a = bitmapOf(0, 10);
+        Bitmap b = bitmapOf(0, 20);
+        ThresholdSearch search = new ThresholdSearch(Arrays.asList(a, b), Arrays.asList(1, 1));
+        assertArrayEquals(new int[]{19, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, search.top(11));
+        assertEquals(20, search.getScoredCount());
+        search = new ThresholdSearch(Arrays.asList(a, b), Arrays.asList(1, 1));
+        assertArrayEquals(new int[]{7, 8, 9}, search.top(3));
+        assertEquals(13, search.getScoredCount());
+        assertArrayEquals(new int[]{19, 0, 1, 2, 3, 4, 5, 6}, search.top(8));
+        assertEquals(20, search.getScoredCount());
+    }
+
+    @Test
+    void testNextBelowBound() {
+        List<Bitmap> buckets = Arrays.asList(bitmapOf(0, 4), bitmapOf(2, 6));
+        List<Integer> weights = Arrays.asList(1, 2);
+        ThresholdSearch search = new ThresholdSearch(buckets, weights);
+        assertArrayEquals(new long[]{3L << 32 | 3, 3L << 32 | 2, 2L << 32 | 5, 2L << 32 | 4},
+                search.next(4));
+        assertArrayEquals(new long[]{1L << 32 | 1, 1L << 32}, search.next(4));
+        assertEquals(-1, search.next());
+        search = new ThresholdSearch(buckets, weights);
+        search.setBound(2L << 32 | 5);
+        assertArrayEquals(new long[]{2L << 32 | 4, 1L << 32 | 1}, search.next(2));
+        search = new ThresholdSearch(buckets, weights);
+        search.setBound(1L << 32 | 1);
+        assertArrayEquals(new long[]{1L << 32}, search.next(4));
+        assertEquals(1, search.getScoredCount());
+    }
+
+    @Test
+    void testIgnoresZeroWeights() {
+        ThresholdSearch search = new ThresholdSearch(Arrays.asList(bitmapOf(0, 4), bitmapOf(2, 6)),
+                Arrays.asList(0, 2));
+        assertArrayEquals(new int[]{2, 3, 4, 5}, search.top(10));
+        search = new ThresholdSearch(Arrays.asList(bitmapOf(0, 4), bitmapOf(2, 6)), Arrays.asList(0, 2));
+        assertArrayEquals(new int[0], search.top(0));
+        assertEquals(0, search.getScoredCount());
+        assertArrayEquals(new int[0], new ThresholdSearch(Collections.emptyList(), Collections.emptyList()).top(4));
+    }
+
+    @Test
+    void testMatchesRankingEveryOrdinal() {
+        Random random = new Random(7);
+        List<Bitmap> buckets = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (int b = 0; b < 4; ++b) {
+            buckets.add(randomBitmap(random, 300));
+            weights.add(1 + random.nextInt(3));
+        }
+        List<Long> ranked = rankEveryOrdinal(buckets, weights, 300);
+        ThresholdSearch search = new ThresholdSearch(buckets, weights);
+        for (long expected : ranked) {
+            assertEquals(expected, search.next());
+        }
+        assertEquals(-1, search.next());
+        search = new ThresholdSearch(buckets, weights);
+        search.setBound(ranked.get(40));
+        assertEquals(ranked.get(41), search.next());
+    }
+}
@@ -0,0 +1,87 @@
+package model.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static model.search.CAStateMachineBuilder.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClothingAddressCacheTest {
+
+    static final String BRANDS = BRAND_CAPTURE_STR + EQUALITY_STR + "nike" + LIST_END_STR;
+    static final String TYPES = TYPE_CAPTURE_STR + EQUALITY_STR + "pants" + LIST_END_STR;
+    static final String COLORS = COLOR_STR + EQUALITY_STR + "red" + LIST_END_STR;
+
+    ClothingAddressCache cache;
+
+    @BeforeEach
+    void createCache() {
+        this.cache = new ClothingAddressCache(compileDefault(), 2);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, this.cache.size());
+        assertEquals(2, this.cache.getCapacity());
+        assertEquals(0, this.cache.getHitCount());
+        assertEquals(0, this.cache.getMissCount());
+        assertEquals(0, this.cache.getEvictionCount());
+    }
+
+    @Test
+    void testGetHitAndMiss() throws ClothingAddressParseException {
+        ClothingAddress first = this.cache.get(BRANDS);
+        assertTrue(first.isFrozen());
+        assertEquals(Arrays.asList("nike"), first.getBrands());
+        assertSame(first, this.cache.get(BRANDS));
+        assertSame(first, this.cache.get(" \t" + BRANDS));
+        assertEquals(2, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(1, this.cache.size());
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed() throws ClothingAddressParseException {
+        ClothingAddress brands = this.cache.get(BRANDS);
+        this.cache.get(TYPES);
+        this.cache.get(BRANDS);
+        this.cache.get(COLORS);
+        assertEquals(1, this.cache.getEvictionCount());
+        assertEquals(2, this.cache.size());
+        assertSame(brands, this.cache.get(BRANDS));
+        this.cache.get(TYPES);
+        assertEquals(4, this.cache.getMissCount());
+        assertEquals(2, this.cache.getEvictionCount());
+    }
+
+    @Test
+    void testErrorsNotCached() {
+        assertThrows(NoSuchKeyException.class, () -> this.cache.get("nokey" + EQUALITY_STR));
+        assertThrows(NoSuchKeyException.class, () -> this.cache.get("nokey" + EQUALITY_STR));
+        assertEquals(0, this.cache.size());
+        assertEquals(2, this.cache.getMissCount());
+    }
+
+    @Test
+    void testClear() throws ClothingAddressParseException {
+        this.cache.get(BRANDS);
+        this.cache.clear();
+        assertEquals(0, this.cache.size());
+        this.cache.get(BRANDS);
+        assertEquals(2, this.cache.getMissCount());
+    }
+
+    @Test
+    void testShared() throws ClothingAddressParseException {
+        assertSame(ClothingAddressCache.shared(), ClothingAddressCache.shared());
+        assertSame(ClothingAddress.ofCached(COLORS), ClothingAddressCache.shared().get(COLORS));
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("a b ", ClothingAddressCache.normalize(" \t\na b "));
+        assertEquals("", ClothingAddressCache.normalize("  "));
+    }
+}
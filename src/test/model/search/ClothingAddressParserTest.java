@@ -0,0 +1,191 @@
+package model.search;
+
+import model.Size;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static model.search.CAStateMachineBuilder.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClothingAddressParserTest {
+
+    ClothingAddressParser parser;
+
+    @BeforeEach
+    void createParser() {
+        this.parser = compileDefault();
+    }
+
+    @Test
+    void testNoCapture() throws ClothingAddressParseException {
+        assertEquals(0, this.parser.parse("").getCriteriaCount());
+        assertEquals(0, this.parser.parse(" \t ").getCriteriaCount());
+    }
+
+    @Test
+    void testUnknownKey() {
+        NoSuchKeyException ex = assertThrows(NoSuchKeyException.class,
+                () -> this.parser.parse(" UNINDWID " + EQUALITY_STR + "DKSDKDS"));
+        assertTrue(ex.getMessage().contains("\"unindwid\""));
+        assertEquals(" UNINDWID " + EQUALITY_STR, ex.getCaptured());
+        assertNull(ex.getErrorState());
+    }
+
+    @Test
+    void testCaptureBrands() throws ClothingAddressParseException {
+        ClothingAddress ca = this.parser.parse(" \tBRAND \t" + EQUALITY_STR
+                + " BRAND A " + LIST_SEPARATOR_STR + LIST_SEPARATOR_STR
+                + "BRAND B" + LIST_END_STR);
+        assertEquals(Arrays.asList("BRAND A", "BRAND B"), ca.getBrands());
+    }
+
+    @Test
+    void testCaptureAll() throws ClothingAddressParseException {
+        ClothingAddress o = this.parser.parse("\t   \t\t"
+                + BRAND_CAPTURE_STR + EQUALITY_STR + "adidas"
+                + LIST_SEPARATOR_STR + "lululemon" + LIST_END_STR
+                + IS_DIRTY_CAPTURE_STR + EQUALITY_STR + FALSE_STR + " "
+                + STYLE_CAPTURE_STR + EQUALITY_STR + "casual" + LIST_END_STR
+                + TYPE_CAPTURE_STR + EQUALITY_STR + "shirt" + LIST_END_STR
+                + SIZE_CAPTURE_STR + EQUALITY_STR + Size.XXL
+                + LIST_SEPARATOR_STR + "s" + LIST_END_STR
+                + MATERIAL_CAPTURE_STR + EQUALITY_STR + "cotton" + LIST_END_STR
+                + COLOR_STR + EQUALITY_STR + "red" + LIST_END_STR
+                + COUNT_STR + EQUALITY_STR + " 33" + LIST_END_STR);
+        assertEquals(Arrays.asList("adidas", "lululemon"), o.getBrands());
+        assertFalse(o.getIsDirty());
+        assertEquals(Arrays.asList("casual"), o.getStyles());
+        assertEquals(Arrays.asList("shirt"), o.getTypes());
+        assertEquals(Arrays.asList(Size.XXL, Size.S), o.getSizes());
+        assertEquals(Arrays.asList("cotton"), o.getMaterials());
+        assertEquals(Arrays.asList("red"), o.getColors());
+        assertEquals(33, o.getMatchCount());
+    }
+
+    @Test
+    void testCaptureIsDirty() throws ClothingAddressParseException {
+        assertTrue(this.parser.parse(IS_DIRTY_CAPTURE_STR + EQUALITY_STR + " " + TRUE_STR).getIsDirty());
+        UnexpectedInputException ex = assertThrows(UnexpectedInputException.class,
+                () -> this.parser.parse(IS_DIRTY_CAPTURE_STR + EQUALITY_STR + "ab"));
+        assertEquals("a", ex.getCaptured());
+    }
+
+    @Test
+    void testCaptureSizeUnknown() {
+        assertThrows(UnexpectedInputException.class, () -> this.parser.parse(
+                SIZE_CAPTURE_STR + EQUALITY_STR + "djaisjdosajdsad" + LIST_END_STR));
+    }
+
+    @Test
+    void testCaptureCountInvalid() {
+        assertThrows(UnexpectedInputException.class,
+                () -> this.parser.parse(COUNT_STR + EQUALITY_STR + "1a" + LIST_END_STR));
+        assertThrows(UnexpectedInputException.class,
+                () -> this.parser.parse(COUNT_STR + EQUALITY_STR + LIST_END_STR));
+        assertThrows(UnexpectedInputException.class,
+                () -> this.parser.parse(COUNT_STR + EQUALITY_STR + "99999999999" + LIST_END_STR));
+    }
+
+    @Test
+    void testIncorrectEndState() {
+        IncorrectEndStateException ex = assertThrows(IncorrectEndStateException.class,
+                () -> this.parser.parse(SIZE_CAPTURE_STR + EQUALITY_STR + "s"));
+        assertTrue(ex.getMessage().startsWith("Unfinished enum list"));
+        assertEquals("s", ex.getCaptured());
+        assertThrows(IncorrectEndStateException.class,
+                () -> this.parser.parse(BRAND_CAPTURE_STR + EQUALITY_STR + "nike"));
+        assertThrows(IncorrectEndStateException.class,
+                () -> this.parser.parse(IS_DIRTY_CAPTURE_STR + EQUALITY_STR + "y"));
+        assertThrows(IncorrectEndStateException.class,
+                () -> this.parser.parse(" " + BRAND_CAPTURE_STR));
+    }
+
+    @Test
+    void testCustomSymbols() throws ClothingAddressParseException {
+        ClothingAddressParser custom = new CAStateMachineBuilder()
+                .equalitySymbol(":=")
+                .listSeparatorSymbol("||")
+                .listEndSymbol("|.")
+                .brandKey("make")
+                .compile();
+        ClothingAddress ca = custom.parse("make :=a|b||c|.");
+        assertEquals(Arrays.asList("a|b", "c"), ca.getBrands());
+    }
+
+    @Test
+    void testMatchesStateMachine() throws ClothingAddressParseException {
+        String[] exprs = {
+                "brand = nike , adidas ; size=xs,XL;",
+                "dirty=no style=casual,;count=7;",
+                "  color=\tred\t;material=silk;type=pants;",
+        };
+        for (String expr : exprs) {
+            ClothingAddress expected = ClothingAddress.of(buildDefault(), expr);
+            ClothingAddress actual = this.parser.parse(expr);
+            assertEquals(expected.getBrands(), actual.getBrands());
+            assertEquals(expected.getSizes(), actual.getSizes());
+            assertEquals(expected.getStyles(), actual.getStyles());
+            assertEquals(expected.getTypes(), actual.getTypes());
+            assertEquals(expected.getMaterials(), actual.getMaterials());
+            assertEquals(expected.getColors(), actual.getColors());
+            assertEquals(expected.getIsDirty(), actual.getIsDirty());
+            assertEquals(expected.getMatchCount(), actual.getMatchCount());
+        }
+    }
+
+    @Test
+    void testCompileDefaultShared() {
+        assertSame(compileDefault(), compileDefault());
+        assertNotSame(compileDefault(), new CAStateMachineBuilder().compile());
+    }
+
+    @Test
+    void testCursorFeed() throws ClothingAddressParseException {
+        ClothingAddressParser.Cursor cursor = this.parser.newCursor();
+        String rest = " adidas" + LIST_END_STR + COUNT_STR + EQUALITY_STR + "4" + LIST_END_STR;
+        cursor.feed(BRAND_CAPTURE_STR + EQUALITY_STR + "nike");
+        cursor.feed(LIST_SEPARATOR_STR.charAt(0));
+        cursor.feed(rest);
+        assertEquals(BRAND_CAPTURE_STR.length() + 6 + rest.length(), cursor.getPosition());
+        ClothingAddress ca = cursor.finish();
+        assertEquals(Arrays.asList("nike", "adidas"), ca.getBrands());
+        assertEquals(4, ca.getMatchCount());
+    }
+
+    @Test
+    void testCursorFeedError() throws ClothingAddressParseException {
+        ClothingAddressParser.Cursor cursor = this.parser.newCursor();
+        cursor.feed(IS_DIRTY_CAPTURE_STR + EQUALITY_STR + " y");
+        UnexpectedInputException ex = assertThrows(UnexpectedInputException.class,
+                () -> cursor.feed('x'));
+        assertEquals(" yx", ex.getCaptured());
+        ClothingAddressParser.Cursor unfinished = this.parser.newCursor();
+        unfinished.feed(BRAND_CAPTURE_STR);
+        assertThrows(IncorrectEndStateException.class, unfinished::finish);
+    }
+
+    @Test
+    void testParseConcurrently() throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<ClothingAddress>> results = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            String expr = BRAND_CAPTURE_STR + EQUALITY_STR + "brand" + i + LIST_END_STR
+                    + COUNT_STR + EQUALITY_STR + i + LIST_END_STR;
+            results.add(pool.submit(() -> compileDefault().parse(expr)));
+        }
+        pool.shutdown();
+        for (int i = 0; i < results.size(); ++i) {
+            ClothingAddress ca = results.get(i).get();
+            assertEquals(Arrays.asList("brand" + i), ca.getBrands());
+            assertEquals(i, ca.getMatchCount());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package model.search;
 
+import model.ClothingAttribute;
 import model.Size;
 import org.junit.jupiter.api.Test;
 
@@ -23,6 +24,18 @@ class ClothingAddressTest {
         assertTrue(ca.getColors().isEmpty());
     }
 
+    @Test
+    void testGetCriteriaCount() {
+        ClothingAddress ca = new ClothingAddress();
+        assertEquals(0, ca.getCriteriaCount());
+        ca.getBrands().add("nike");
+        ca.getColors().addAll(Arrays.asList("red", "blue"));
+        ca.getSizes().add(Size.S);
+        assertEquals(4, ca.getCriteriaCount());
+        ca.setIsDirty(false);
+        assertEquals(5, ca.getCriteriaCount());
+    }
+
     @Test
     void ofBrandsOnlyTest() throws ClothingAddressParseException {
         ClothingAddress ca = ClothingAddress.of(
@@ -94,4 +107,48 @@ class ClothingAddressTest {
                 Arrays.asList("red", "orange")
         ));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFreeze() throws ClothingAddressParseException {
+        ClothingAddress ca = ClothingAddress.of(
+                COLOR_STR + EQUALITY_STR + "red" + LIST_END_STR
+                        + IS_DIRTY_CAPTURE_STR + EQUALITY_STR + TRUE_STR
+        );
+        assertFalse(ca.isFrozen());
+        ClothingAddress frozen = ca.freeze();
+        assertTrue(frozen.isFrozen());
+        assertSame(frozen, frozen.freeze());
+        ca.getColors().add("blue");
+        assertEquals(Arrays.asList("red"), frozen.getColors());
+        assertTrue(frozen.getIsDirty());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getColors().add("blue"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getSizes().add(Size.S));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setIsDirty(false));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setMatchCount(2));
+    }
+
+    @Test
+    void testWeights() {
+        ClothingAddress ca = new ClothingAddress();
+        for (ClothingAttribute attribute : ClothingAttribute.values()) {
+            assertEquals(ClothingAddress.DEFAULT_WEIGHT, ca.getWeight(attribute));
+        }
+        ca.setWeight(ClothingAttribute.TYPE, 3);
+        ClothingAddress frozen = ca.freeze();
+        ca.setWeight(ClothingAttribute.TYPE, 0);
+        assertEquals(0, ca.getWeight(ClothingAttribute.TYPE));
+        assertEquals(3, frozen.getWeight(ClothingAttribute.TYPE));
+        assertEquals(ClothingAddress.DEFAULT_WEIGHT, frozen.getWeight(ClothingAttribute.COLOR));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setWeight(ClothingAttribute.COLOR, 2));
+    }
+
+    @Test
+    void testFuzzy() {
+        ClothingAddress ca = new ClothingAddress();
+        assertFalse(ca.isFuzzy());
+        ca.setFuzzy(true);
+        ClothingAddress frozen = ca.freeze();
+        assertTrue(frozen.isFuzzy());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setFuzzy(false));
+    }
+}
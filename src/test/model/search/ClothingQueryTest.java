@@ -0,0 +1,80 @@
+package model.search;
+
+import model.Size;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClothingQueryTest {
+
+    @Test
+    void testParseTerm() throws ClothingAddressParseException {
+        ClothingQuery q = ClothingQuery.parse("  brand=nike, adidas; ");
+        assertEquals(ClothingQuery.Kind.TERM, q.getKind());
+        assertEquals(Arrays.asList("nike", "adidas"), q.getTerm().getBrands());
+        assertTrue(q.getTerm().isFrozen());
+        assertTrue(q.getOperands().isEmpty());
+    }
+
+    @Test
+    void testParseAndOrNot() throws ClothingAddressParseException {
+        ClothingQuery q = ClothingQuery.parse("dirty=no AND type=shirt; AND NOT brand=x; OR size=xs;");
+        assertEquals(ClothingQuery.Kind.OR, q.getKind());
+        ClothingQuery and = q.getOperands().get(0);
+        assertEquals(ClothingQuery.Kind.AND, and.getKind());
+        assertEquals(3, and.getOperands().size());
+        assertFalse(and.getOperands().get(0).getTerm().getIsDirty());
+        assertEquals(Collections.singletonList("shirt"), and.getOperands().get(1).getTerm().getTypes());
+        ClothingQuery not = and.getOperands().get(2);
+        assertEquals(ClothingQuery.Kind.NOT, not.getKind());
+        assertEquals(Collections.singletonList("x"), not.getOperands().get(0).getTerm().getBrands());
+        assertEquals(Collections.singletonList(Size.XS), q.getOperands().get(1).getTerm().getSizes());
+    }
+
+    @Test
+    void testParseParenthesesAndImplicitAnd() throws ClothingAddressParseException {
+        ClothingQuery q = ClothingQuery.parse("not(color=red; or color=blue;) style=casual;");
+        assertEquals(ClothingQuery.Kind.AND, q.getKind());
+        ClothingQuery not = q.getOperands().get(0);
+        assertEquals(ClothingQuery.Kind.NOT, not.getKind());
+        assertEquals(ClothingQuery.Kind.OR, not.getOperands().get(0).getKind());
+        assertEquals(Collections.singletonList("casual"), q.getOperands().get(1).getTerm().getStyles());
+    }
+
+    @Test
+    void testWordsInsideValues() throws ClothingAddressParseException {
+        ClothingQuery q = ClothingQuery.parse("brand=not and or; and material=(cotton);");
+        assertEquals(ClothingQuery.Kind.AND, q.getKind());
+        assertEquals(Collections.singletonList("not and or"), q.getOperands().get(0).getTerm().getBrands());
+        assertEquals(Collections.singletonList("(cotton)"), q.getOperands().get(1).getTerm().getMaterials());
+    }
+
+    @Test
+    void testParseErrors() {
+        assertThrows(IncorrectEndStateException.class, () -> ClothingQuery.parse(""));
+        assertThrows(IncorrectEndStateException.class, () -> ClothingQuery.parse("brand=x; AND"));
+        assertThrows(IncorrectEndStateException.class, () -> ClothingQuery.parse("(brand=x;"));
+        assertThrows(IncorrectEndStateException.class, () -> ClothingQuery.parse("brand=x"));
+        assertThrows(UnexpectedInputException.class, () -> ClothingQuery.parse("brand=x;)"));
+        assertThrows(UnexpectedInputException.class, () -> ClothingQuery.parse("NOT )"));
+        assertThrows(UnexpectedInputException.class, () -> ClothingQuery.parse("count=3;"));
+        assertThrows(NoSuchKeyException.class, () -> ClothingQuery.parse("colour=red;"));
+    }
+
+    @Test
+    void testBuilders() {
+        ClothingAddress address = new ClothingAddress();
+        address.getTypes().add("hat");
+        ClothingQuery term = ClothingQuery.term(address);
+        address.getTypes().add("cap");
+        assertEquals(Collections.singletonList("hat"), term.getTerm().getTypes());
+        ClothingQuery q = ClothingQuery.or(ClothingQuery.and(term, ClothingQuery.not(term)), term);
+        assertEquals(ClothingQuery.Kind.OR, q.getKind());
+        assertNull(q.getTerm());
+        assertEquals(2, q.getOperands().size());
+        assertThrows(UnsupportedOperationException.class, () -> q.getOperands().clear());
+    }
+}
@@ -0,0 +1,44 @@
+package model.search;
+
+import model.Size;
+import org.junit.jupiter.api.Test;
+
+import static model.search.EnumListCaptureTest.TestEnum.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnumLookupTest {
+
+    @Test
+    void testShared() {
+        assertSame(EnumLookup.of(Size.class), EnumLookup.of(Size.class));
+        assertNotSame(EnumLookup.of(Size.class), EnumLookup.of(EnumListCaptureTest.TestEnum.class));
+    }
+
+    @Test
+    void testStrict() {
+        EnumLookup<EnumListCaptureTest.TestEnum> lookup = EnumLookup.of(EnumListCaptureTest.TestEnum.class);
+        assertEquals(VALUE_A, lookup.strict("VALUE_A"));
+        assertEquals(Value_a, lookup.strict("Value_a"));
+        assertEquals(valueA, lookup.strict("valueA"));
+        assertNull(lookup.strict("value_a"));
+        assertNull(lookup.strict("VALUE A"));
+    }
+
+    @Test
+    void testLooseFirstMatch() {
+        EnumLookup<EnumListCaptureTest.TestEnum> lookup = EnumLookup.of(EnumListCaptureTest.TestEnum.class);
+        assertEquals(VALUE_A, lookup.loose("value_a"));
+        assertEquals(VALUE_A, lookup.loose("Value \t a"));
+        assertEquals(valueA, lookup.loose("VALUEA"));
+        assertNull(lookup.loose("value__a "));
+    }
+
+    @Test
+    void testLooseMatchesRegexWhitespace() {
+        EnumLookup<Size> lookup = EnumLookup.of(Size.class);
+        assertEquals(Size.XXL, lookup.loose("xxl"));
+        assertNull(lookup.loose("x\u00a0xl"));
+        assertNull(lookup.loose(" xl"));
+        assertEquals(Size.UNKNOWN, lookup.loose("unknown"));
+    }
+}
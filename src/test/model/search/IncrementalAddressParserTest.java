@@ -0,0 +1,122 @@
+package model.search;
+
+import model.ClothingAttribute;
+import model.Size;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalAddressParserTest {
+
+    IncrementalAddressParser parser;
+
+    @BeforeEach
+    void createParser() {
+        this.parser = new IncrementalAddressParser();
+    }
+
+    @Test
+    void testTypingReparsesOnlyNewCharacters() throws ClothingAddressParseException {
+        String expr = "brand=nike,adidas; size=xs; count=3;";
+        for (int i = 1; i <= expr.length(); ++i) {
+            this.parser.update(expr.substring(0, i));
+            assertEquals(1, this.parser.getReparsedCount());
+            assertNull(this.parser.getError());
+        }
+        ClothingAddress ca = this.parser.getAddress();
+        assertEquals(Arrays.asList("nike", "adidas"), ca.getBrands());
+        assertEquals(Collections.singletonList(Size.XS), ca.getSizes());
+        assertEquals(3, ca.getMatchCount());
+        assertTrue(ca.isFrozen());
+    }
+
+    @Test
+    void testPartialAddress() {
+        this.parser.update("brand=nike,adi");
+        ClothingAddress partial = this.parser.getPartialAddress();
+        assertEquals(Collections.singletonList("nike"), partial.getBrands());
+        assertTrue(partial.isFrozen());
+        assertThrows(IncorrectEndStateException.class, () -> this.parser.getAddress());
+    }
+
+    @Test
+    void testOpenItem() {
+        assertNull(this.parser.getOpenAttribute());
+        this.parser.update("brand=nike, ad");
+        assertEquals(ClothingAttribute.BRAND, this.parser.getOpenAttribute());
+        assertEquals("ad", this.parser.getOpenItem());
+        this.parser.update("brand=nike; color=");
+        assertEquals(ClothingAttribute.COLOR, this.parser.getOpenAttribute());
+        assertEquals("", this.parser.getOpenItem());
+        this.parser.update("brand=nike; dirty=");
+        assertNull(this.parser.getOpenAttribute());
+        this.parser.update("brand=nike; colour=re");
+        assertNull(this.parser.getOpenAttribute());
+        assertEquals("", this.parser.getOpenItem());
+    }
+
+    @Test
+    void testEditNearEndUndoesItems() throws ClothingAddressParseException {
+        this.parser.update("brand=nike,adidas; dirty=yes");
+        assertTrue(this.parser.getPartialAddress().getIsDirty());
+        this.parser.update("brand=nike,puma;");
+        assertEquals(5, this.parser.getReparsedCount());
+        ClothingAddress ca = this.parser.getAddress();
+        assertEquals(Arrays.asList("nike", "puma"), ca.getBrands());
+        assertNull(ca.getIsDirty());
+    }
+
+    @Test
+    void testRewindRestoresScalars() throws ClothingAddressParseException {
+        this.parser.update("dirty=no dirty=yes count=12;");
+        assertTrue(this.parser.getAddress().getIsDirty());
+        assertEquals(12, this.parser.getAddress().getMatchCount());
+        this.parser.update("dirty=no dirty=y");
+        assertFalse(this.parser.getPartialAddress().getIsDirty());
+        this.parser.update("dirty=no count=1");
+        assertFalse(this.parser.getPartialAddress().getIsDirty());
+        this.parser.update("dirty=no count=14;");
+        assertEquals(14, this.parser.getAddress().getMatchCount());
+    }
+
+    @Test
+    void testErrorStopsParsing() throws ClothingAddressParseException {
+        this.parser.update("brand=nike; colour=red;");
+        assertTrue(this.parser.getError() instanceof NoSuchKeyException);
+        assertEquals(18, this.parser.getErrorPosition());
+        assertEquals(Collections.singletonList("nike"), this.parser.getPartialAddress().getBrands());
+        assertThrows(NoSuchKeyException.class, () -> this.parser.getAddress());
+
+        this.parser.update("brand=nike; colour=red; count=2;");
+        assertEquals(0, this.parser.getReparsedCount());
+        assertNotNull(this.parser.getError());
+
+        this.parser.update("brand=nike; color=red;");
+        assertNull(this.parser.getError());
+        assertEquals(-1, this.parser.getErrorPosition());
+        assertEquals(Collections.singletonList("red"), this.parser.getAddress().getColors());
+    }
+
+    @Test
+    void testMatchesFullParse() throws ClothingAddressParseException {
+        String[] edits = {"type=shirt, pants; material=", "type=shirt; material=cotton;",
+                "type=shirt; style=", "style=formal,casual; dirty=no", "style=formal;", ""};
+        ClothingAddressParser full = CAStateMachineBuilder.compileDefault();
+        for (String edit : edits) {
+            this.parser.update(edit);
+            assertEquals(edit, this.parser.getText());
+            if (edit.endsWith(";") || edit.isEmpty()) {
+                ClothingAddress expected = full.parse(edit);
+                ClothingAddress actual = this.parser.getAddress();
+                assertEquals(expected.getTypes(), actual.getTypes());
+                assertEquals(expected.getMaterials(), actual.getMaterials());
+                assertEquals(expected.getStyles(), actual.getStyles());
+                assertEquals(expected.getIsDirty(), actual.getIsDirty());
+            }
+        }
+    }
+}
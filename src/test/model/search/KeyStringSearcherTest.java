@@ -184,4 +184,22 @@ class KeyStringSearcherTest {
         assertTrue(s.tryFindKey('A').wasMatchRestarted());
         assertEquals("ABDJSDJAN", s.getPartialMatch());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPartialMatchLengthAndAppend() {
+        KeyStringSearcher s = new KeyStringSearcher("ABC");
+        StringBuilder sb = new StringBuilder("x");
+        assertEquals(0, s.getPartialMatchLength());
+        s.appendPartialMatch(sb);
+        assertEquals("x", sb.toString());
+        s.tryFindKey('A');
+        s.tryFindKey('B');
+        assertEquals(2, s.getPartialMatchLength());
+        assertTrue(s.tryFindKey('Z').wasMatchBroken());
+        assertEquals(2, s.getPartialMatchLength());
+        s.appendPartialMatch(sb);
+        assertEquals("xAB", sb.toString());
+        s.reset();
+        assertEquals(0, s.getPartialMatchLength());
+    }
+}
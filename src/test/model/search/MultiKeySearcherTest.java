@@ -0,0 +1,81 @@
+package model.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static model.search.MatchState.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiKeySearcherTest {
+
+    MultiKeySearcher searcher;
+
+    @BeforeEach
+    void createSearcher() {
+        this.searcher = new MultiKeySearcher("abc", "bcd");
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals("abc", this.searcher.getKey(0));
+        assertEquals("bcd", this.searcher.getKey(1));
+        assertEquals(-1, this.searcher.getMatchedKey());
+        assertFalse(this.searcher.isMatching());
+    }
+
+    @Test
+    void testMatchStates() {
+        assertEquals(NO_MATCH, this.searcher.tryFindKey('x'));
+        assertEquals(PARTIAL_MATCH, this.searcher.tryFindKey('a'));
+        assertEquals(PARTIAL_MATCH, this.searcher.tryFindKey('b'));
+        assertEquals(2, this.searcher.getPartialMatchLength());
+        assertEquals(MATCH_RESTARTED, this.searcher.tryFindKey('a'));
+        assertEquals(1, this.searcher.getPartialMatchLength());
+        assertEquals(MATCH_BROKEN, this.searcher.tryFindKey('z'));
+        assertFalse(this.searcher.isMatching());
+    }
+
+    @Test
+    void testMatchThroughFailureLink() {
+        MultiKeySearcher aab = new MultiKeySearcher("aab", "x");
+        assertEquals(PARTIAL_MATCH, aab.tryFindKey('a'));
+        assertEquals(PARTIAL_MATCH, aab.tryFindKey('a'));
+        assertEquals(MATCH_RESTARTED, aab.tryFindKey('a'));
+        assertEquals(2, aab.getPartialMatchLength());
+        assertEquals(MATCH, aab.tryFindKey('b'));
+        assertEquals(0, aab.getMatchedKey());
+    }
+
+    @Test
+    void testSwitchKeyPartway() {
+        for (char c : "abc".toCharArray()) {
+            this.searcher.tryFindKey(c);
+        }
+        this.searcher.reset();
+        this.searcher.tryFindKey('a');
+        this.searcher.tryFindKey('b');
+        this.searcher.tryFindKey('x');
+        this.searcher.tryFindKey('b');
+        this.searcher.tryFindKey('c');
+        assertEquals(MATCH, this.searcher.tryFindKey('d'));
+        assertEquals(1, this.searcher.getMatchedKey());
+    }
+
+    @Test
+    void testMatchSticky() {
+        for (char c : "xbcd".toCharArray()) {
+            this.searcher.tryFindKey(c);
+        }
+        assertEquals(MATCH, this.searcher.tryFindKey('q'));
+        assertEquals(1, this.searcher.getMatchedKey());
+        this.searcher.reset();
+        assertEquals(-1, this.searcher.getMatchedKey());
+        assertEquals(NO_MATCH, this.searcher.tryFindKey('q'));
+    }
+
+    @Test
+    void testSharedAutomaton() {
+        assertSame(SymbolAutomaton.of("abc", "bcd"), SymbolAutomaton.of("abc", "bcd"));
+        assertNotSame(SymbolAutomaton.of("abc", "bcd"), SymbolAutomaton.of("bcd", "abc"));
+    }
+}
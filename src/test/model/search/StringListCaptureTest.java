@@ -144,6 +144,17 @@ class StringListCaptureTest {
         assertEquals("aabcz", slc.getTokensCaptured().get(0));
     }
 
+    @Test
+    void testSelfOverlappingListEnd() {
+        StringListCapture slc = new StringListCapture(",", "aab");
+        for (char c : "x,yaaa".toCharArray()) {
+            assertFalse(slc.isListFinished(c));
+        }
+        assertTrue(slc.isListFinished('b'));
+        assertTrue(slc.isListFinished('z'));
+        assertEquals(Arrays.asList("x", "ya"), slc.getTokensCaptured());
+    }
+
     @Test
     void testReclaimListCaptureSame() {
         KeyStringSearcher kss1 = new KeyStringSearcher("1b");
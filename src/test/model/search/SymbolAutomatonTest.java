@@ -0,0 +1,70 @@
+package model.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static model.search.SymbolAutomaton.NO_MATCH;
+import static model.search.SymbolAutomaton.START;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SymbolAutomatonTest {
+
+    SymbolAutomaton automaton;
+
+    @BeforeEach
+    void createAutomaton() {
+        this.automaton = new SymbolAutomaton(",", ";;", "yes", "n\u00e9");
+    }
+
+    int run(String in) {
+        int state = START;
+        for (char c : in.toCharArray()) {
+            state = this.automaton.next(state, c);
+        }
+        return state;
+    }
+
+    @Test
+    void testMatchEachSymbol() {
+        assertEquals(0, this.automaton.matchAt(this.run("abc,")));
+        assertEquals(1, this.automaton.matchAt(this.run("abc;;")));
+        assertEquals(2, this.automaton.matchAt(this.run("yyes")));
+        assertEquals(3, this.automaton.matchAt(this.run("nn\u00e9")));
+    }
+
+    @Test
+    void testPartialMatch() {
+        int state = this.run("ab;");
+        assertEquals(NO_MATCH, this.automaton.matchAt(state));
+        assertEquals(1, this.automaton.depthOf(state));
+        assertEquals(2, this.automaton.depthOf(this.run("yeye")));
+        assertEquals(0, this.automaton.depthOf(this.run("ye;x")));
+    }
+
+    @Test
+    void testOverlappingRestart() {
+        SymbolAutomaton aab = new SymbolAutomaton("aab");
+        int state = START;
+        for (char c : "aaab".toCharArray()) {
+            state = aab.next(state, c);
+        }
+        assertEquals(0, aab.matchAt(state));
+    }
+
+    @Test
+    void testLengthOf() {
+        assertEquals(1, this.automaton.lengthOf(0));
+        assertEquals(2, this.automaton.lengthOf(1));
+        assertEquals(3, this.automaton.lengthOf(2));
+    }
+
+    @Test
+    void testFind() {
+        assertEquals(2, this.automaton.find("a yes b", 2, 5, false));
+        assertEquals(2, this.automaton.find("YES", 0, 3, true));
+        assertEquals(NO_MATCH, this.automaton.find("YES", 0, 3, false));
+        assertEquals(NO_MATCH, this.automaton.find("ye", 0, 2, false));
+        assertEquals(NO_MATCH, this.automaton.find("yess", 0, 4, false));
+        assertEquals(NO_MATCH, this.automaton.find("", 0, 0, false));
+    }
+}
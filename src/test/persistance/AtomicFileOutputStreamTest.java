@@ -0,0 +1,54 @@
+package persistance;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicFileOutputStreamTest {
+
+    private static final String PATH = "./data/testatomic.txt";
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        Files.deleteIfExists(Paths.get(PATH));
+        Files.deleteIfExists(Paths.get(PATH + ".tmp"));
+    }
+
+    private static String read() throws IOException {
+        return new String(Files.readAllBytes(Paths.get(PATH)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testCommitReplacesFile() throws IOException {
+        try (AtomicFileOutputStream out = AtomicFileOutputStream.open(PATH)) {
+            out.write("old".getBytes(StandardCharsets.UTF_8));
+            out.commit();
+        }
+        try (AtomicFileOutputStream out = AtomicFileOutputStream.open(PATH)) {
+            out.write('n');
+            out.write("new".getBytes(StandardCharsets.UTF_8), 1, 2);
+            assertEquals("old", read());
+            out.commit();
+        }
+        assertEquals("new", read());
+        assertFalse(Files.exists(Paths.get(PATH + ".tmp")));
+    }
+
+    @Test
+    void testCloseWithoutCommitKeepsFile() throws IOException {
+        Path path = Paths.get(PATH);
+        Files.write(path, "kept".getBytes(StandardCharsets.UTF_8));
+        try (AtomicFileOutputStream out = AtomicFileOutputStream.open(PATH)) {
+            out.write("lost".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+        assertEquals("kept", read());
+    }
+}
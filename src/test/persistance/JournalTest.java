@@ -0,0 +1,137 @@
+package persistance;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    private static final String PATH = "./data/testjournal.journal";
+
+    @BeforeEach
+    @AfterEach
+    void deleteJournal() throws IOException {
+        Files.deleteIfExists(Paths.get(PATH));
+    }
+
+    @Test
+    void testReadMissing() throws IOException {
+        assertTrue(Journal.read(PATH).isEmpty());
+    }
+
+    @Test
+    void testAppendRead() throws IOException {
+        try (Journal journal = Journal.open(PATH)) {
+            assertEquals(0, journal.getRecordCount());
+            journal.append(new byte[]{1, 2, 3});
+            journal.append(new byte[0]);
+            journal.sync();
+            assertEquals(2, journal.getRecordCount());
+        }
+        try (Journal journal = Journal.open(PATH)) {
+            assertEquals(2, journal.getRecordCount());
+            journal.append(new byte[]{4});
+        }
+        List<byte[]> records = Journal.read(PATH);
+        assertEquals(3, records.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, records.get(0));
+        assertArrayEquals(new byte[0], records.get(1));
+        assertArrayEquals(new byte[]{4}, records.get(2));
+    }
+
+    @Test
+    void testOpenAtEnd() throws IOException {
+        long end;
+        try (Journal journal = Journal.open(PATH)) {
+            journal.append(new byte[]{1, 2, 3});
+            journal.append(new byte[]{4});
+            end = journal.getEnd();
+        }
+        assertEquals(Files.size(Paths.get(PATH)), end);
+        try (Journal journal = Journal.open(PATH, end, 2)) {
+            assertEquals(2, journal.getRecordCount());
+            journal.append(new byte[]{5, 6});
+            end = journal.getEnd();
+        }
+        assertEquals(3, Journal.read(PATH).size());
+        try (Journal journal = Journal.open(PATH, end - 1, 1)) {
+            assertEquals(3, journal.getRecordCount());
+            assertEquals(end, journal.getEnd());
+            journal.clear();
+            assertEquals(0, journal.getEnd());
+        }
+        assertTrue(Journal.read(PATH).isEmpty());
+    }
+
+    @Test
+    void testCreate() throws IOException {
+        try (Journal journal = Journal.open(PATH)) {
+            journal.append(new byte[]{1, 2, 3});
+        }
+        try (Journal journal = Journal.create(PATH, Arrays.asList(new byte[]{4}, new byte[]{5, 6}))) {
+            assertEquals(2, journal.getRecordCount());
+            assertEquals(Files.size(Paths.get(PATH)), journal.getEnd());
+            journal.append(new byte[]{7});
+        }
+        List<byte[]> records = Journal.read(PATH);
+        assertEquals(3, records.size());
+        assertArrayEquals(new byte[]{4}, records.get(0));
+        assertArrayEquals(new byte[]{5, 6}, records.get(1));
+        assertArrayEquals(new byte[]{7}, records.get(2));
+        assertFalse(Files.exists(Paths.get(PATH + ".tmp")));
+    }
+
+    @Test
+    void testTornRecordDropped() throws IOException {
+        try (Journal journal = Journal.open(PATH)) {
+            journal.append(new byte[]{1, 2, 3});
+            journal.append(new byte[]{4, 5, 6});
+        }
+        try (RandomAccessFile file = new RandomAccessFile(PATH, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        assertEquals(1, Journal.read(PATH).size());
+        try (Journal journal = Journal.open(PATH)) {
+            assertEquals(1, journal.getRecordCount());
+            journal.append(new byte[]{7});
+        }
+        List<byte[]> records = Journal.read(PATH);
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[]{7}, records.get(1));
+    }
+
+    @Test
+    void testCorruptRecordDropped() throws IOException {
+        try (Journal journal = Journal.open(PATH)) {
+            journal.append(new byte[]{1, 2, 3});
+            journal.append(new byte[]{4, 5, 6});
+        }
+        try (RandomAccessFile file = new RandomAccessFile(PATH, "rw")) {
+            file.seek(file.length() - 1);
+            file.write(9);
+        }
+        assertEquals(1, Journal.read(PATH).size());
+    }
+
+    @Test
+    void testClear() throws IOException {
+        try (Journal journal = Journal.open(PATH)) {
+            journal.append(new byte[]{1});
+            journal.clear();
+            assertEquals(0, journal.getRecordCount());
+            journal.append(new byte[]{2});
+        }
+        List<byte[]> records = Journal.read(PATH);
+        assertEquals(1, records.size());
+        assertArrayEquals(new byte[]{2}, records.get(0));
+    }
+}
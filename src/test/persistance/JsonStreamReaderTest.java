@@ -0,0 +1,97 @@
+package persistance;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStreamReaderTest {
+
+    private JsonStreamReader of(String json) {
+        return new JsonStreamReader(new StringReader(json));
+    }
+
+    @Test
+    void testReadObject() throws IOException {
+        JsonStreamReader jsr = of(" { \"a\" : \"x\\\"y\\u0041\", \"b\": true, \"c\" : -12 , \"d\": 9000000000 } ");
+        jsr.beginObject();
+        assertTrue(jsr.hasNext());
+        assertEquals("a", jsr.nextName());
+        assertEquals("x\"yA", jsr.nextString());
+        assertEquals("b", jsr.nextName());
+        assertTrue(jsr.nextBoolean());
+        assertEquals("c", jsr.nextName());
+        assertEquals(-12, jsr.nextInt());
+        assertEquals("d", jsr.nextName());
+        assertEquals(9000000000L, jsr.nextLong());
+        assertFalse(jsr.hasNext());
+        jsr.endObject();
+        jsr.close();
+    }
+
+    @Test
+    void testReadArrays() throws IOException {
+        JsonStreamReader jsr = of("[[\"a\",\"b\"],[1,2,3,4,5,6,7,8,9,10],[]]");
+        jsr.beginArray();
+        assertEquals(Arrays.asList("a", "b"), jsr.nextArray(JsonStreamReader::nextString));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, jsr.nextIntArray());
+        assertArrayEquals(new int[0], jsr.nextIntArray());
+        jsr.endArray();
+    }
+
+    @Test
+    void testSkipValue() throws IOException {
+        JsonStreamReader jsr = of("{\"a\":{\"x\":[1,{\"y\":null}],\"z\":\"s\"},\"b\":[false,2],\"c\":3}");
+        jsr.beginObject();
+        assertEquals("a", jsr.nextName());
+        jsr.skipValue();
+        assertEquals("b", jsr.nextName());
+        jsr.beginArray();
+        jsr.skipValue();
+        assertEquals(2, jsr.nextInt());
+        jsr.endArray();
+        assertEquals("c", jsr.nextName());
+        assertEquals(3, jsr.nextInt());
+        jsr.endObject();
+    }
+
+    @Test
+    void testMalformedThrows() throws IOException {
+        JsonStreamReader missingColon = of("{\"a\" 1}");
+        missingColon.beginObject();
+        assertThrows(JSONException.class, missingColon::nextName);
+        JsonStreamReader notBoolean = of("[1]");
+        notBoolean.beginArray();
+        assertThrows(JSONException.class, notBoolean::nextBoolean);
+        JsonStreamReader notNumber = of("[\"1\"]");
+        notNumber.beginArray();
+        assertThrows(JSONException.class, notNumber::nextInt);
+        JsonStreamReader unterminated = of("\"abc");
+        assertThrows(JSONException.class, unterminated::nextString);
+        JsonStreamReader valueWithoutName = of("{1}");
+        valueWithoutName.beginObject();
+        assertThrows(JSONException.class, valueWithoutName::nextInt);
+    }
+
+    @Test
+    void testOpenStream() throws IOException {
+        try (JsonStreamReader jsr = new JsonReader("./data/readtestdata.json").openStream()) {
+            jsr.beginObject();
+            boolean found = false;
+            while (jsr.hasNext()) {
+                if (jsr.nextName().equals("test-key")) {
+                    assertEquals("test val", jsr.nextString());
+                    found = true;
+                } else {
+                    jsr.skipValue();
+                }
+            }
+            jsr.endObject();
+            assertTrue(found);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package persistance;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStreamWriterTest {
+
+    private enum Letter { A }
+
+    @Test
+    void testWriteCompact() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonStreamWriter jsw = new JsonStreamWriter(out, 0);
+        jsw.beginObject()
+                .name("s").value("a\"b")
+                .name("b").value(true)
+                .name("n").value(-3L)
+                .name("i").intArray(new int[]{1, 2})
+                .name("e").beginArray().endArray()
+                .name("o").beginObject().endObject()
+                .endObject();
+        jsw.close();
+        assertEquals("{\"s\":\"a\\\"b\",\"b\":true,\"n\":-3,\"i\":[1,2],\"e\":[],\"o\":{}}",
+                out.toString());
+    }
+
+    @Test
+    void testWriteIndented() throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonStreamWriter(out, 2).beginObject()
+                .name("a").beginArray().value(1L).value(2L).endArray()
+                .endObject();
+        assertEquals("{\n  \"a\": [\n    1,\n    2\n  ]\n}", out.toString());
+    }
+
+    @Test
+    void testWriteObjectValues() throws IOException {
+        StringWriter out = new StringWriter();
+        JSONObject jso = new JSONObject()
+                .put("list", Arrays.asList("x", "y"))
+                .put("arr", new JSONArray().put(1.5).put(false))
+                .put("enum", Letter.A)
+                .put("nested", new JSONObject().put("k", 7));
+        new JsonStreamWriter(out, 1).value((Object) jso);
+        JSONObject read = new JSONObject(out.toString());
+        assertEquals(Arrays.asList("x", "y"), JsonBuilder.toStringList(read.getJSONArray("list")));
+        assertEquals(1.5, read.getJSONArray("arr").getDouble(0));
+        assertFalse(read.getJSONArray("arr").getBoolean(1));
+        assertEquals("A", read.getString("enum"));
+        assertEquals(7, read.getJSONObject("nested").getInt("k"));
+        out = new StringWriter();
+        new JsonStreamWriter(out, 0).value((Object) null);
+        assertEquals("null", out.toString());
+    }
+
+    @Test
+    void testWriteSavable() throws IOException {
+        StringWriter out = new StringWriter();
+        Savable<String> s = args -> new JSONObject().put("k", args);
+        new JsonStreamWriter(out, 0).savableArray(Arrays.asList(s, s), "v");
+        assertEquals("[{\"k\":\"v\"},{\"k\":\"v\"}]", out.toString());
+    }
+
+    @Test
+    void testMisplacedTokensThrow() throws IOException {
+        JsonStreamWriter jsw = new JsonStreamWriter(new StringWriter(), 0);
+        assertThrows(JSONException.class, () -> jsw.name("a"));
+        assertThrows(JSONException.class, jsw::endObject);
+        jsw.beginObject().name("a");
+        assertThrows(JSONException.class, () -> jsw.name("b"));
+        assertThrows(JSONException.class, jsw::endObject);
+    }
+}
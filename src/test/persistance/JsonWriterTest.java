@@ -5,6 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +23,7 @@ class JsonWriterTest {
     @Test
     void testConstructor() {
         assertEquals("./data/testdata.json", this.jsw.dstPath);
+        assertEquals(JsonWriter.DEFAULT_INDENT, this.jsw.indent);
     }
 
     @Test
@@ -36,6 +40,30 @@ class JsonWriterTest {
         }
     }
 
+    @Test
+    void testWriteCompact() throws IOException {
+        this.jsw = new JsonWriter("./data/testdatacompact.json", 0);
+        assertEquals(0, this.jsw.indent);
+        this.jsw.write(args -> new JSONObject().put("a", new JSONObject().put("b", 1)), null);
+        assertEquals("{\"a\":{\"b\":1}}",
+                new String(Files.readAllBytes(Paths.get(this.jsw.dstPath)), StandardCharsets.UTF_8));
+        Files.delete(Paths.get(this.jsw.dstPath));
+    }
+
+    @Test
+    void testFailedWriteKeepsFile() throws IOException {
+        this.jsw = new JsonWriter("./data/testdatafailed.json", 0);
+        this.jsw.write(args -> new JSONObject().put("a", 1), null);
+        Savable<Void> failing = args -> {
+            throw new IllegalStateException();
+        };
+        assertThrows(IllegalStateException.class, () -> this.jsw.write(failing, null));
+        assertEquals("{\"a\":1}",
+                new String(Files.readAllBytes(Paths.get(this.jsw.dstPath)), StandardCharsets.UTF_8));
+        Files.delete(Paths.get(this.jsw.dstPath));
+        Files.deleteIfExists(Paths.get(this.jsw.dstPath + ".tmp"));
+    }
+
     @Test
     void testWriteWithArgs() {
         Savable<String> s = args -> new JSONObject()
@@ -0,0 +1,60 @@
+package persistance;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotReaderTest {
+
+    private SnapshotReader read(byte[] bytes) throws IOException {
+        return new SnapshotReader(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void testBadMagicThrows() {
+        assertThrows(SnapshotFormatException.class, () -> read(new byte[]{'{', '"', 'a', '"', ':'}));
+        assertThrows(SnapshotFormatException.class, () -> read(new byte[0]));
+    }
+
+    @Test
+    void testUnsupportedVersionThrows() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SnapshotWriter.MAGIC);
+        out.writeByte(SnapshotWriter.VERSION + 1);
+        assertThrows(SnapshotFormatException.class, () -> read(bytes.toByteArray()));
+    }
+
+    @Test
+    void testBadStringIndexThrows() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotWriter sw = new SnapshotWriter(bytes)) {
+            sw.writeVarInt(3);
+        }
+        SnapshotReader sr = read(bytes.toByteArray());
+        assertThrows(SnapshotFormatException.class, sr::readString);
+    }
+
+    @Test
+    void testBadTrailerThrows() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotWriter sw = new SnapshotWriter(bytes)) {
+            sw.writeString("a");
+        }
+        byte[] snapshot = bytes.toByteArray();
+        snapshot[snapshot.length - 1] += 100;
+        assertThrows(SnapshotFormatException.class, () -> read(snapshot));
+        assertThrows(SnapshotFormatException.class, () -> read(Arrays.copyOf(snapshot, 7)));
+    }
+
+    @Test
+    void testOpenMissingFileThrows() {
+        assertThrows(IOException.class, () -> SnapshotReader.open("./data/adskdasadnoskddskd"));
+    }
+}
@@ -0,0 +1,147 @@
+package persistance;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotWriterTest {
+
+    private byte[] write(SnapshotSavable<Void> s) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter sw = new SnapshotWriter(out)) {
+            s.writeSnapshot(sw, null);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        byte[] bytes = write((sw, unused) -> {
+            sw.writeVarInt(0);
+            sw.writeVarInt(300);
+            sw.writeVarInt(Integer.MAX_VALUE);
+            sw.writeVarLong(1L << 40);
+            sw.writeBoolean(true);
+            sw.writeString("blue");
+            sw.writeStrings(Arrays.asList("red", "blue", "\u00e9"));
+            sw.writeInts(new int[]{5, 1, 3});
+            sw.writeSortedInts(new int[]{2, 2, 9});
+        });
+        try (SnapshotReader sr = new SnapshotReader(new ByteArrayInputStream(bytes))) {
+            assertEquals(0, sr.readVarInt());
+            assertEquals(300, sr.readVarInt());
+            assertEquals(Integer.MAX_VALUE, sr.readVarInt());
+            assertEquals(1L << 40, sr.readVarLong());
+            assertTrue(sr.readBoolean());
+            assertEquals("blue", sr.readString());
+            assertEquals(Arrays.asList("red", "blue", "\u00e9"), sr.readStrings());
+            assertArrayEquals(new int[]{5, 1, 3}, sr.readInts());
+            assertArrayEquals(new int[]{2, 2, 9}, sr.readSortedInts());
+        }
+    }
+
+    @Test
+    void testStringsWrittenOnce() throws IOException {
+        List<String> once = Collections.singletonList("a long repeated brand name");
+        List<String> many = Collections.nCopies(50, "a long repeated brand name");
+        int onceLength = write((sw, unused) -> sw.writeStrings(once)).length;
+        int manyLength = write((sw, unused) -> sw.writeStrings(many)).length;
+        assertEquals(onceLength + 49, manyLength);
+    }
+
+    @Test
+    void testBodyStreamed() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter sw = new SnapshotWriter(out)) {
+            for (int i = 0; i < 10000; ++i) {
+                sw.writeVarInt(i);
+            }
+            assertTrue(out.size() > 10000);
+        }
+    }
+
+    @Test
+    void testWriteAll() throws IOException {
+        SnapshotSavable<String> s = (sw, args) -> sw.writeString(args);
+        byte[] bytes = write((sw, unused) -> sw.writeAll(Arrays.asList(s, s), "x"));
+        try (SnapshotReader sr = new SnapshotReader(new ByteArrayInputStream(bytes))) {
+            assertEquals(Arrays.asList("x", "x"), sr.readAll(SnapshotReader::readString));
+        }
+    }
+
+    @Test
+    void testSections() throws IOException {
+        byte[] bytes = write((sw, unused) -> {
+            sw.writeString("outside");
+            sw.beginSection("first");
+            sw.writeString("a");
+            sw.writeVarInt(1000);
+            sw.endSection();
+            sw.beginSection("second");
+            sw.writeString("b");
+            sw.endSection();
+        });
+        SnapshotReader sr = new SnapshotReader(new ByteArrayInputStream(bytes));
+        assertEquals(2, sr.getSectionCount());
+        assertEquals("first", sr.getSectionKey(0));
+        assertEquals("second", sr.getSectionKey(1));
+        SnapshotReader second = sr.section(1);
+        assertEquals("b", second.readString());
+        assertThrows(SnapshotFormatException.class, second::readVarInt);
+        SnapshotReader first = sr.section(0);
+        assertEquals("a", first.readString());
+        assertEquals(1000, first.readVarInt());
+        assertEquals("outside", sr.readString());
+    }
+
+    @Test
+    void testCopySection() throws IOException {
+        SnapshotReader sr = new SnapshotReader(new ByteArrayInputStream(write((sw, unused) -> {
+            sw.writeString("outside");
+            sw.beginSection("first");
+            sw.writeString("a");
+            sw.writeString("outside");
+            sw.endSection();
+        })));
+        SnapshotReader copied = new SnapshotReader(new ByteArrayInputStream(write((sw, unused) -> {
+            sw.writeString("b");
+            sw.copySection("renamed", sr.section(0));
+            sw.beginSection("second");
+            sw.writeString("c");
+            sw.endSection();
+        })));
+        assertEquals(2, copied.getSectionCount());
+        assertEquals("renamed", copied.getSectionKey(0));
+        SnapshotReader first = copied.section(0);
+        assertEquals("a", first.readString());
+        assertEquals("outside", first.readString());
+        assertThrows(SnapshotFormatException.class, first::readVarInt);
+        assertEquals("c", copied.section(1).readString());
+        assertEquals("b", copied.readString());
+    }
+
+    @Test
+    void testOpenReplacesFile() throws IOException {
+        String path = "./data/testwriter.snapshot";
+        try (SnapshotWriter sw = SnapshotWriter.open(path)) {
+            sw.writeString("old");
+        }
+        SnapshotReader old = SnapshotReader.open(path);
+        try (SnapshotWriter sw = SnapshotWriter.open(path)) {
+            sw.writeString("new");
+        }
+        assertFalse(Files.exists(Paths.get(path + ".tmp")));
+        assertEquals("old", old.readString());
+        assertEquals("new", SnapshotReader.open(path).readString());
+        Files.delete(Paths.get(path));
+    }
+}